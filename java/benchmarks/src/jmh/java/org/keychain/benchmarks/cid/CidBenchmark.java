@@ -0,0 +1,68 @@
+package org.keychain.benchmarks.cid;
+
+import java.util.concurrent.TimeUnit;
+import org.keychain.cid.Base32Lower;
+import org.keychain.cid.Base58Btc;
+import org.keychain.cid.Cid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CidBenchmark {
+    @Param({
+        "QmYwAPJzv5CZsnAzt8auV2V4ZZFZ5JYh5rS4Qh1zS4x2o7",
+        "bafybeigdyrzt5sfp7udm7hu76uh7y26nf3efuylqabf3oclgtqy55fbzdi",
+        "z3v8Auad2Fjts4vGRMCrvxSfWv2XZ5wFTT34yK4cAJHfPgPhLwZ"
+    })
+    public String cid;
+
+    private String did;
+    private String payload;
+    private byte[] buffer;
+
+    @Setup
+    public void setup() {
+        did = "did:test:" + cid;
+        payload = cid.charAt(0) == 'Q' ? cid : cid.substring(1);
+        buffer = new byte[cid.length()];
+    }
+
+    @Benchmark
+    public boolean isValidLegacy() {
+        return LegacyCid.isValid(cid);
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        return Cid.isValid(cid);
+    }
+
+    @Benchmark
+    public boolean isValidDidSuffix() {
+        return Cid.isValid(did, did.lastIndexOf(':') + 1, did.length());
+    }
+
+    @Benchmark
+    public byte[] decodeLegacy() {
+        if (cid.charAt(0) == 'b') {
+            return LegacyCid.Base32Lower.decode(payload);
+        }
+        return LegacyCid.Base58Btc.decode(payload);
+    }
+
+    @Benchmark
+    public int decodeIntoBuffer() {
+        if (cid.charAt(0) == 'b') {
+            return Base32Lower.decode(payload, 0, payload.length(), buffer, 0);
+        }
+        return Base58Btc.decode(payload, 0, payload.length(), buffer, 0);
+    }
+}
@@ -0,0 +1,265 @@
+package org.keychain.benchmarks.cid;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+/**
+ * Frozen copy of the string-based CID codecs from cid 1.0.1, kept as a baseline for {@link CidBenchmark}.
+ */
+final class LegacyCid {
+    private LegacyCid() {
+    }
+
+    static boolean isValid(String cid) {
+        if (cid == null || cid.isBlank()) {
+            return false;
+        }
+
+        try {
+            if (cid.startsWith("Q")) {
+                return validateV0(cid);
+            }
+            return validateV1(cid);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static boolean validateV0(String cid) {
+        byte[] bytes = Base58Btc.decode(cid);
+        if (bytes.length != 34) {
+            return false;
+        }
+        return (bytes[0] == 0x12) && (bytes[1] == 0x20);
+    }
+
+    private static boolean validateV1(String cid) {
+        byte[] bytes = Multibase.decode(cid);
+        if (bytes.length < 4) {
+            return false;
+        }
+
+        Varint.Decoded version = Varint.decodeUnsigned(bytes, 0);
+        if (version.value != 1) {
+            return false;
+        }
+
+        int offset = version.length;
+        Varint.Decoded codec = Varint.decodeUnsigned(bytes, offset);
+        offset += codec.length;
+        if (offset >= bytes.length) {
+            return false;
+        }
+
+        Varint.Decoded multihashCode = Varint.decodeUnsigned(bytes, offset);
+        offset += multihashCode.length;
+        if (offset >= bytes.length) {
+            return false;
+        }
+
+        Varint.Decoded digestLength = Varint.decodeUnsigned(bytes, offset);
+        offset += digestLength.length;
+
+        if (digestLength.value < 0 || digestLength.value > Integer.MAX_VALUE) {
+            return false;
+        }
+
+        int remaining = bytes.length - offset;
+        return remaining == (int) digestLength.value;
+    }
+
+    static final class Multibase {
+        private Multibase() {
+        }
+
+        static byte[] decode(String value) {
+            if (value == null || value.length() < 2) {
+                throw new IllegalArgumentException("value");
+            }
+
+            char prefix = value.charAt(0);
+            String payload = value.substring(1);
+
+            if (prefix == 'z') {
+                return Base58Btc.decode(payload);
+            }
+            if (prefix == 'b') {
+                return Base32Lower.decode(payload);
+            }
+
+            throw new IllegalArgumentException("value");
+        }
+    }
+
+    static final class Base58Btc {
+        private static final String ALPHABET = "123456789ABCDEFGHJKLMNPQRSTUVWXYZabcdefghijkmnopqrstuvwxyz";
+        private static final int[] INDEXES = new int[128];
+
+        static {
+            Arrays.fill(INDEXES, -1);
+            for (int i = 0; i < ALPHABET.length(); i += 1) {
+                INDEXES[ALPHABET.charAt(i)] = i;
+            }
+        }
+
+        private Base58Btc() {
+        }
+
+        static byte[] decode(String input) {
+            if (input == null || input.isEmpty()) {
+                throw new IllegalArgumentException("input");
+            }
+
+            int zeros = 0;
+            while (zeros < input.length() && input.charAt(zeros) == '1') {
+                zeros += 1;
+            }
+
+            byte[] input58 = new byte[input.length()];
+            for (int i = 0; i < input.length(); i += 1) {
+                char c = input.charAt(i);
+                if (c >= 128 || INDEXES[c] < 0) {
+                    throw new IllegalArgumentException("input");
+                }
+                input58[i] = (byte) INDEXES[c];
+            }
+
+            byte[] decoded = new byte[input.length()];
+            int outputStart = decoded.length;
+            int inputStart = zeros;
+            while (inputStart < input58.length) {
+                int mod = divmod256(input58, inputStart);
+                if (input58[inputStart] == 0) {
+                    inputStart += 1;
+                }
+                decoded[--outputStart] = (byte) mod;
+            }
+
+            while (outputStart < decoded.length && decoded[outputStart] == 0) {
+                outputStart += 1;
+            }
+
+            byte[] output = new byte[zeros + (decoded.length - outputStart)];
+            System.arraycopy(decoded, outputStart, output, zeros, decoded.length - outputStart);
+            return output;
+        }
+
+        private static int divmod256(byte[] number, int startAt) {
+            int remainder = 0;
+            for (int i = startAt; i < number.length; i += 1) {
+                int digit = number[i] & 0xFF;
+                int temp = remainder * 58 + digit;
+                number[i] = (byte) (temp / 256);
+                remainder = temp % 256;
+            }
+            return remainder;
+        }
+    }
+
+    static final class Base32Lower {
+        private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz234567";
+        private static final int[] INDEXES = new int[128];
+
+        static {
+            Arrays.fill(INDEXES, -1);
+            for (int i = 0; i < ALPHABET.length(); i += 1) {
+                char c = ALPHABET.charAt(i);
+                INDEXES[c] = i;
+                INDEXES[Character.toUpperCase(c)] = i;
+            }
+        }
+
+        private Base32Lower() {
+        }
+
+        static byte[] decode(String input) {
+            if (input == null || input.isEmpty()) {
+                throw new IllegalArgumentException("input");
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            int buffer = 0;
+            int bitsLeft = 0;
+
+            for (int i = 0; i < input.length(); i += 1) {
+                char c = input.charAt(i);
+                if (c == '=') {
+                    continue;
+                }
+                if (c >= 128 || INDEXES[c] < 0) {
+                    throw new IllegalArgumentException("input");
+                }
+
+                buffer = (buffer << 5) | INDEXES[c];
+                bitsLeft += 5;
+
+                while (bitsLeft >= 8) {
+                    bitsLeft -= 8;
+                    out.write((buffer >> bitsLeft) & 0xFF);
+                    if (bitsLeft > 0) {
+                        buffer &= (1 << bitsLeft) - 1;
+                    } else {
+                        buffer = 0;
+                    }
+                }
+            }
+
+            return out.toByteArray();
+        }
+    }
+
+    static final class Varint {
+        private Varint() {
+        }
+
+        static Decoded decodeUnsigned(byte[] input, int offset) {
+            if (input == null) {
+                throw new IllegalArgumentException("input");
+            }
+            if (offset < 0 || offset >= input.length) {
+                throw new IllegalArgumentException("offset");
+            }
+
+            long value = 0;
+            int shift = 0;
+
+            for (int i = 0; i < 10; i += 1) {
+                int index = offset + i;
+                if (index >= input.length) {
+                    throw new IllegalArgumentException("varint overflow");
+                }
+
+                int b = input[index] & 0xFF;
+                long bits = b & 0x7FL;
+                if (bits != 0) {
+                    if (shift >= 63) {
+                        throw new IllegalArgumentException("varint overflow");
+                    }
+                    long add = bits << shift;
+                    if (add < 0 || value > Long.MAX_VALUE - add) {
+                        throw new IllegalArgumentException("varint overflow");
+                    }
+                    value += add;
+                }
+
+                if ((b & 0x80) == 0) {
+                    return new Decoded(value, i + 1);
+                }
+
+                shift += 7;
+            }
+
+            throw new IllegalArgumentException("varint overflow");
+        }
+
+        static final class Decoded {
+            final long value;
+            final int length;
+
+            private Decoded(long value, int length) {
+                this.value = value;
+                this.length = length;
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.keychain.benchmarks.crypto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.keychain.crypto.CanonicalJson;
+import org.keychain.crypto.Hashing;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CanonicalJsonBenchmark {
+    @Param({"1", "32", "512"})
+    public int entries;
+
+    private Map<String, Object> document;
+
+    @Setup
+    public void setup() {
+        document = new LinkedHashMap<>();
+        document.put("type", "create");
+        document.put("created", "2026-01-01T00:00:00.000Z");
+        document.put("registration", Map.of("version", 1, "type", "asset", "registry", "hyperswarm"));
+
+        List<Object> items = new ArrayList<>();
+        for (int i = 0; i < entries; i++) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", "did:test:z3v8AuaiNa4u5oGhQHdvnNhhCjCbcBxNP3VDpFxTqYjRxrpXyTR" + i);
+            item.put("index", i);
+            item.put("weight", i * 0.25);
+            item.put("label", "entry é " + i);
+            items.add(item);
+        }
+        document.put("data", Map.of("items", items));
+    }
+
+    @Benchmark
+    public String stringPath() {
+        return Hashing.sha256Hex(CanonicalJson.canonicalize(document));
+    }
+
+    @Benchmark
+    public byte[] streamingPath() {
+        return CanonicalJson.sha256(document);
+    }
+
+    @Benchmark
+    public String hashCanonicalJson() {
+        return Hashing.hashCanonicalJson(document);
+    }
+}
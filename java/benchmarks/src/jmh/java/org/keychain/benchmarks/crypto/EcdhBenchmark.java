@@ -0,0 +1,56 @@
+package org.keychain.benchmarks.crypto;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+import org.keychain.crypto.JwkPair;
+import org.keychain.crypto.Secp256k1Ecdh;
+import org.keychain.crypto.Secp256k1Jwk;
+import org.keychain.crypto.SigningKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class EcdhBenchmark {
+    private JwkPair sender;
+    private JwkPair receiver;
+    private SigningKey senderKey;
+    private byte[] shared;
+
+    @Setup
+    public void setup() {
+        SecureRandom random = new SecureRandom();
+        sender = Secp256k1Jwk.fromPrivateKey(randomKey(random));
+        receiver = Secp256k1Jwk.fromPrivateKey(randomKey(random));
+        senderKey = SigningKey.from(sender.privateJwk);
+        shared = Secp256k1Ecdh.sharedSecretCompressed(receiver.publicJwk, sender.privateJwk);
+    }
+
+    @Benchmark
+    public byte[] sharedSecretJwk() {
+        return Secp256k1Ecdh.sharedSecretCompressed(receiver.publicJwk, sender.privateJwk);
+    }
+
+    @Benchmark
+    public byte[] sharedSecretHandle() {
+        return Secp256k1Ecdh.sharedSecretCompressed(receiver.publicJwk, senderKey);
+    }
+
+    @Benchmark
+    public byte[] deriveKey() {
+        return Secp256k1Ecdh.deriveKey32(shared);
+    }
+
+    private static byte[] randomKey(SecureRandom random) {
+        byte[] priv = new byte[32];
+        random.nextBytes(priv);
+        priv[0] &= 0x7F;
+        return priv;
+    }
+}
@@ -0,0 +1,47 @@
+package org.keychain.benchmarks.crypto;
+
+import java.util.concurrent.TimeUnit;
+import org.bitcoinj.crypto.DeterministicKey;
+import org.keychain.crypto.HdKeyUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class HdKeyBenchmark {
+    private static final String MNEMONIC =
+        "abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon about";
+
+    private DeterministicKey master;
+    private DeterministicKey chain;
+    private int index;
+
+    @Setup
+    public void setup() {
+        master = HdKeyUtil.masterFromMnemonic(MNEMONIC);
+        chain = HdKeyUtil.deriveChain(master, 0);
+    }
+
+    @Benchmark
+    public DeterministicKey derivePath() {
+        index = (index + 1) & 0xFF;
+        return HdKeyUtil.derivePath(master, 0, index);
+    }
+
+    @Benchmark
+    public DeterministicKey deriveFromChain() {
+        index = (index + 1) & 0xFF;
+        return HdKeyUtil.deriveChild(chain, index);
+    }
+
+    @Benchmark
+    public DeterministicKey masterFromMnemonic() {
+        return HdKeyUtil.masterFromMnemonic(MNEMONIC);
+    }
+}
@@ -0,0 +1,52 @@
+package org.keychain.benchmarks.crypto;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.keychain.crypto.JwkPair;
+import org.keychain.crypto.Secp256k1Jwk;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwkBatchBenchmark {
+    @Param({"1", "16", "128"})
+    public int count;
+
+    private List<byte[]> privateKeys;
+
+    @Setup
+    public void setup() {
+        SecureRandom random = new SecureRandom();
+        privateKeys = new ArrayList<>(count);
+        for (int i = 0; i < count; i += 1) {
+            byte[] priv = new byte[32];
+            random.nextBytes(priv);
+            priv[0] &= 0x7F;
+            privateKeys.add(priv);
+        }
+    }
+
+    @Benchmark
+    public List<JwkPair> individually() {
+        List<JwkPair> pairs = new ArrayList<>(count);
+        for (byte[] priv : privateKeys) {
+            pairs.add(Secp256k1Jwk.fromPrivateKey(priv));
+        }
+        return pairs;
+    }
+
+    @Benchmark
+    public List<JwkPair> batched() {
+        return Secp256k1Jwk.fromPrivateKeys(privateKeys);
+    }
+}
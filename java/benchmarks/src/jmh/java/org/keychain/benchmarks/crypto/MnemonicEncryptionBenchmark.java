@@ -0,0 +1,54 @@
+package org.keychain.benchmarks.crypto;
+
+import java.util.concurrent.TimeUnit;
+import javax.crypto.SecretKey;
+import org.keychain.crypto.EncryptedMnemonic;
+import org.keychain.crypto.MnemonicEncryption;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The passphrase paths are dominated by the KDF; the key paths show the cost once a session holds the key.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MnemonicEncryptionBenchmark {
+    private static final String MNEMONIC =
+        "abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon about";
+    private static final String PASSPHRASE = "benchmark passphrase";
+
+    private EncryptedMnemonic encrypted;
+    private SecretKey key;
+
+    @Setup
+    public void setup() {
+        encrypted = MnemonicEncryption.encrypt(MNEMONIC, PASSPHRASE);
+        key = MnemonicEncryption.deriveKey(PASSPHRASE, encrypted);
+    }
+
+    @Benchmark
+    public EncryptedMnemonic encryptWithPassphrase() {
+        return MnemonicEncryption.encrypt(MNEMONIC, PASSPHRASE);
+    }
+
+    @Benchmark
+    public String decryptWithPassphrase() {
+        return MnemonicEncryption.decrypt(encrypted, PASSPHRASE);
+    }
+
+    @Benchmark
+    public String decryptWithKey() {
+        return MnemonicEncryption.decrypt(encrypted, key);
+    }
+
+    @Benchmark
+    public EncryptedMnemonic encryptWithKey() {
+        return MnemonicEncryption.encrypt(MNEMONIC, key, encrypted);
+    }
+}
@@ -0,0 +1,77 @@
+package org.keychain.benchmarks.crypto;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+import org.bouncycastle.asn1.sec.SECNamedCurves;
+import org.bouncycastle.asn1.x9.X9ECParameters;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.ec.CustomNamedCurves;
+import org.bouncycastle.crypto.params.ECDomainParameters;
+import org.bouncycastle.crypto.params.ECPrivateKeyParameters;
+import org.bouncycastle.crypto.params.ECPublicKeyParameters;
+import org.bouncycastle.crypto.signers.ECDSASigner;
+import org.bouncycastle.crypto.signers.HMacDSAKCalculator;
+import org.bouncycastle.math.ec.ECPoint;
+import org.bouncycastle.math.ec.FixedPointCombMultiplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class Secp256k1Benchmark {
+    @Param({"generic", "custom"})
+    public String curve;
+
+    private ECDomainParameters domain;
+    private BigInteger d;
+    private ECPoint q;
+    private byte[] hash;
+    private BigInteger[] signature;
+
+    @Setup
+    public void setup() {
+        X9ECParameters params = "custom".equals(curve)
+            ? CustomNamedCurves.getByName("secp256k1")
+            : SECNamedCurves.getByName("secp256k1");
+        domain = new ECDomainParameters(params.getCurve(), params.getG(), params.getN(), params.getH());
+
+        SecureRandom random = new SecureRandom();
+        d = new BigInteger(256, random).mod(domain.getN().subtract(BigInteger.ONE)).add(BigInteger.ONE);
+        q = domain.getG().multiply(d).normalize();
+        hash = new byte[32];
+        random.nextBytes(hash);
+        signature = sign();
+    }
+
+    @Benchmark
+    public ECPoint keyGeneration() {
+        return new FixedPointCombMultiplier().multiply(domain.getG(), d).normalize();
+    }
+
+    @Benchmark
+    public BigInteger[] sign() {
+        ECDSASigner signer = new ECDSASigner(new HMacDSAKCalculator(new SHA256Digest()));
+        signer.init(true, new ECPrivateKeyParameters(d, domain));
+        return signer.generateSignature(hash);
+    }
+
+    @Benchmark
+    public boolean verify() {
+        ECDSASigner verifier = new ECDSASigner();
+        verifier.init(false, new ECPublicKeyParameters(q, domain));
+        return verifier.verifySignature(hash, signature[0], signature[1]);
+    }
+
+    @Benchmark
+    public byte[] ecdh() {
+        return q.multiply(d).normalize().getEncoded(true);
+    }
+}
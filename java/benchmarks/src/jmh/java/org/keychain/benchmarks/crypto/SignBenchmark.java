@@ -0,0 +1,52 @@
+package org.keychain.benchmarks.crypto;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+import org.keychain.crypto.JwkPair;
+import org.keychain.crypto.Secp256k1Jwk;
+import org.keychain.crypto.Secp256k1Sign;
+import org.keychain.crypto.SigningKey;
+import org.keychain.crypto.util.Hex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Run with {@code -prof gc} to compare per-signature allocation between the two paths.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SignBenchmark {
+    private JwkPair pair;
+    private SigningKey key;
+    private String hash;
+
+    @Setup
+    public void setup() {
+        SecureRandom random = new SecureRandom();
+        byte[] priv = new byte[32];
+        random.nextBytes(priv);
+        priv[0] &= 0x7F;
+        pair = Secp256k1Jwk.fromPrivateKey(priv);
+        key = SigningKey.from(pair.privateJwk);
+
+        byte[] digest = new byte[32];
+        random.nextBytes(digest);
+        hash = Hex.encode(digest);
+    }
+
+    @Benchmark
+    public String signJwk() {
+        return Secp256k1Sign.signHash(hash, pair.privateJwk);
+    }
+
+    @Benchmark
+    public String signHandle() {
+        return Secp256k1Sign.signHash(hash, key);
+    }
+}
@@ -0,0 +1,51 @@
+package org.keychain.benchmarks.crypto;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+import org.keychain.crypto.JwkPair;
+import org.keychain.crypto.Secp256k1Jwk;
+import org.keychain.crypto.Secp256k1Sign;
+import org.keychain.crypto.VerificationKey;
+import org.keychain.crypto.util.Hex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class VerifyBenchmark {
+    private JwkPair pair;
+    private VerificationKey key;
+    private String hash;
+    private String signature;
+
+    @Setup
+    public void setup() {
+        SecureRandom random = new SecureRandom();
+        byte[] priv = new byte[32];
+        random.nextBytes(priv);
+        priv[0] &= 0x7F;
+        pair = Secp256k1Jwk.fromPrivateKey(priv);
+        key = VerificationKey.from(pair.publicJwk);
+
+        byte[] digest = new byte[32];
+        random.nextBytes(digest);
+        hash = Hex.encode(digest);
+        signature = Secp256k1Sign.signHash(hash, pair.privateJwk);
+    }
+
+    @Benchmark
+    public boolean verifyJwk() {
+        return Secp256k1Sign.verifySig(hash, signature, pair.publicJwk);
+    }
+
+    @Benchmark
+    public boolean verifyHandle() {
+        return Secp256k1Sign.verifySig(hash, signature, key);
+    }
+}
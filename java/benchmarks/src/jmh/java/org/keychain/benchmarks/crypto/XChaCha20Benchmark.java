@@ -0,0 +1,79 @@
+package org.keychain.benchmarks.crypto;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+import org.keychain.crypto.XChaCha20Poly1305;
+import org.keychain.crypto.XChaCha20Util;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class XChaCha20Benchmark {
+    @Param({"64", "1024", "65536"})
+    public int size;
+
+    @Param({"TINK", "JDK"})
+    public XChaCha20Poly1305.Provider provider;
+
+    private XChaCha20Poly1305 cipher;
+    private byte[] nonce;
+    private long counter;
+    private byte[] sealed;
+    private byte[] key;
+    private byte[] plaintext;
+    private String ciphertext;
+
+    @Setup
+    public void setup() {
+        SecureRandom random = new SecureRandom();
+        key = new byte[32];
+        random.nextBytes(key);
+        plaintext = new byte[size];
+        random.nextBytes(plaintext);
+        ciphertext = XChaCha20Util.encrypt(key, plaintext);
+
+        cipher = XChaCha20Poly1305.create(key, provider);
+        nonce = new byte[XChaCha20Poly1305.NONCE_LENGTH];
+        random.nextBytes(nonce);
+        sealed = new byte[size + XChaCha20Poly1305.TAG_LENGTH];
+    }
+
+    @Benchmark
+    public byte[] seal() throws Exception {
+        nextNonce();
+        cipher.encrypt(nonce, plaintext, sealed, 0);
+        return sealed;
+    }
+
+    @Benchmark
+    public byte[] sealAndOpen() throws Exception {
+        nextNonce();
+        cipher.encrypt(nonce, plaintext, sealed, 0);
+        return cipher.decrypt(nonce, sealed);
+    }
+
+    private void nextNonce() {
+        counter += 1;
+        for (int i = 0; i < 8; i++) {
+            nonce[i] = (byte) (counter >>> (8 * i));
+        }
+    }
+
+    @Benchmark
+    public String encrypt() {
+        return XChaCha20Util.encrypt(key, plaintext);
+    }
+
+    @Benchmark
+    public byte[] decrypt() {
+        return XChaCha20Util.decrypt(key, ciphertext);
+    }
+}
@@ -1,6 +1,5 @@
 package org.keychain.cid;
 
-import java.io.ByteArrayOutputStream;
 import java.util.Arrays;
 
 public final class Base32Lower {
@@ -24,33 +23,85 @@ public final class Base32Lower {
             throw new IllegalArgumentException("input");
         }
 
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] out = new byte[maxDecodedLength(input.length())];
+        int length = decode(input, 0, input.length(), out, 0);
+        return length == out.length ? out : Arrays.copyOf(out, length);
+    }
+
+    public static String encode(byte[] input) {
+        if (input == null) {
+            throw new IllegalArgumentException("input");
+        }
+        return encode(input, 0, input.length);
+    }
+
+    public static String encode(byte[] input, int offset, int length) {
+        if (input == null || offset < 0 || length < 0 || offset > input.length - length) {
+            throw new IllegalArgumentException("input");
+        }
+
+        char[] out = new char[encodedLength(length)];
+        int position = 0;
+        int buffer = 0;
+        int bitsLeft = 0;
+
+        for (int i = offset; i < offset + length; i += 1) {
+            buffer = ((buffer << 8) | (input[i] & 0xFF)) & 0xFFF;
+            bitsLeft += 8;
+            while (bitsLeft >= 5) {
+                bitsLeft -= 5;
+                out[position++] = ALPHABET.charAt((buffer >> bitsLeft) & 0x1F);
+            }
+        }
+        if (bitsLeft > 0) {
+            out[position] = ALPHABET.charAt((buffer << (5 - bitsLeft)) & 0x1F);
+        }
+
+        return new String(out);
+    }
+
+    public static int encodedLength(int decodedLength) {
+        return (int) ((decodedLength * 8L + 4) / 5);
+    }
+
+    public static int maxDecodedLength(int encodedLength) {
+        return (int) ((encodedLength * 5L) / 8);
+    }
+
+    public static int decode(CharSequence input, int start, int end, byte[] out, int offset) {
+        if (input == null || start < 0 || end > input.length() || start >= end) {
+            throw new IllegalArgumentException("input");
+        }
+        if (out == null || offset < 0 || offset > out.length) {
+            throw new IllegalArgumentException("out");
+        }
+
+        int position = offset;
         int buffer = 0;
         int bitsLeft = 0;
 
-        for (int i = 0; i < input.length(); i += 1) {
+        for (int i = start; i < end; i += 1) {
             char c = input.charAt(i);
             if (c == '=') {
                 continue;
             }
-            if (c >= 128 || INDEXES[c] < 0) {
+            int value = c < 128 ? INDEXES[c] : -1;
+            if (value < 0) {
                 throw new IllegalArgumentException("input");
             }
 
-            buffer = (buffer << 5) | INDEXES[c];
+            buffer = ((buffer << 5) | value) & 0x1FFF;
             bitsLeft += 5;
 
-            while (bitsLeft >= 8) {
+            if (bitsLeft >= 8) {
                 bitsLeft -= 8;
-                out.write((buffer >> bitsLeft) & 0xFF);
-                if (bitsLeft > 0) {
-                    buffer &= (1 << bitsLeft) - 1;
-                } else {
-                    buffer = 0;
+                if (position == out.length) {
+                    throw new IllegalArgumentException("out");
                 }
+                out[position++] = (byte) (buffer >> bitsLeft);
             }
         }
 
-        return out.toByteArray();
+        return position - offset;
     }
 }
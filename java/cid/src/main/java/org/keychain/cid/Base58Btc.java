@@ -5,6 +5,8 @@ import java.util.Arrays;
 public final class Base58Btc {
     private static final String ALPHABET = "123456789ABCDEFGHJKLMNPQRSTUVWXYZabcdefghijkmnopqrstuvwxyz";
     private static final int[] INDEXES = new int[128];
+    private static final int DIGITS_PER_WORD = 5;
+    private static final long[] POWERS = {1L, 58L, 3_364L, 195_112L, 11_316_496L, 656_356_768L};
 
     static {
         Arrays.fill(INDEXES, -1);
@@ -21,48 +23,109 @@ public final class Base58Btc {
             throw new IllegalArgumentException("input");
         }
 
+        byte[] out = new byte[maxDecodedLength(input.length())];
+        int length = decode(input, 0, input.length(), out, 0);
+        return length == out.length ? out : Arrays.copyOf(out, length);
+    }
+
+    public static String encode(byte[] input) {
+        if (input == null) {
+            throw new IllegalArgumentException("input");
+        }
+        return encode(input, 0, input.length);
+    }
+
+    public static String encode(byte[] input, int offset, int length) {
+        if (input == null || offset < 0 || length < 0 || offset > input.length - length) {
+            throw new IllegalArgumentException("input");
+        }
+
+        int end = offset + length;
         int zeros = 0;
-        while (zeros < input.length() && input.charAt(zeros) == '1') {
+        while (offset + zeros < end && input[offset + zeros] == 0) {
             zeros += 1;
         }
 
-        byte[] input58 = new byte[input.length()];
-        for (int i = 0; i < input.length(); i += 1) {
-            char c = input.charAt(i);
-            if (c >= 128 || INDEXES[c] < 0) {
-                throw new IllegalArgumentException("input");
+        // Base58 digits are accumulated little-endian, one byte folded in per pass.
+        byte[] digits = new byte[(length - zeros) * 138 / 100 + 1];
+        int size = 0;
+        for (int i = offset + zeros; i < end; i += 1) {
+            int carry = input[i] & 0xFF;
+            for (int j = 0; j < size; j += 1) {
+                carry += (digits[j] & 0xFF) << 8;
+                digits[j] = (byte) (carry % 58);
+                carry /= 58;
             }
-            input58[i] = (byte) INDEXES[c];
-        }
-
-        byte[] decoded = new byte[input.length()];
-        int outputStart = decoded.length;
-        int inputStart = zeros;
-        while (inputStart < input58.length) {
-            int mod = divmod256(input58, inputStart);
-            if (input58[inputStart] == 0) {
-                inputStart += 1;
+            while (carry != 0) {
+                digits[size++] = (byte) (carry % 58);
+                carry /= 58;
             }
-            decoded[--outputStart] = (byte) mod;
         }
 
-        while (outputStart < decoded.length && decoded[outputStart] == 0) {
-            outputStart += 1;
+        char[] out = new char[zeros + size];
+        Arrays.fill(out, 0, zeros, ALPHABET.charAt(0));
+        for (int i = 0; i < size; i += 1) {
+            out[zeros + i] = ALPHABET.charAt(digits[size - 1 - i]);
         }
+        return new String(out);
+    }
 
-        byte[] output = new byte[zeros + (decoded.length - outputStart)];
-        System.arraycopy(decoded, outputStart, output, zeros, decoded.length - outputStart);
-        return output;
+    public static int maxDecodedLength(int encodedLength) {
+        return encodedLength;
     }
 
-    private static int divmod256(byte[] number, int startAt) {
-        int remainder = 0;
-        for (int i = startAt; i < number.length; i += 1) {
-            int digit = number[i] & 0xFF;
-            int temp = remainder * 58 + digit;
-            number[i] = (byte) (temp / 256);
-            remainder = temp % 256;
+    public static int decode(CharSequence input, int start, int end, byte[] out, int offset) {
+        if (input == null || start < 0 || end > input.length() || start >= end) {
+            throw new IllegalArgumentException("input");
+        }
+        if (out == null || offset < 0 || offset > out.length) {
+            throw new IllegalArgumentException("out");
+        }
+
+        int zeros = 0;
+        while (start + zeros < end && input.charAt(start + zeros) == '1') {
+            zeros += 1;
+        }
+        if (zeros > out.length - offset) {
+            throw new IllegalArgumentException("out");
         }
-        return remainder;
+
+        // The magnitude is accumulated big-endian in out[top, limit), growing leftwards.
+        // Each pass folds up to five base58 digits in with a single multiply-add.
+        int floor = offset + zeros;
+        int limit = out.length;
+        int top = limit;
+        int i = start + zeros;
+        while (i < end) {
+            int digits = Math.min(DIGITS_PER_WORD, end - i);
+            long carry = 0;
+            for (int k = 0; k < digits; k += 1, i += 1) {
+                char c = input.charAt(i);
+                int digit = c < 128 ? INDEXES[c] : -1;
+                if (digit < 0) {
+                    throw new IllegalArgumentException("input");
+                }
+                carry = carry * 58 + digit;
+            }
+
+            long multiplier = POWERS[digits];
+            for (int j = limit - 1; j >= top; j -= 1) {
+                long t = (out[j] & 0xFFL) * multiplier + carry;
+                out[j] = (byte) t;
+                carry = t >>> 8;
+            }
+            while (carry != 0) {
+                if (top == floor) {
+                    throw new IllegalArgumentException("out");
+                }
+                out[--top] = (byte) carry;
+                carry >>>= 8;
+            }
+        }
+
+        int magnitude = limit - top;
+        System.arraycopy(out, top, out, floor, magnitude);
+        Arrays.fill(out, offset, floor, (byte) 0);
+        return zeros + magnitude;
     }
 }
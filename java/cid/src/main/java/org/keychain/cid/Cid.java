@@ -1,6 +1,10 @@
 package org.keychain.cid;
 
 public final class Cid {
+    private static final int V0_LENGTH = 34;
+    private static final int SCRATCH_LENGTH = 128;
+    private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[SCRATCH_LENGTH]);
+
     private Cid() {
     }
 
@@ -8,57 +12,66 @@ public final class Cid {
         if (cid == null || cid.isBlank()) {
             return false;
         }
+        return isValid(cid, 0, cid.length());
+    }
+
+    public static boolean isValid(CharSequence cid, int start, int end) {
+        if (cid == null || start < 0 || end > cid.length() || start >= end) {
+            return false;
+        }
 
         try {
-            if (cid.startsWith("Q")) {
-                return validateV0(cid);
+            if (cid.charAt(start) == 'Q') {
+                return validateV0(cid, start, end);
             }
-            return validateV1(cid);
+            return validateV1(cid, start, end);
         } catch (IllegalArgumentException e) {
             return false;
         }
     }
 
-    private static boolean validateV0(String cid) {
-        byte[] bytes = Base58Btc.decode(cid);
-        if (bytes.length != 34) {
+    private static boolean validateV0(CharSequence cid, int start, int end) {
+        byte[] bytes = SCRATCH.get();
+        int length = Base58Btc.decode(cid, start, end, bytes, 0);
+        if (length != V0_LENGTH) {
             return false;
         }
         return (bytes[0] == 0x12) && (bytes[1] == 0x20);
     }
 
-    private static boolean validateV1(String cid) {
-        byte[] bytes = Multibase.decode(cid);
-        if (bytes.length < 4) {
+    private static boolean validateV1(CharSequence cid, int start, int end) {
+        int capacity = Multibase.maxDecodedLength(cid, start, end);
+        byte[] bytes = capacity <= SCRATCH_LENGTH ? SCRATCH.get() : new byte[capacity];
+        int length = Multibase.decode(cid, start, end, bytes, 0);
+        if (length < 4) {
             return false;
         }
 
-        Varint.Decoded version = Varint.decodeUnsigned(bytes, 0);
-        if (version.value != 1) {
+        if (Varint.readUnsigned(bytes, 0, length) != 1) {
             return false;
         }
 
-        int offset = version.length;
-        Varint.Decoded codec = Varint.decodeUnsigned(bytes, offset);
-        offset += codec.length;
-        if (offset >= bytes.length) {
+        int offset = Varint.encodedLength(bytes, 0, length);
+        Varint.readUnsigned(bytes, offset, length);
+        offset += Varint.encodedLength(bytes, offset, length);
+        if (offset >= length) {
             return false;
         }
 
-        Varint.Decoded multihashCode = Varint.decodeUnsigned(bytes, offset);
-        offset += multihashCode.length;
-        if (offset >= bytes.length) {
+        Varint.readUnsigned(bytes, offset, length);
+        offset += Varint.encodedLength(bytes, offset, length);
+        if (offset >= length) {
             return false;
         }
 
-        Varint.Decoded digestLength = Varint.decodeUnsigned(bytes, offset);
-        offset += digestLength.length;
+        long digestLength = Varint.readUnsigned(bytes, offset, length);
+        offset += Varint.encodedLength(bytes, offset, length);
 
-        if (digestLength.value < 0 || digestLength.value > Integer.MAX_VALUE) {
+        if (digestLength < 0 || digestLength > Integer.MAX_VALUE) {
             return false;
         }
 
-        int remaining = bytes.length - offset;
-        return remaining == (int) digestLength.value;
+        int remaining = length - offset;
+        return remaining == (int) digestLength;
     }
 }
@@ -0,0 +1,253 @@
+package org.keychain.cid;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compact DID whose method and CID header are interned and whose 32-byte digest is held in four longs.
+ * At most {@value #MAX_INTERNED_PREFIXES} prefixes are shared; any further prefixes are held per instance,
+ * so untrusted input cannot grow the shared table.
+ */
+public final class Did {
+    private static final String SCHEME = "did:";
+    private static final int DIGEST_LENGTH = 32;
+    private static final int SCRATCH_LENGTH = 64;
+    private static final char V0 = 'Q';
+    private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[SCRATCH_LENGTH]);
+    static final int MAX_INTERNED_PREFIXES = 256;
+    private static final Map<String, Prefix> PREFIXES = new ConcurrentHashMap<>();
+
+    private final Prefix prefix;
+    private final long d0;
+    private final long d1;
+    private final long d2;
+    private final long d3;
+
+    private Did(Prefix prefix, long d0, long d1, long d2, long d3) {
+        this.prefix = prefix;
+        this.d0 = d0;
+        this.d1 = d1;
+        this.d2 = d2;
+        this.d3 = d3;
+    }
+
+    public static Did parse(String did) {
+        Did parsed = tryParse(did);
+        if (parsed == null) {
+            throw new IllegalArgumentException("did");
+        }
+        return parsed;
+    }
+
+    public static Did tryParse(String did) {
+        if (did == null || !did.startsWith(SCHEME)) {
+            return null;
+        }
+        int separator = did.lastIndexOf(':');
+        if (separator <= SCHEME.length() || separator == did.length() - 1) {
+            return null;
+        }
+
+        try {
+            int start = separator + 1;
+            if (did.charAt(start) == V0) {
+                return parseV0(did, separator);
+            }
+            return parseV1(did, separator);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public String method() {
+        String didPrefix = prefix.didPrefix;
+        return didPrefix.substring(SCHEME.length(), didPrefix.length() - 1);
+    }
+
+    public String cid() {
+        Prefix p = prefix;
+        byte[] bytes = new byte[p.header.length + DIGEST_LENGTH];
+        System.arraycopy(p.header, 0, bytes, 0, p.header.length);
+        writeDigest(bytes, p.header.length);
+
+        if (p.base == V0) {
+            return Base58Btc.encode(bytes);
+        }
+        if (p.base == 'z') {
+            return 'z' + Base58Btc.encode(bytes);
+        }
+        return 'b' + Base32Lower.encode(bytes);
+    }
+
+    public byte[] digest() {
+        byte[] digest = new byte[DIGEST_LENGTH];
+        writeDigest(digest, 0);
+        return digest;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Did)) {
+            return false;
+        }
+        Did that = (Did) other;
+        return d0 == that.d0 && d1 == that.d1 && d2 == that.d2 && d3 == that.d3
+            && (prefix == that.prefix || prefix.key.equals(that.prefix.key));
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * prefix.hash + Long.hashCode(d0);
+    }
+
+    @Override
+    public String toString() {
+        return prefix.didPrefix + cid();
+    }
+
+    private void writeDigest(byte[] out, int offset) {
+        writeLong(out, offset, d0);
+        writeLong(out, offset + 8, d1);
+        writeLong(out, offset + 16, d2);
+        writeLong(out, offset + 24, d3);
+    }
+
+    private static Did parseV0(String did, int separator) {
+        byte[] bytes = SCRATCH.get();
+        int length = Base58Btc.decode(did, separator + 1, did.length(), bytes, 0);
+        if (length != DIGEST_LENGTH + 2 || bytes[0] != 0x12 || bytes[1] != 0x20) {
+            return null;
+        }
+        return create(did, separator, V0, bytes, 2);
+    }
+
+    private static Did parseV1(String did, int separator) {
+        int start = separator + 1;
+        int end = did.length();
+        char base = did.charAt(start);
+        if (base == 'b' && !isCanonicalBase32(did, start + 1, end)) {
+            return null;
+        }
+
+        int capacity = Multibase.maxDecodedLength(did, start, end);
+        if (capacity > SCRATCH_LENGTH) {
+            return null;
+        }
+        byte[] bytes = SCRATCH.get();
+        int length = Multibase.decode(did, start, end, bytes, 0);
+
+        if (Varint.readUnsigned(bytes, 0, length) != 1) {
+            return null;
+        }
+        int offset = Varint.encodedLength(bytes, 0, length);
+        offset += Varint.encodedLength(bytes, offset, length);
+        if (offset >= length) {
+            return null;
+        }
+        offset += Varint.encodedLength(bytes, offset, length);
+        if (offset >= length) {
+            return null;
+        }
+        if (Varint.readUnsigned(bytes, offset, length) != DIGEST_LENGTH) {
+            return null;
+        }
+        offset += Varint.encodedLength(bytes, offset, length);
+        if (length - offset != DIGEST_LENGTH) {
+            return null;
+        }
+
+        return create(did, separator, base, bytes, offset);
+    }
+
+    private static boolean isCanonicalBase32(String value, int start, int end) {
+        int count = end - start;
+        int decoded = Base32Lower.maxDecodedLength(count);
+        if (Base32Lower.encodedLength(decoded) != count) {
+            return false;
+        }
+        for (int i = start; i < end; i += 1) {
+            char c = value.charAt(i);
+            if (!((c >= 'a' && c <= 'z') || (c >= '2' && c <= '7'))) {
+                return false;
+            }
+        }
+        int unused = count * 5 - decoded * 8;
+        int last = value.charAt(end - 1);
+        int bits = last >= 'a' ? last - 'a' : last - '2' + 26;
+        return (bits & ((1 << unused) - 1)) == 0;
+    }
+
+    private static Did create(String did, int separator, char base, byte[] bytes, int digestOffset) {
+        return new Did(
+            intern(did, separator, base, bytes, digestOffset),
+            readLong(bytes, digestOffset),
+            readLong(bytes, digestOffset + 8),
+            readLong(bytes, digestOffset + 16),
+            readLong(bytes, digestOffset + 24)
+        );
+    }
+
+    private static Prefix intern(String did, int separator, char base, byte[] header, int headerLength) {
+        StringBuilder key = new StringBuilder(separator + headerLength + 3);
+        key.append(base).append((char) headerLength);
+        for (int i = 0; i < headerLength; i += 1) {
+            key.append((char) (header[i] & 0xFF));
+        }
+        key.append(did, 0, separator + 1);
+        String lookup = key.toString();
+
+        Prefix prefix = PREFIXES.get(lookup);
+        if (prefix != null) {
+            return prefix;
+        }
+
+        prefix = new Prefix(lookup, did.substring(0, separator + 1), base, Arrays.copyOf(header, headerLength));
+        synchronized (PREFIXES) {
+            if (PREFIXES.size() >= MAX_INTERNED_PREFIXES) {
+                Prefix interned = PREFIXES.get(lookup);
+                return interned != null ? interned : prefix;
+            }
+            Prefix raced = PREFIXES.putIfAbsent(lookup, prefix);
+            return raced != null ? raced : prefix;
+        }
+    }
+
+    static int internedPrefixes() {
+        return PREFIXES.size();
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i += 1) {
+            value = (value << 8) | (bytes[offset + i] & 0xFFL);
+        }
+        return value;
+    }
+
+    private static void writeLong(byte[] bytes, int offset, long value) {
+        for (int i = 7; i >= 0; i -= 1) {
+            bytes[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+
+    private static final class Prefix {
+        private final String key;
+        private final int hash;
+        private final String didPrefix;
+        private final char base;
+        private final byte[] header;
+
+        private Prefix(String key, String didPrefix, char base, byte[] header) {
+            this.key = key;
+            this.hash = key.hashCode();
+            this.didPrefix = didPrefix;
+            this.base = base;
+            this.header = header;
+        }
+    }
+}
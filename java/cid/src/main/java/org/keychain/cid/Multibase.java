@@ -1,5 +1,7 @@
 package org.keychain.cid;
 
+import java.util.Arrays;
+
 public final class Multibase {
     private Multibase() {
     }
@@ -9,14 +11,38 @@ public final class Multibase {
             throw new IllegalArgumentException("value");
         }
 
-        char prefix = value.charAt(0);
-        String payload = value.substring(1);
+        byte[] out = new byte[maxDecodedLength(value, 0, value.length())];
+        int length = decode(value, 0, value.length(), out, 0);
+        return length == out.length ? out : Arrays.copyOf(out, length);
+    }
+
+    public static int maxDecodedLength(CharSequence value, int start, int end) {
+        if (value == null || start < 0 || end > value.length() || end - start < 2) {
+            throw new IllegalArgumentException("value");
+        }
+
+        char prefix = value.charAt(start);
+        if (prefix == 'z') {
+            return Base58Btc.maxDecodedLength(end - start - 1);
+        }
+        if (prefix == 'b') {
+            return Base32Lower.maxDecodedLength(end - start - 1);
+        }
+
+        throw new IllegalArgumentException("value");
+    }
+
+    public static int decode(CharSequence value, int start, int end, byte[] out, int offset) {
+        if (value == null || start < 0 || end > value.length() || end - start < 2) {
+            throw new IllegalArgumentException("value");
+        }
 
+        char prefix = value.charAt(start);
         if (prefix == 'z') {
-            return Base58Btc.decode(payload);
+            return Base58Btc.decode(value, start + 1, end, out, offset);
         }
         if (prefix == 'b') {
-            return Base32Lower.decode(payload);
+            return Base32Lower.decode(value, start + 1, end, out, offset);
         }
 
         throw new IllegalArgumentException("value");
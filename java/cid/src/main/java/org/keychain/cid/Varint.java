@@ -1,6 +1,8 @@
 package org.keychain.cid;
 
 public final class Varint {
+    private static final int MAX_LENGTH = 10;
+
     private Varint() {
     }
 
@@ -8,16 +10,20 @@ public final class Varint {
         if (input == null) {
             throw new IllegalArgumentException("input");
         }
-        if (offset < 0 || offset >= input.length) {
-            throw new IllegalArgumentException("offset");
-        }
+
+        long value = readUnsigned(input, offset, input.length);
+        return new Decoded(value, encodedLength(input, offset, input.length));
+    }
+
+    public static long readUnsigned(byte[] input, int offset, int limit) {
+        checkBounds(input, offset, limit);
 
         long value = 0;
         int shift = 0;
 
-        for (int i = 0; i < 10; i += 1) {
+        for (int i = 0; i < MAX_LENGTH; i += 1) {
             int index = offset + i;
-            if (index >= input.length) {
+            if (index >= limit) {
                 throw new IllegalArgumentException("varint overflow");
             }
 
@@ -35,7 +41,7 @@ public final class Varint {
             }
 
             if ((b & 0x80) == 0) {
-                return new Decoded(value, i + 1);
+                return value;
             }
 
             shift += 7;
@@ -44,6 +50,31 @@ public final class Varint {
         throw new IllegalArgumentException("varint overflow");
     }
 
+    public static int encodedLength(byte[] input, int offset, int limit) {
+        checkBounds(input, offset, limit);
+
+        for (int i = 0; i < MAX_LENGTH; i += 1) {
+            int index = offset + i;
+            if (index >= limit) {
+                throw new IllegalArgumentException("varint overflow");
+            }
+            if ((input[index] & 0x80) == 0) {
+                return i + 1;
+            }
+        }
+
+        throw new IllegalArgumentException("varint overflow");
+    }
+
+    private static void checkBounds(byte[] input, int offset, int limit) {
+        if (input == null || limit > input.length) {
+            throw new IllegalArgumentException("input");
+        }
+        if (offset < 0 || offset >= limit) {
+            throw new IllegalArgumentException("offset");
+        }
+    }
+
     public static final class Decoded {
         public final long value;
         public final int length;
@@ -0,0 +1,89 @@
+package org.keychain.cid;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class Base58BtcTest {
+    private static final String ALPHABET = "123456789ABCDEFGHJKLMNPQRSTUVWXYZabcdefghijkmnopqrstuvwxyz";
+
+    @Test
+    void decodeMatchesReferenceForRandomInputs() {
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i += 1) {
+            byte[] data = new byte[random.nextInt(48)];
+            random.nextBytes(data);
+            if (data.length > 2 && random.nextBoolean()) {
+                data[0] = 0;
+                data[1] = 0;
+            }
+            if (data.length == 0) {
+                continue;
+            }
+
+            String encoded = referenceEncode(data);
+            assertArrayEquals(data, Base58Btc.decode(encoded), encoded);
+        }
+    }
+
+    @Test
+    void encodeMatchesReferenceForRandomInputs() {
+        Random random = new Random(7);
+        for (int i = 0; i < 500; i += 1) {
+            byte[] data = new byte[random.nextInt(48)];
+            random.nextBytes(data);
+            if (data.length > 1 && random.nextBoolean()) {
+                data[0] = 0;
+            }
+
+            assertEquals(referenceEncode(data), Base58Btc.encode(data));
+        }
+    }
+
+    @Test
+    void decodesIntoCallerBufferAtOffset() {
+        byte[] data = {0, 0, 1, 2, 3, (byte) 0xFF, 0x7F};
+        String encoded = "xx" + referenceEncode(data) + "yy";
+
+        byte[] out = new byte[20];
+        Arrays.fill(out, (byte) 0x55);
+        int length = Base58Btc.decode(encoded, 2, encoded.length() - 2, out, 3);
+
+        assertEquals(data.length, length);
+        assertArrayEquals(data, Arrays.copyOfRange(out, 3, 3 + length));
+        assertEquals(0x55, out[2]);
+    }
+
+    @Test
+    void rejectsOutputThatDoesNotFit() {
+        String encoded = referenceEncode(new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+        assertThrows(IllegalArgumentException.class, () -> Base58Btc.decode(encoded, 0, encoded.length(), new byte[7], 0));
+    }
+
+    @Test
+    void rejectsCharactersOutsideAlphabet() {
+        assertThrows(IllegalArgumentException.class, () -> Base58Btc.decode("abc0"));
+        assertThrows(IllegalArgumentException.class, () -> Base58Btc.decode("abcO"));
+        assertThrows(IllegalArgumentException.class, () -> Base58Btc.decode("abcé"));
+    }
+
+    private static String referenceEncode(byte[] data) {
+        StringBuilder out = new StringBuilder();
+        BigInteger value = new BigInteger(1, data);
+        BigInteger base = BigInteger.valueOf(58);
+        while (value.signum() > 0) {
+            BigInteger[] qr = value.divideAndRemainder(base);
+            out.append(ALPHABET.charAt(qr[1].intValue()));
+            value = qr[0];
+        }
+        for (int i = 0; i < data.length && data[i] == 0; i += 1) {
+            out.append('1');
+        }
+        return out.reverse().toString();
+    }
+}
@@ -18,6 +18,20 @@ class CidTest {
         assertTrue(Cid.isValid(cid));
     }
 
+    @Test
+    void validatesBase58CidV1() {
+        String cid = "z3v8Auad2Fjts4vGRMCrvxSfWv2XZ5wFTT34yK4cAJHfPgPhLwZ";
+        assertTrue(Cid.isValid(cid));
+    }
+
+    @Test
+    void validatesCidWithinLargerSequence() {
+        String did = "did:test:z3v8Auad2Fjts4vGRMCrvxSfWv2XZ5wFTT34yK4cAJHfPgPhLwZ";
+        assertTrue(Cid.isValid(did, did.lastIndexOf(':') + 1, did.length()));
+        assertFalse(Cid.isValid(did, 0, did.length()));
+        assertFalse(Cid.isValid(did, did.length(), did.length()));
+    }
+
     @Test
     void rejectsInvalidCids() {
         assertFalse(Cid.isValid(null));
@@ -27,5 +41,6 @@ class CidTest {
         assertFalse(Cid.isValid("QmYwAPJzv5CZsnAzt8auV2V4ZZFZ5JYh5rS4Qh1zS4x2oO"));
         assertFalse(Cid.isValid("bafybeigdyrzt5sfp7udm7hu76uh7y26nf3efuylqabf3oclgtqy55fbzd!"));
         assertFalse(Cid.isValid("cafybeigdyrzt5sfp7udm7hu76uh7y26nf3efuylqabf3oclgtqy55fbzdi"));
+        assertFalse(Cid.isValid("z3v8Auad2Fjts4vGRMCrvxSfWv2XZ5wFTT34yK4cAJHfPgPhLw"));
     }
 }
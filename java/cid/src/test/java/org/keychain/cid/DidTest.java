@@ -0,0 +1,72 @@
+package org.keychain.cid;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class DidTest {
+    private static final String V0 = "did:test:QmYwAPJzv5CZsnAzt8auV2V4ZZFZ5JYh5rS4Qh1zS4x2o7";
+    private static final String BASE32 = "did:test:bafybeigdyrzt5sfp7udm7hu76uh7y26nf3efuylqabf3oclgtqy55fbzdi";
+    private static final String BASE58 = "did:test:z3v8Auad2Fjts4vGRMCrvxSfWv2XZ5wFTT34yK4cAJHfPgPhLwZ";
+
+    @Test
+    void roundTripsStringForm() {
+        for (String value : new String[] {V0, BASE32, BASE58, "did:mdip:local:" + BASE58.substring(9)}) {
+            Did did = Did.parse(value);
+            assertEquals(value, did.toString());
+            assertEquals(value.substring(value.lastIndexOf(':') + 1), did.cid());
+        }
+        assertEquals("mdip:local", Did.parse("did:mdip:local:" + BASE58.substring(9)).method());
+    }
+
+    @Test
+    void equalsAndHashCodeFollowStringForm() {
+        Did a = Did.parse(new String(BASE58.toCharArray()));
+        Did b = Did.parse(BASE58);
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+
+        assertNotEquals(Did.parse(BASE58), Did.parse("did:other:" + BASE58.substring(9)));
+        assertNotEquals(Did.parse(BASE32), Did.parse(BASE58));
+        assertNotEquals(Did.parse(V0), Did.parse(BASE32));
+    }
+
+    @Test
+    void exposesDigest() {
+        byte[] cid = Multibase.decode(BASE32.substring(9));
+        assertArrayEquals(Arrays.copyOfRange(cid, cid.length - 32, cid.length), Did.parse(BASE32).digest());
+    }
+
+    @Test
+    void boundsInternedPrefixes() {
+        String cid = BASE58.substring(9);
+        for (int i = 0; i < Did.MAX_INTERNED_PREFIXES + 64; i++) {
+            String value = "did:untrusted" + i + ":" + cid;
+            Did did = Did.parse(value);
+            assertEquals(value, did.toString());
+            assertEquals(did, Did.parse(value));
+            assertEquals(did.hashCode(), Did.parse(value).hashCode());
+        }
+        assertTrue(Did.internedPrefixes() <= Did.MAX_INTERNED_PREFIXES);
+        assertEquals(Did.parse(BASE58), Did.parse(BASE58));
+    }
+
+    @Test
+    void rejectsUnsupportedForms() {
+        assertNull(Did.tryParse(null));
+        assertNull(Did.tryParse(BASE58.substring(4)));
+        assertNull(Did.tryParse("did:" + BASE58.substring(9)));
+        assertNull(Did.tryParse(BASE58 + ":"));
+        assertNull(Did.tryParse(BASE32.toUpperCase().replace("DID:TEST:B", "did:test:b")));
+        assertNull(Did.tryParse(BASE32 + "a"));
+        assertNull(Did.tryParse(BASE58.substring(0, BASE58.length() - 1)));
+        assertNull(Did.tryParse("did:test:z" + Base58Btc.encode(new byte[] {1, 0x55, 0x12, 0x10, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16})));
+        assertThrows(IllegalArgumentException.class, () -> Did.parse("did:test:invalid"));
+    }
+}
@@ -0,0 +1,95 @@
+package org.keychain.crypto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+final class BatchRunner {
+    // One secp256k1 operation costs tens of microseconds, so a handful per task
+    // amortizes scheduling while still spreading small batches across cores.
+    private static final int MIN_CHUNK = 4;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final Executor executor;
+    private final int chunkSize;
+    private final int parallelism;
+
+    BatchRunner(Executor executor, int chunkSize) {
+        if (chunkSize < 0) {
+            throw new IllegalArgumentException("chunkSize must be >= 0");
+        }
+        this.executor = executor != null ? executor : ForkJoinPool.commonPool();
+        this.chunkSize = chunkSize;
+        this.parallelism = this.executor instanceof ForkJoinPool
+            ? ((ForkJoinPool) this.executor).getParallelism()
+            : Runtime.getRuntime().availableProcessors();
+    }
+
+    <T, R> List<R> map(List<T> items, Function<T, R> fn) {
+        if (items == null) {
+            throw new IllegalArgumentException("items must not be null");
+        }
+
+        int size = items.size();
+        Object[] results = new Object[size];
+        int chunk = chunkSize(size);
+        if (size <= chunk || parallelism <= 1) {
+            for (int i = 0; i < size; i += 1) {
+                results[i] = fn.apply(items.get(i));
+            }
+            return asList(results);
+        }
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>((size + chunk - 1) / chunk);
+        for (int start = 0; start < size; start += chunk) {
+            int from = start;
+            int to = Math.min(size, start + chunk);
+            futures.add(CompletableFuture.runAsync(() -> {
+                for (int i = from; i < to; i += 1) {
+                    results[i] = fn.apply(items.get(i));
+                }
+            }, executor));
+        }
+
+        // Join every chunk before rethrowing so no task is still running when the caller resumes.
+        CompletionException failure = null;
+        for (CompletableFuture<Void> future : futures) {
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            Throwable cause = failure.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw failure;
+        }
+        return asList(results);
+    }
+
+    private int chunkSize(int size) {
+        if (chunkSize > 0) {
+            return chunkSize;
+        }
+        int target = (size + parallelism * CHUNKS_PER_THREAD - 1) / (parallelism * CHUNKS_PER_THREAD);
+        return Math.max(MIN_CHUNK, target);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <R> List<R> asList(Object[] results) {
+        return (List<R>) Arrays.asList(results);
+    }
+}
@@ -1,14 +1,24 @@
 package org.keychain.crypto;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeType;
+import com.fasterxml.jackson.databind.node.POJONode;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
 import org.erdtman.jcs.JsonCanonicalizer;
+import org.erdtman.jcs.NumberToJSON;
 
 public final class CanonicalJson {
     private static final ObjectMapper MAPPER = new ObjectMapper()
         .setDefaultPropertyInclusion(
             JsonInclude.Value.construct(JsonInclude.Include.NON_NULL, JsonInclude.Include.ALWAYS)
         );
+    private static final ThreadLocal<DigestWriter> WRITER = ThreadLocal.withInitial(DigestWriter::new);
 
     private CanonicalJson() {}
 
@@ -24,4 +34,231 @@ public final class CanonicalJson {
             throw new IllegalArgumentException("Unable to canonicalize JSON", e);
         }
     }
+
+    public static byte[] sha256(Object obj) {
+        if (obj == null) {
+            throw new IllegalArgumentException("obj must not be null");
+        }
+
+        DigestWriter writer = WRITER.get();
+        try {
+            JsonNode root = obj instanceof CanonicalSnapshot ? ((CanonicalSnapshot) obj).node() : toTree(obj);
+            if (root == null || !root.isContainerNode()) {
+                throw new IllegalArgumentException("JSON must be an object or array");
+            }
+            writer.writeValue(root);
+            return writer.finish();
+        } catch (Exception e) {
+            writer.reset();
+            throw new IllegalArgumentException("Unable to canonicalize JSON", e);
+        }
+    }
+
+    static JsonNode toTree(Object obj) {
+        return obj instanceof JsonNode ? (JsonNode) obj : MAPPER.valueToTree(obj);
+    }
+
+    static <T> T fromTree(JsonNode node, Class<T> type) {
+        try {
+            return MAPPER.treeToValue(node, type);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Unable to convert JSON", e);
+        }
+    }
+
+    private static final class DigestWriter {
+        private static final byte[] HEX = "0123456789abcdef".getBytes();
+        private static final long MAX_SAFE_INTEGER = (1L << 53) - 1;
+
+        private final MessageDigest digest;
+        private final byte[] buffer = new byte[4096];
+        private int position;
+
+        private DigestWriter() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+
+        byte[] finish() {
+            flush();
+            return digest.digest();
+        }
+
+        void reset() {
+            position = 0;
+            digest.reset();
+        }
+
+        void writeValue(JsonNode node) throws IOException {
+            JsonNodeType type = node.getNodeType();
+            switch (type) {
+                case OBJECT:
+                    writeObject(node);
+                    break;
+                case ARRAY:
+                    write('[');
+                    for (int i = 0; i < node.size(); i++) {
+                        if (i > 0) {
+                            write(',');
+                        }
+                        writeValue(node.get(i));
+                    }
+                    write(']');
+                    break;
+                case STRING:
+                    writeString(node.textValue());
+                    break;
+                case NUMBER:
+                    writeNumber(node);
+                    break;
+                case BOOLEAN:
+                    writeAscii(node.booleanValue() ? "true" : "false");
+                    break;
+                case NULL:
+                    writeAscii("null");
+                    break;
+                case BINARY:
+                    writeString(node.asText());
+                    break;
+                case POJO:
+                    writeValue(MAPPER.valueToTree(((POJONode) node).getPojo()));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported JSON node: " + type);
+            }
+        }
+
+        private void writeObject(JsonNode node) throws IOException {
+            String[] names = new String[node.size()];
+            int count = 0;
+            for (Iterator<String> it = node.fieldNames(); it.hasNext(); ) {
+                names[count++] = it.next();
+            }
+            Arrays.sort(names);
+
+            write('{');
+            for (int i = 0; i < names.length; i++) {
+                if (i > 0) {
+                    write(',');
+                }
+                writeString(names[i]);
+                write(':');
+                writeValue(node.get(names[i]));
+            }
+            write('}');
+        }
+
+        private void writeNumber(JsonNode node) throws IOException {
+            if ((node.isInt() || node.isLong()) && Math.abs(node.longValue()) <= MAX_SAFE_INTEGER) {
+                writeAscii(Long.toString(node.longValue()));
+                return;
+            }
+
+            double value;
+            if (node.isDouble()) {
+                value = node.doubleValue();
+            } else if (node.isFloat()) {
+                // Jackson prints floats with Float.toString, which the string-based canonicalizer re-reads as a double.
+                value = Double.parseDouble(Float.toString(node.floatValue()));
+            } else if (node.isInt() || node.isLong()) {
+                value = (double) node.longValue();
+            } else {
+                value = Double.parseDouble(node.asText());
+            }
+            writeAscii(NumberToJSON.serializeNumber(value));
+        }
+
+        private void writeString(String value) {
+            write('"');
+            int length = value.length();
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    writeAsciiChar(c);
+                } else if (c < 0x800) {
+                    write(0xC0 | (c >> 6));
+                    write(0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    write(0xF0 | (codePoint >> 18));
+                    write(0x80 | ((codePoint >> 12) & 0x3F));
+                    write(0x80 | ((codePoint >> 6) & 0x3F));
+                    write(0x80 | (codePoint & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    // Unpaired surrogates are replaced the same way String.getBytes(UTF_8) does.
+                    write('?');
+                } else {
+                    write(0xE0 | (c >> 12));
+                    write(0x80 | ((c >> 6) & 0x3F));
+                    write(0x80 | (c & 0x3F));
+                }
+            }
+            write('"');
+        }
+
+        private void writeAsciiChar(char c) {
+            switch (c) {
+                case '"':
+                    write('\\');
+                    write('"');
+                    return;
+                case '\\':
+                    write('\\');
+                    write('\\');
+                    return;
+                case '\b':
+                    write('\\');
+                    write('b');
+                    return;
+                case '\f':
+                    write('\\');
+                    write('f');
+                    return;
+                case '\n':
+                    write('\\');
+                    write('n');
+                    return;
+                case '\r':
+                    write('\\');
+                    write('r');
+                    return;
+                case '\t':
+                    write('\\');
+                    write('t');
+                    return;
+                default:
+                    if (c < 0x20) {
+                        write('\\');
+                        write('u');
+                        write('0');
+                        write('0');
+                        write(HEX[c >> 4]);
+                        write(HEX[c & 0x0F]);
+                    } else {
+                        write(c);
+                    }
+            }
+        }
+
+        private void writeAscii(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                write(value.charAt(i));
+            }
+        }
+
+        private void write(int b) {
+            if (position == buffer.length) {
+                flush();
+            }
+            buffer[position++] = (byte) b;
+        }
+
+        private void flush() {
+            digest.update(buffer, 0, position);
+            position = 0;
+        }
+    }
 }
@@ -0,0 +1,114 @@
+package org.keychain.crypto;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.keychain.crypto.util.Hex;
+
+/**
+ * Immutable JSON object tree for canonical hashing.
+ *
+ * <p>Edits return a new snapshot that shares every untouched child node with this one, so dropping a
+ * signature or metadata field before hashing costs one shallow copy instead of a deep copy.
+ */
+public final class CanonicalSnapshot {
+    private final ObjectNode root;
+
+    private CanonicalSnapshot(ObjectNode root) {
+        this.root = root;
+    }
+
+    public static CanonicalSnapshot of(Object value) {
+        if (value == null) {
+            throw new IllegalArgumentException("value must not be null");
+        }
+        if (value instanceof CanonicalSnapshot) {
+            return (CanonicalSnapshot) value;
+        }
+        JsonNode node = CanonicalJson.toTree(value);
+        if (!node.isObject()) {
+            throw new IllegalArgumentException("value must be a JSON object");
+        }
+        if (value instanceof JsonNode) {
+            node = node.deepCopy();
+        }
+        return new CanonicalSnapshot((ObjectNode) node);
+    }
+
+    public String hash() {
+        return Hex.encode(CanonicalJson.sha256(root));
+    }
+
+    public boolean has(String field) {
+        return root.has(field);
+    }
+
+    public CanonicalSnapshot without(String... fields) {
+        boolean changed = false;
+        for (String field : fields) {
+            changed |= root.has(field);
+        }
+        if (!changed) {
+            return this;
+        }
+        ObjectNode copy = shallowCopy();
+        for (String field : fields) {
+            copy.remove(field);
+        }
+        return new CanonicalSnapshot(copy);
+    }
+
+    public CanonicalSnapshot with(String field, Object value) {
+        if (field == null) {
+            throw new IllegalArgumentException("field must not be null");
+        }
+        if (value == null) {
+            return without(field);
+        }
+        JsonNode node = value instanceof CanonicalSnapshot
+            ? ((CanonicalSnapshot) value).root
+            : CanonicalJson.toTree(value);
+        if (value instanceof JsonNode) {
+            node = node.deepCopy();
+        }
+        ObjectNode copy = shallowCopy();
+        copy.set(field, node);
+        return new CanonicalSnapshot(copy);
+    }
+
+    public <T> T toValue(Class<T> type) {
+        return CanonicalJson.fromTree(root, type);
+    }
+
+    @JsonValue
+    JsonNode node() {
+        return root;
+    }
+
+    private ObjectNode shallowCopy() {
+        ObjectNode copy = root.objectNode();
+        copy.setAll(root);
+        return copy;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CanonicalSnapshot)) {
+            return false;
+        }
+        return root.equals(((CanonicalSnapshot) o).root);
+    }
+
+    @Override
+    public int hashCode() {
+        return root.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return root.toString();
+    }
+}
@@ -7,6 +7,13 @@ import java.security.NoSuchAlgorithmException;
 import org.keychain.crypto.util.Hex;
 
 public final class Hashing {
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
     private Hashing() {}
 
     public static String sha256Hex(String msg) {
@@ -14,16 +21,26 @@ public final class Hashing {
     }
 
     public static String sha256Hex(byte[] data) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            return Hex.encode(digest.digest(data));
-        } catch (NoSuchAlgorithmException e) {
-            throw new IllegalStateException("SHA-256 not available", e);
-        }
+        return Hex.encode(sha256(data));
+    }
+
+    public static byte[] sha256(byte[] data) {
+        return SHA256.get().digest(data);
+    }
+
+    /**
+     * The calling thread's SHA-256 instance, reset and ready for incremental updates.
+     */
+    static MessageDigest sha256Digest() {
+        MessageDigest digest = SHA256.get();
+        digest.reset();
+        return digest;
     }
 
     public static String hashCanonicalJson(Object obj) {
-        String canonical = CanonicalJson.canonicalize(obj);
-        return sha256Hex(canonical.getBytes(StandardCharsets.UTF_8));
+        if (obj instanceof CanonicalSnapshot) {
+            return ((CanonicalSnapshot) obj).hash();
+        }
+        return Hex.encode(CanonicalJson.sha256(obj));
     }
 }
@@ -24,20 +24,52 @@ public final class HdKeyUtil {
         return DeterministicKey.deserializeB58(xpriv, MainNetParams.get());
     }
 
+    /**
+     * Parses an extended public key. Children of a public-only key are derived without private material, so
+     * only non-hardened paths such as {@link #deriveChild} are available from it.
+     */
+    public static DeterministicKey fromXpub(String xpub) {
+        if (xpub == null || xpub.isBlank()) {
+            throw new IllegalArgumentException("xpub is required");
+        }
+        DeterministicKey key = DeterministicKey.deserializeB58(xpub, MainNetParams.get());
+        if (key.hasPrivKey()) {
+            throw new IllegalArgumentException("xpub must not contain a private key");
+        }
+        return key;
+    }
+
+    public static String toXpub(DeterministicKey key) {
+        return key.serializePubB58(MainNetParams.get());
+    }
+
     public static DeterministicKey derivePath(DeterministicKey master, int account, int index) {
         if (account < 0 || index < 0) {
             throw new IllegalArgumentException("account and index must be >= 0");
         }
+        return deriveChild(deriveChain(master, account), index);
+    }
+
+    public static DeterministicKey deriveChain(DeterministicKey master, int account) {
+        if (account < 0) {
+            throw new IllegalArgumentException("account must be >= 0");
+        }
 
         DeterministicKey key = master;
         key = HDKeyDerivation.deriveChildKey(key, new ChildNumber(44, true));
         key = HDKeyDerivation.deriveChildKey(key, new ChildNumber(0, true));
         key = HDKeyDerivation.deriveChildKey(key, new ChildNumber(account, true));
         key = HDKeyDerivation.deriveChildKey(key, ChildNumber.ZERO);
-        key = HDKeyDerivation.deriveChildKey(key, new ChildNumber(index, false));
         return key;
     }
 
+    public static DeterministicKey deriveChild(DeterministicKey chain, int index) {
+        if (index < 0) {
+            throw new IllegalArgumentException("index must be >= 0");
+        }
+        return HDKeyDerivation.deriveChildKey(chain, new ChildNumber(index, false));
+    }
+
     public static byte[] privateKeyBytes(DeterministicKey key) {
         byte[] keyBytes = key.getPrivKeyBytes();
         if (keyBytes.length == 32) {
@@ -0,0 +1,202 @@
+package org.keychain.crypto;
+
+import java.security.GeneralSecurityException;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import javax.crypto.Cipher;
+import javax.crypto.NoSuchPaddingException;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * XChaCha20-Poly1305 as HChaCha20(key, nonce[0..16]) followed by IETF ChaCha20-Poly1305 under the subkey with
+ * nonce {@code 0x00000000 || nonce[16..24]}, using the platform cipher.
+ */
+final class JdkXChaCha20Poly1305 implements XChaCha20Poly1305 {
+    private static final String TRANSFORMATION = "ChaCha20-Poly1305";
+    private static final int[] SIGMA = {0x61707865, 0x3320646e, 0x79622d32, 0x6b206574};
+    private static final ThreadLocal<Cipher> ENCRYPTOR = ThreadLocal.withInitial(JdkXChaCha20Poly1305::newCipher);
+    private static final ThreadLocal<Cipher> DECRYPTOR = ThreadLocal.withInitial(JdkXChaCha20Poly1305::newCipher);
+
+    private int[] keyWords;
+
+    JdkXChaCha20Poly1305(byte[] key32) {
+        if (key32 == null || key32.length != KEY_LENGTH) {
+            throw new IllegalArgumentException("key32 must be 32 bytes");
+        }
+        this.keyWords = new int[8];
+        for (int i = 0; i < 8; i++) {
+            keyWords[i] = littleEndian(key32, i * 4);
+        }
+    }
+
+    static boolean isAvailable() {
+        try {
+            Cipher.getInstance(TRANSFORMATION);
+            return true;
+        } catch (NoSuchAlgorithmException | NoSuchPaddingException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void encrypt(byte[] nonce, byte[] plaintext, byte[] out, int outOffset) throws GeneralSecurityException {
+        Cipher cipher = init(Cipher.ENCRYPT_MODE, nonce);
+        cipher.doFinal(plaintext, 0, plaintext.length, out, outOffset);
+    }
+
+    @Override
+    public byte[] encrypt(byte[] nonce, byte[] plaintext) throws GeneralSecurityException {
+        return init(Cipher.ENCRYPT_MODE, nonce).doFinal(plaintext);
+    }
+
+    @Override
+    public byte[] decrypt(byte[] nonce, byte[] ciphertext, int offset, int length)
+        throws GeneralSecurityException {
+        if (length < TAG_LENGTH) {
+            throw new GeneralSecurityException("ciphertext too short");
+        }
+        return init(Cipher.DECRYPT_MODE, nonce).doFinal(ciphertext, offset, length);
+    }
+
+    private Cipher init(int mode, byte[] nonce) throws GeneralSecurityException {
+        if (nonce == null || nonce.length != NONCE_LENGTH) {
+            throw new GeneralSecurityException("nonce must be 24 bytes");
+        }
+        int[] words = keyWords();
+        byte[] subkey;
+        try {
+            subkey = hChaCha20(words, nonce);
+        } finally {
+            Arrays.fill(words, 0);
+        }
+        byte[] iv = new byte[12];
+        System.arraycopy(nonce, 16, iv, 4, 8);
+        try {
+            SecretKeySpec key = new SecretKeySpec(subkey, "ChaCha20");
+            if (mode == Cipher.ENCRYPT_MODE) {
+                // SunJCE refuses to encrypt again under the previous key and nonce; that error propagates.
+                Cipher cipher = ENCRYPTOR.get();
+                cipher.init(mode, key, new IvParameterSpec(iv));
+                return cipher;
+            }
+            Cipher cipher = DECRYPTOR.get();
+            try {
+                cipher.init(mode, key, new IvParameterSpec(iv));
+            } catch (InvalidKeyException e) {
+                // The same check fires when the same message is decrypted twice in a row, which reuses no keystream.
+                cipher = newCipher();
+                DECRYPTOR.set(cipher);
+                cipher.init(mode, key, new IvParameterSpec(iv));
+            }
+            return cipher;
+        } finally {
+            Arrays.fill(subkey, (byte) 0);
+        }
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (keyWords != null) {
+            Arrays.fill(keyWords, 0);
+            keyWords = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isDestroyed() {
+        return keyWords == null;
+    }
+
+    private synchronized int[] keyWords() {
+        if (keyWords == null) {
+            throw new IllegalStateException("cipher destroyed");
+        }
+        return keyWords.clone();
+    }
+
+    static byte[] hChaCha20(byte[] key32, byte[] nonce16) {
+        int[] keyWords = new int[8];
+        for (int i = 0; i < 8; i++) {
+            keyWords[i] = littleEndian(key32, i * 4);
+        }
+        return hChaCha20(keyWords, nonce16);
+    }
+
+    private static byte[] hChaCha20(int[] key, byte[] nonce) {
+        int x0 = SIGMA[0], x1 = SIGMA[1], x2 = SIGMA[2], x3 = SIGMA[3];
+        int x4 = key[0], x5 = key[1], x6 = key[2], x7 = key[3];
+        int x8 = key[4], x9 = key[5], x10 = key[6], x11 = key[7];
+        int x12 = littleEndian(nonce, 0), x13 = littleEndian(nonce, 4);
+        int x14 = littleEndian(nonce, 8), x15 = littleEndian(nonce, 12);
+
+        for (int round = 0; round < 10; round++) {
+            x0 += x4; x12 = Integer.rotateLeft(x12 ^ x0, 16);
+            x8 += x12; x4 = Integer.rotateLeft(x4 ^ x8, 12);
+            x0 += x4; x12 = Integer.rotateLeft(x12 ^ x0, 8);
+            x8 += x12; x4 = Integer.rotateLeft(x4 ^ x8, 7);
+
+            x1 += x5; x13 = Integer.rotateLeft(x13 ^ x1, 16);
+            x9 += x13; x5 = Integer.rotateLeft(x5 ^ x9, 12);
+            x1 += x5; x13 = Integer.rotateLeft(x13 ^ x1, 8);
+            x9 += x13; x5 = Integer.rotateLeft(x5 ^ x9, 7);
+
+            x2 += x6; x14 = Integer.rotateLeft(x14 ^ x2, 16);
+            x10 += x14; x6 = Integer.rotateLeft(x6 ^ x10, 12);
+            x2 += x6; x14 = Integer.rotateLeft(x14 ^ x2, 8);
+            x10 += x14; x6 = Integer.rotateLeft(x6 ^ x10, 7);
+
+            x3 += x7; x15 = Integer.rotateLeft(x15 ^ x3, 16);
+            x11 += x15; x7 = Integer.rotateLeft(x7 ^ x11, 12);
+            x3 += x7; x15 = Integer.rotateLeft(x15 ^ x3, 8);
+            x11 += x15; x7 = Integer.rotateLeft(x7 ^ x11, 7);
+
+            x0 += x5; x15 = Integer.rotateLeft(x15 ^ x0, 16);
+            x10 += x15; x5 = Integer.rotateLeft(x5 ^ x10, 12);
+            x0 += x5; x15 = Integer.rotateLeft(x15 ^ x0, 8);
+            x10 += x15; x5 = Integer.rotateLeft(x5 ^ x10, 7);
+
+            x1 += x6; x12 = Integer.rotateLeft(x12 ^ x1, 16);
+            x11 += x12; x6 = Integer.rotateLeft(x6 ^ x11, 12);
+            x1 += x6; x12 = Integer.rotateLeft(x12 ^ x1, 8);
+            x11 += x12; x6 = Integer.rotateLeft(x6 ^ x11, 7);
+
+            x2 += x7; x13 = Integer.rotateLeft(x13 ^ x2, 16);
+            x8 += x13; x7 = Integer.rotateLeft(x7 ^ x8, 12);
+            x2 += x7; x13 = Integer.rotateLeft(x13 ^ x2, 8);
+            x8 += x13; x7 = Integer.rotateLeft(x7 ^ x8, 7);
+
+            x3 += x4; x14 = Integer.rotateLeft(x14 ^ x3, 16);
+            x9 += x14; x4 = Integer.rotateLeft(x4 ^ x9, 12);
+            x3 += x4; x14 = Integer.rotateLeft(x14 ^ x3, 8);
+            x9 += x14; x4 = Integer.rotateLeft(x4 ^ x9, 7);
+        }
+
+        byte[] out = new byte[32];
+        int[] words = {x0, x1, x2, x3, x12, x13, x14, x15};
+        for (int i = 0; i < words.length; i++) {
+            int w = words[i];
+            out[i * 4] = (byte) w;
+            out[i * 4 + 1] = (byte) (w >>> 8);
+            out[i * 4 + 2] = (byte) (w >>> 16);
+            out[i * 4 + 3] = (byte) (w >>> 24);
+        }
+        return out;
+    }
+
+    private static int littleEndian(byte[] b, int off) {
+        return (b[off] & 0xFF)
+            | (b[off + 1] & 0xFF) << 8
+            | (b[off + 2] & 0xFF) << 16
+            | (b[off + 3] & 0xFF) << 24;
+    }
+
+    private static Cipher newCipher() {
+        try {
+            return Cipher.getInstance(TRANSFORMATION);
+        } catch (NoSuchAlgorithmException | NoSuchPaddingException e) {
+            throw new IllegalStateException(TRANSFORMATION + " is not available", e);
+        }
+    }
+}
@@ -1,5 +1,11 @@
 package org.keychain.crypto;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 public interface KeymasterCrypto {
     String generateMnemonic();
 
@@ -7,6 +13,18 @@ public interface KeymasterCrypto {
     HdKey generateHdKeyJson(HdKeyJson json);
 
     JwkPair generateJwk(byte[] privateKeyBytes);
+
+    default List<JwkPair> generateJwks(List<byte[]> privateKeys) {
+        if (privateKeys == null) {
+            throw new IllegalArgumentException("privateKeys must not be null");
+        }
+        List<JwkPair> pairs = new ArrayList<>(privateKeys.size());
+        for (byte[] privateKey : privateKeys) {
+            pairs.add(generateJwk(privateKey));
+        }
+        return pairs;
+    }
+
     JwkPair generateRandomJwk();
     byte[] convertJwkToCompressedBytes(JwkPublic jwk);
 
@@ -15,13 +33,139 @@ public interface KeymasterCrypto {
     String hashJson(Object obj);
 
     String signHash(String msgHashHex, JwkPrivate privateJwk);
+
+    default SigningKey signingKey(JwkPrivate privateJwk) {
+        return SigningKey.from(privateJwk);
+    }
+
+    default String signHash(String msgHashHex, SigningKey key) {
+        return signHash(msgHashHex, privateJwk(key));
+    }
+
     boolean verifySig(String msgHashHex, String sigCompactHex, JwkPublic publicJwk);
 
+    default VerificationKey verificationKey(JwkPublic publicJwk) {
+        return VerificationKey.from(publicJwk);
+    }
+
+    default boolean verifySig(String msgHashHex, String sigCompactHex, VerificationKey key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key is required");
+        }
+        return verifySig(msgHashHex, sigCompactHex, key.jwk());
+    }
+
     String encryptBytes(JwkPublic pubKey, JwkPrivate privKey, byte[] data);
     byte[] decryptBytes(JwkPublic pubKey, JwkPrivate privKey, String ciphertextB64Url);
 
     String encryptMessage(JwkPublic pubKey, JwkPrivate privKey, String message);
     String decryptMessage(JwkPublic pubKey, JwkPrivate privKey, String ciphertextB64Url);
 
+    default String encryptBytes(JwkPublic pubKey, SigningKey privKey, byte[] data) {
+        return encryptBytes(pubKey, privateJwk(privKey), data);
+    }
+
+    default byte[] decryptBytes(JwkPublic pubKey, SigningKey privKey, String ciphertextB64Url) {
+        return decryptBytes(pubKey, privateJwk(privKey), ciphertextB64Url);
+    }
+
+    default String encryptMessage(JwkPublic pubKey, SigningKey privKey, String message) {
+        return encryptMessage(pubKey, privateJwk(privKey), message);
+    }
+
+    default String decryptMessage(JwkPublic pubKey, SigningKey privKey, String ciphertextB64Url) {
+        return decryptMessage(pubKey, privateJwk(privKey), ciphertextB64Url);
+    }
+
+    /**
+     * Defaults to the secp256k1 ECDH key and {@link XChaCha20Stream} format used by {@link KeymasterCryptoImpl}.
+     */
+    default OutputStream encryptStream(JwkPublic pubKey, JwkPrivate privKey, OutputStream ciphertext) {
+        byte[] key32 = Secp256k1Ecdh.deriveKey32(Secp256k1Ecdh.sharedSecretCompressed(pubKey, privKey));
+        try {
+            return XChaCha20Stream.encryptingOutputStream(key32, ciphertext);
+        } finally {
+            Arrays.fill(key32, (byte) 0);
+        }
+    }
+
+    default InputStream decryptStream(JwkPublic pubKey, JwkPrivate privKey, InputStream ciphertext) {
+        byte[] key32 = Secp256k1Ecdh.deriveKey32(Secp256k1Ecdh.sharedSecretCompressed(pubKey, privKey));
+        try {
+            return XChaCha20Stream.decryptingInputStream(key32, ciphertext);
+        } finally {
+            Arrays.fill(key32, (byte) 0);
+        }
+    }
+
+    default List<String> signHashes(List<String> msgHashHexes, SigningKey key) {
+        if (msgHashHexes == null) {
+            throw new IllegalArgumentException("items must not be null");
+        }
+        if (key == null) {
+            throw new IllegalArgumentException("key is required");
+        }
+        List<String> sigs = new ArrayList<>(msgHashHexes.size());
+        for (String msgHashHex : msgHashHexes) {
+            sigs.add(signHash(msgHashHex, key));
+        }
+        return sigs;
+    }
+
+    default List<Boolean> verifySigs(List<VerifyRequest> requests) {
+        if (requests == null) {
+            throw new IllegalArgumentException("items must not be null");
+        }
+        List<Boolean> results = new ArrayList<>(requests.size());
+        for (VerifyRequest request : requests) {
+            boolean valid = false;
+            if (request != null) {
+                try {
+                    valid = verifySig(request.msgHashHex, request.sigCompactHex, request.publicJwk);
+                } catch (Exception e) {
+                    // A malformed request is reported as an invalid signature, as in KeymasterCryptoImpl.
+                }
+            }
+            results.add(valid);
+        }
+        return results;
+    }
+
+    default List<String> encryptBytes(JwkPublic pubKey, SigningKey privKey, List<byte[]> data) {
+        if (data == null) {
+            throw new IllegalArgumentException("items must not be null");
+        }
+        List<String> ciphertexts = new ArrayList<>(data.size());
+        for (byte[] item : data) {
+            ciphertexts.add(encryptBytes(pubKey, privKey, item));
+        }
+        return ciphertexts;
+    }
+
+    default List<byte[]> decryptBytes(JwkPublic pubKey, SigningKey privKey, List<String> ciphertextsB64Url) {
+        if (ciphertextsB64Url == null) {
+            throw new IllegalArgumentException("items must not be null");
+        }
+        List<byte[]> plaintexts = new ArrayList<>(ciphertextsB64Url.size());
+        for (String item : ciphertextsB64Url) {
+            plaintexts.add(decryptBytes(pubKey, privKey, item));
+        }
+        return plaintexts;
+    }
+
     String generateRandomSalt();
+
+    /**
+     * Drops anything cached from {@code privKey}, such as shared keys derived with it, once its owner is done with
+     * it. Implementations without such caches need not override this.
+     */
+    default void clearCachedKeys(JwkPrivate privKey) {
+    }
+
+    private static JwkPrivate privateJwk(SigningKey key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key is required");
+        }
+        return key.privateJwk();
+    }
 }
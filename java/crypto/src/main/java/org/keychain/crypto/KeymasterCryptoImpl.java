@@ -1,10 +1,38 @@
 package org.keychain.crypto;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
 import org.keychain.crypto.util.Base64Url;
 import org.keychain.crypto.util.Bytes;
 
 public class KeymasterCryptoImpl implements KeymasterCrypto {
+    private final SharedKeyCache sharedKeys;
+    private final BatchRunner batches;
+
+    public KeymasterCryptoImpl() {
+        this(new KeymasterCryptoOptions());
+    }
+
+    public KeymasterCryptoImpl(int sharedKeyCacheSize, long sharedKeyTtlMillis) {
+        this(sharedKeyOptions(sharedKeyCacheSize, sharedKeyTtlMillis));
+    }
+
+    public KeymasterCryptoImpl(KeymasterCryptoOptions options) {
+        if (options == null) {
+            throw new IllegalArgumentException("options is required");
+        }
+        long ttlMillis = options.sharedKeyTtl != null ? options.sharedKeyTtl.toMillis() : 0;
+        XChaCha20Poly1305.Provider provider = options.cipherProvider != null
+            ? options.cipherProvider
+            : XChaCha20Poly1305.Provider.defaultProvider();
+        this.sharedKeys = new SharedKeyCache(options.sharedKeyCacheSize, ttlMillis, provider);
+        this.batches = new BatchRunner(options.executor, options.batchChunkSize);
+    }
+
     @Override
     public String generateMnemonic() {
         return MnemonicUtil.generateMnemonic();
@@ -25,6 +53,11 @@ public class KeymasterCryptoImpl implements KeymasterCrypto {
         return Secp256k1Jwk.fromPrivateKey(privateKeyBytes);
     }
 
+    @Override
+    public List<JwkPair> generateJwks(List<byte[]> privateKeys) {
+        return Secp256k1Jwk.fromPrivateKeys(privateKeys);
+    }
+
     @Override
     public JwkPair generateRandomJwk() {
         byte[] priv = Bytes.random(32);
@@ -56,23 +89,49 @@ public class KeymasterCryptoImpl implements KeymasterCrypto {
         return Secp256k1Sign.signHash(msgHashHex, privateJwk);
     }
 
+    @Override
+    public SigningKey signingKey(JwkPrivate privateJwk) {
+        return SigningKey.from(privateJwk);
+    }
+
+    @Override
+    public String signHash(String msgHashHex, SigningKey key) {
+        return Secp256k1Sign.signHash(msgHashHex, key);
+    }
+
     @Override
     public boolean verifySig(String msgHashHex, String sigCompactHex, JwkPublic publicJwk) {
         return Secp256k1Sign.verifySig(msgHashHex, sigCompactHex, publicJwk);
     }
 
+    @Override
+    public VerificationKey verificationKey(JwkPublic publicJwk) {
+        return VerificationKey.from(publicJwk);
+    }
+
+    @Override
+    public boolean verifySig(String msgHashHex, String sigCompactHex, VerificationKey key) {
+        return Secp256k1Sign.verifySig(msgHashHex, sigCompactHex, key);
+    }
+
     @Override
     public String encryptBytes(JwkPublic pubKey, JwkPrivate privKey, byte[] data) {
-        byte[] shared = Secp256k1Ecdh.sharedSecretCompressed(pubKey, privKey);
-        byte[] key32 = Secp256k1Ecdh.deriveKey32(shared);
-        return XChaCha20Util.encrypt(key32, data);
+        XChaCha20Poly1305 cipher = sharedCipher(pubKey, privKey);
+        try {
+            return XChaCha20Util.encrypt(cipher, data);
+        } finally {
+            cipher.destroy();
+        }
     }
 
     @Override
     public byte[] decryptBytes(JwkPublic pubKey, JwkPrivate privKey, String ciphertextB64Url) {
-        byte[] shared = Secp256k1Ecdh.sharedSecretCompressed(pubKey, privKey);
-        byte[] key32 = Secp256k1Ecdh.deriveKey32(shared);
-        return XChaCha20Util.decrypt(key32, ciphertextB64Url);
+        XChaCha20Poly1305 cipher = sharedCipher(pubKey, privKey);
+        try {
+            return XChaCha20Util.decrypt(cipher, ciphertextB64Url);
+        } finally {
+            cipher.destroy();
+        }
     }
 
     @Override
@@ -85,8 +144,136 @@ public class KeymasterCryptoImpl implements KeymasterCrypto {
         return new String(decryptBytes(pubKey, privKey, ciphertextB64Url), StandardCharsets.UTF_8);
     }
 
+    @Override
+    public String encryptBytes(JwkPublic pubKey, SigningKey privKey, byte[] data) {
+        XChaCha20Poly1305 cipher = sharedCipher(pubKey, privKey);
+        try {
+            return XChaCha20Util.encrypt(cipher, data);
+        } finally {
+            cipher.destroy();
+        }
+    }
+
+    @Override
+    public byte[] decryptBytes(JwkPublic pubKey, SigningKey privKey, String ciphertextB64Url) {
+        XChaCha20Poly1305 cipher = sharedCipher(pubKey, privKey);
+        try {
+            return XChaCha20Util.decrypt(cipher, ciphertextB64Url);
+        } finally {
+            cipher.destroy();
+        }
+    }
+
+    @Override
+    public String encryptMessage(JwkPublic pubKey, SigningKey privKey, String message) {
+        return encryptBytes(pubKey, privKey, message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public String decryptMessage(JwkPublic pubKey, SigningKey privKey, String ciphertextB64Url) {
+        return new String(decryptBytes(pubKey, privKey, ciphertextB64Url), StandardCharsets.UTF_8);
+    }
+
     @Override
     public String generateRandomSalt() {
         return Base64Url.encode(Bytes.random(32));
     }
+
+    @Override
+    public OutputStream encryptStream(JwkPublic pubKey, JwkPrivate privKey, OutputStream ciphertext) {
+        return XChaCha20Stream.encryptingOutputStream(sharedCipher(pubKey, privKey), ciphertext);
+    }
+
+    @Override
+    public InputStream decryptStream(JwkPublic pubKey, JwkPrivate privKey, InputStream ciphertext) {
+        return XChaCha20Stream.decryptingInputStream(sharedCipher(pubKey, privKey), ciphertext);
+    }
+
+    @Override
+    public List<String> signHashes(List<String> msgHashHexes, SigningKey key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key is required");
+        }
+        return batches.map(msgHashHexes, hash -> Secp256k1Sign.signHash(hash, key));
+    }
+
+    @Override
+    public List<Boolean> verifySigs(List<VerifyRequest> requests) {
+        return batches.map(requests, request -> {
+            if (request == null) {
+                return false;
+            }
+            try {
+                return Secp256k1Sign.verifySig(request.msgHashHex, request.sigCompactHex, request.publicJwk);
+            } catch (Exception e) {
+                return false;
+            }
+        });
+    }
+
+    @Override
+    public List<String> encryptBytes(JwkPublic pubKey, SigningKey privKey, List<byte[]> data) {
+        XChaCha20Poly1305 cipher = sharedCipher(pubKey, privKey);
+        try {
+            return batches.map(data, item -> XChaCha20Util.encrypt(cipher, item));
+        } finally {
+            cipher.destroy();
+        }
+    }
+
+    @Override
+    public List<byte[]> decryptBytes(JwkPublic pubKey, SigningKey privKey, List<String> ciphertextsB64Url) {
+        XChaCha20Poly1305 cipher = sharedCipher(pubKey, privKey);
+        try {
+            return batches.map(ciphertextsB64Url, item -> XChaCha20Util.decrypt(cipher, item));
+        } finally {
+            cipher.destroy();
+        }
+    }
+
+    public void clearSharedKeyCache() {
+        sharedKeys.clear();
+    }
+
+    @Override
+    public void clearCachedKeys(JwkPrivate privKey) {
+        if (privKey == null || privKey.d == null) {
+            throw new IllegalArgumentException("privKey is required");
+        }
+        byte[] encoded = Base64Url.decode(privKey.d);
+        try {
+            sharedKeys.clear(Hashing.sha256(encoded));
+        } finally {
+            Arrays.fill(encoded, (byte) 0);
+        }
+    }
+
+    private static KeymasterCryptoOptions sharedKeyOptions(int sharedKeyCacheSize, long sharedKeyTtlMillis) {
+        if (sharedKeyTtlMillis < 0) {
+            throw new IllegalArgumentException("sharedKeyTtlMillis must be >= 0");
+        }
+        KeymasterCryptoOptions options = new KeymasterCryptoOptions();
+        options.sharedKeyCacheSize = sharedKeyCacheSize;
+        options.sharedKeyTtl = Duration.ofMillis(sharedKeyTtlMillis);
+        return options;
+    }
+
+    private XChaCha20Poly1305 sharedCipher(JwkPublic pubKey, JwkPrivate privKey) {
+        if (pubKey == null || privKey == null) {
+            throw new IllegalArgumentException("pubKey and privKey are required");
+        }
+        byte[] fingerprint = Hashing.sha256(Base64Url.decode(privKey.d));
+        return sharedKeys.cipher(pubKey, fingerprint, () ->
+            Secp256k1Ecdh.deriveKey32(Secp256k1Ecdh.sharedSecretCompressed(pubKey, privKey))
+        );
+    }
+
+    private XChaCha20Poly1305 sharedCipher(JwkPublic pubKey, SigningKey privKey) {
+        if (pubKey == null || privKey == null) {
+            throw new IllegalArgumentException("pubKey and privKey are required");
+        }
+        return sharedKeys.cipher(pubKey, privKey.fingerprint(), () ->
+            Secp256k1Ecdh.deriveKey32(Secp256k1Ecdh.sharedSecretCompressed(pubKey, privKey))
+        );
+    }
 }
@@ -0,0 +1,18 @@
+package org.keychain.crypto;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+public class KeymasterCryptoOptions {
+    public int sharedKeyCacheSize;
+    public Duration sharedKeyTtl;
+    public Executor executor;
+    public int batchChunkSize;
+    public XChaCha20Poly1305.Provider cipherProvider;
+
+    public KeymasterCryptoOptions() {
+        this.sharedKeyCacheSize = 256;
+        this.sharedKeyTtl = Duration.ofMinutes(10);
+        this.cipherProvider = XChaCha20Poly1305.Provider.defaultProvider();
+    }
+}
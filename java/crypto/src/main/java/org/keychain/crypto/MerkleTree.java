@@ -0,0 +1,139 @@
+package org.keychain.crypto;
+
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.keychain.crypto.util.Hex;
+
+/**
+ * Binary SHA-256 Merkle tree over hex message hashes, used to sign a whole batch with one signature.
+ *
+ * <p>Leaves are {@code SHA-256(0x00 || hash)} and inner nodes {@code SHA-256(0x01 || left || right)}, so a leaf
+ * can never be passed off as an inner node. An unpaired node at the end of a level is promoted to the next level
+ * unchanged rather than paired with itself, so a batch and the same batch with its last item repeated have different
+ * roots. The root is {@code SHA-256(0x02 || count || top)} with the leaf count as a 4-byte big-endian integer; a proof
+ * therefore names the count it was built for and cannot claim an index past the end of the batch.
+ */
+public final class MerkleTree {
+    private static final byte LEAF = 0x00;
+    private static final byte NODE = 0x01;
+    private static final byte ROOT = 0x02;
+
+    private final List<byte[][]> levels;
+
+    private MerkleTree(List<byte[][]> levels) {
+        this.levels = levels;
+    }
+
+    public static MerkleTree of(List<String> leafHashesHex) {
+        if (leafHashesHex == null || leafHashesHex.isEmpty()) {
+            throw new IllegalArgumentException("leafHashesHex must not be empty");
+        }
+        byte[][] level = new byte[leafHashesHex.size()][];
+        for (int i = 0; i < level.length; i++) {
+            String leaf = leafHashesHex.get(i);
+            if (leaf == null) {
+                throw new IllegalArgumentException("leaf hash is required");
+            }
+            level[i] = leaf(Hex.decode(leaf));
+        }
+
+        List<byte[][]> levels = new ArrayList<>();
+        levels.add(level);
+        while (level.length > 1) {
+            byte[][] parent = new byte[(level.length + 1) / 2][];
+            for (int i = 0; i < parent.length; i++) {
+                parent[i] = 2 * i + 1 < level.length ? node(level[2 * i], level[2 * i + 1]) : level[2 * i];
+            }
+            levels.add(parent);
+            level = parent;
+        }
+        return new MerkleTree(levels);
+    }
+
+    public int size() {
+        return levels.get(0).length;
+    }
+
+    public String root() {
+        return Hex.encode(root(levels.get(levels.size() - 1)[0], size()));
+    }
+
+    /**
+     * Sibling hashes from the leaf at {@code index} up to the root, skipping levels where the node is promoted.
+     */
+    public List<String> path(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IllegalArgumentException("index out of range");
+        }
+        List<String> path = new ArrayList<>(levels.size() - 1);
+        for (int depth = 0; depth < levels.size() - 1; depth++) {
+            byte[][] level = levels.get(depth);
+            int sibling = index ^ 1;
+            if (sibling < level.length) {
+                path.add(Hex.encode(level[sibling]));
+            }
+            index >>>= 1;
+        }
+        return Collections.unmodifiableList(path);
+    }
+
+    /**
+     * Recomputes the root for a leaf, its index, the batch's leaf count and its {@link #path(int)}; callers compare
+     * the result with the signed root. The path must have exactly the length the count implies.
+     */
+    public static String rootFromPath(String leafHashHex, int index, int count, List<String> path) {
+        if (leafHashHex == null || path == null) {
+            throw new IllegalArgumentException("leafHashHex and path are required");
+        }
+        if (count <= 0) {
+            throw new IllegalArgumentException("count must be > 0");
+        }
+        if (index < 0 || index >= count) {
+            throw new IllegalArgumentException("index out of range");
+        }
+        byte[] hash = leaf(Hex.decode(leafHashHex));
+        int used = 0;
+        for (int width = count; width > 1; width = (width + 1) / 2) {
+            if ((index ^ 1) < width) {
+                if (used == path.size()) {
+                    throw new IllegalArgumentException("path too short");
+                }
+                String siblingHex = path.get(used++);
+                if (siblingHex == null) {
+                    throw new IllegalArgumentException("path entry is required");
+                }
+                byte[] sibling = Hex.decode(siblingHex);
+                hash = (index & 1) == 0 ? node(hash, sibling) : node(sibling, hash);
+            }
+            index >>>= 1;
+        }
+        if (used != path.size()) {
+            throw new IllegalArgumentException("path too long");
+        }
+        return Hex.encode(root(hash, count));
+    }
+
+    private static byte[] leaf(byte[] hash) {
+        MessageDigest digest = Hashing.sha256Digest();
+        digest.update(LEAF);
+        return digest.digest(hash);
+    }
+
+    private static byte[] root(byte[] top, int count) {
+        MessageDigest digest = Hashing.sha256Digest();
+        digest.update(ROOT);
+        digest.update(new byte[] {
+            (byte) (count >>> 24), (byte) (count >>> 16), (byte) (count >>> 8), (byte) count
+        });
+        return digest.digest(top);
+    }
+
+    private static byte[] node(byte[] left, byte[] right) {
+        MessageDigest digest = Hashing.sha256Digest();
+        digest.update(NODE);
+        digest.update(left);
+        return digest.digest(right);
+    }
+}
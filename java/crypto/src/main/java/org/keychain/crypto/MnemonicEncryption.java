@@ -43,16 +43,25 @@ public final class MnemonicEncryption {
         }
 
         try {
-            SecretKey key = deriveKey(passphrase, salt);
-            Cipher cipher = Cipher.getInstance(ENC_ALG);
-            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(128, iv));
-            byte[] ct = cipher.doFinal(mnemonic.getBytes(StandardCharsets.UTF_8));
-
-            return new EncryptedMnemonic(
-                Base64.getEncoder().encodeToString(salt),
-                Base64.getEncoder().encodeToString(iv),
-                Base64.getEncoder().encodeToString(ct)
-            );
+            return encrypt(mnemonic, deriveKey(passphrase, salt), salt, iv);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Mnemonic encryption failed", e);
+        }
+    }
+
+    /**
+     * Re-encrypts under a key previously returned by {@link #deriveKey(String, EncryptedMnemonic)}, keeping
+     * the salt of {@code previous} and drawing a fresh IV, so no PBKDF2 work is repeated.
+     */
+    public static EncryptedMnemonic encrypt(String mnemonic, SecretKey key, EncryptedMnemonic previous) {
+        if (mnemonic == null || key == null || previous == null) {
+            throw new IllegalArgumentException("mnemonic, key and previous are required");
+        }
+
+        byte[] iv = new byte[IV_LEN];
+        RNG.nextBytes(iv);
+        try {
+            return encrypt(mnemonic, key, Base64.getDecoder().decode(previous.salt), iv);
         } catch (GeneralSecurityException e) {
             throw new IllegalStateException("Mnemonic encryption failed", e);
         }
@@ -62,13 +71,18 @@ public final class MnemonicEncryption {
         if (blob == null || passphrase == null) {
             throw new IllegalArgumentException("blob and passphrase are required");
         }
+        return decrypt(blob, deriveKey(passphrase, blob));
+    }
+
+    public static String decrypt(EncryptedMnemonic blob, SecretKey key) {
+        if (blob == null || key == null) {
+            throw new IllegalArgumentException("blob and key are required");
+        }
 
         try {
-            byte[] salt = Base64.getDecoder().decode(blob.salt);
             byte[] iv = Base64.getDecoder().decode(blob.iv);
             byte[] data = Base64.getDecoder().decode(blob.data);
 
-            SecretKey key = deriveKey(passphrase, salt);
             Cipher cipher = Cipher.getInstance(ENC_ALG);
             cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(128, iv));
             byte[] pt = cipher.doFinal(data);
@@ -78,6 +92,35 @@ public final class MnemonicEncryption {
         }
     }
 
+    /**
+     * Runs the passphrase KDF once for the salt in {@code blob}; the result decrypts and re-encrypts that
+     * blob without further PBKDF2 work.
+     */
+    public static SecretKey deriveKey(String passphrase, EncryptedMnemonic blob) {
+        if (blob == null || passphrase == null) {
+            throw new IllegalArgumentException("blob and passphrase are required");
+        }
+
+        try {
+            return deriveKey(passphrase, Base64.getDecoder().decode(blob.salt));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Mnemonic key derivation failed", e);
+        }
+    }
+
+    private static EncryptedMnemonic encrypt(String mnemonic, SecretKey key, byte[] salt, byte[] iv)
+        throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance(ENC_ALG);
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(128, iv));
+        byte[] ct = cipher.doFinal(mnemonic.getBytes(StandardCharsets.UTF_8));
+
+        return new EncryptedMnemonic(
+            Base64.getEncoder().encodeToString(salt),
+            Base64.getEncoder().encodeToString(iv),
+            Base64.getEncoder().encodeToString(ct)
+        );
+    }
+
     private static SecretKey deriveKey(String passphrase, byte[] salt) throws GeneralSecurityException {
         PBEKeySpec spec = new PBEKeySpec(passphrase.toCharArray(), salt, ENC_ITER, KEY_LEN);
         SecretKeyFactory factory = SecretKeyFactory.getInstance(ENC_KDF);
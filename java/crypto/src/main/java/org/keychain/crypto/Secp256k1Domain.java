@@ -0,0 +1,34 @@
+package org.keychain.crypto;
+
+import java.math.BigInteger;
+import org.bouncycastle.asn1.x9.X9ECParameters;
+import org.bouncycastle.crypto.ec.CustomNamedCurves;
+import org.bouncycastle.crypto.params.ECDomainParameters;
+import org.bouncycastle.math.ec.ECMultiplier;
+import org.bouncycastle.math.ec.ECPoint;
+import org.bouncycastle.math.ec.FixedPointCombMultiplier;
+import org.keychain.crypto.util.Base64Url;
+
+final class Secp256k1Domain {
+    static final String CURVE = "secp256k1";
+    static final ECDomainParameters PARAMS;
+    static final ECMultiplier BASE_MULTIPLIER = new FixedPointCombMultiplier();
+
+    static {
+        X9ECParameters params = CustomNamedCurves.getByName(CURVE);
+        PARAMS = new ECDomainParameters(params.getCurve(), params.getG(), params.getN(), params.getH());
+    }
+
+    private Secp256k1Domain() {}
+
+    static ECPoint publicPoint(BigInteger d) {
+        return BASE_MULTIPLIER.multiply(PARAMS.getG(), d).normalize();
+    }
+
+    static ECPoint decodePoint(JwkPublic jwk) {
+        return PARAMS.getCurve().createPoint(
+            new BigInteger(1, Base64Url.decode(jwk.x)),
+            new BigInteger(1, Base64Url.decode(jwk.y))
+        );
+    }
+}
@@ -2,20 +2,10 @@ package org.keychain.crypto;
 
 import java.math.BigInteger;
 import java.util.Arrays;
-import org.bouncycastle.asn1.sec.SECNamedCurves;
-import org.bouncycastle.crypto.params.ECDomainParameters;
 import org.bouncycastle.math.ec.ECPoint;
 import org.keychain.crypto.util.Base64Url;
 
 public final class Secp256k1Ecdh {
-    private static final String CURVE = "secp256k1";
-    private static final ECDomainParameters DOMAIN;
-
-    static {
-        var params = SECNamedCurves.getByName(CURVE);
-        DOMAIN = new ECDomainParameters(params.getCurve(), params.getG(), params.getN(), params.getH());
-    }
-
     private Secp256k1Ecdh() {}
 
     public static byte[] sharedSecretCompressed(JwkPublic pubKey, JwkPrivate privKey) {
@@ -24,11 +14,18 @@ public final class Secp256k1Ecdh {
         }
 
         BigInteger d = new BigInteger(1, Base64Url.decode(privKey.d));
-        ECPoint q = DOMAIN.getCurve().createPoint(
-            new BigInteger(1, Base64Url.decode(pubKey.x)),
-            new BigInteger(1, Base64Url.decode(pubKey.y))
-        );
+        return multiply(pubKey, d);
+    }
+
+    public static byte[] sharedSecretCompressed(JwkPublic pubKey, SigningKey privKey) {
+        if (pubKey == null || privKey == null) {
+            throw new IllegalArgumentException("pubKey and privKey are required");
+        }
+        return multiply(pubKey, privKey.params().getD());
+    }
 
+    private static byte[] multiply(JwkPublic pubKey, BigInteger d) {
+        ECPoint q = Secp256k1Domain.decodePoint(pubKey);
         ECPoint shared = q.multiply(d).normalize();
         return shared.getEncoded(true);
     }
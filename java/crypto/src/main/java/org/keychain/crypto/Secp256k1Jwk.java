@@ -1,13 +1,15 @@
 package org.keychain.crypto;
 
 import java.math.BigInteger;
-import org.bouncycastle.asn1.sec.SECNamedCurves;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import org.bouncycastle.math.ec.ECPoint;
 import org.keychain.crypto.util.Base64Url;
 
 public final class Secp256k1Jwk {
     private static final String KTY = "EC";
-    private static final String CRV = "secp256k1";
+    private static final String CRV = Secp256k1Domain.CURVE;
 
     private Secp256k1Jwk() {}
 
@@ -17,16 +19,60 @@ public final class Secp256k1Jwk {
         }
 
         BigInteger d = new BigInteger(1, privateKeyBytes);
-        ECPoint q = SECNamedCurves.getByName(CRV).getG().multiply(d).normalize();
+        return toPair(Secp256k1Domain.publicPoint(d), privateKeyBytes);
+    }
+
+    public static List<JwkPair> fromPrivateKeys(List<byte[]> privateKeys) {
+        if (privateKeys == null) {
+            throw new IllegalArgumentException("privateKeys must not be null");
+        }
+
+        ECPoint[] points = new ECPoint[privateKeys.size()];
+        for (int i = 0; i < points.length; i += 1) {
+            byte[] privateKeyBytes = privateKeys.get(i);
+            if (privateKeyBytes == null || privateKeyBytes.length != 32) {
+                throw new IllegalArgumentException("privateKeyBytes must be 32 bytes");
+            }
+            BigInteger d = new BigInteger(1, privateKeyBytes);
+            points[i] = Secp256k1Domain.BASE_MULTIPLIER.multiply(Secp256k1Domain.PARAMS.getG(), d);
+        }
+
+        Secp256k1Domain.PARAMS.getCurve().normalizeAll(points);
+
+        List<JwkPair> pairs = new ArrayList<>(points.length);
+        for (int i = 0; i < points.length; i += 1) {
+            pairs.add(toPair(points[i], privateKeys.get(i)));
+        }
+        return pairs;
+    }
+
+    /**
+     * Builds a public JWK from a SEC1-encoded point, compressed or uncompressed.
+     */
+    public static JwkPublic fromPublicKey(byte[] encoded) {
+        if (encoded == null || (encoded.length != 33 && encoded.length != 65)) {
+            throw new IllegalArgumentException("encoded public key must be 33 or 65 bytes");
+        }
+
+        ECPoint q;
+        try {
+            q = Secp256k1Domain.PARAMS.getCurve().decodePoint(encoded).normalize();
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid public key", e);
+        }
+        if (q.isInfinity() || !q.isValid()) {
+            throw new IllegalArgumentException("Invalid public key");
+        }
+
         byte[] uncompressed = q.getEncoded(false);
+        return new JwkPublic(KTY, CRV, Base64Url.encode(uncompressed, 1, 32), Base64Url.encode(uncompressed, 33, 32));
+    }
 
-        byte[] x = new byte[32];
-        byte[] y = new byte[32];
-        System.arraycopy(uncompressed, 1, x, 0, 32);
-        System.arraycopy(uncompressed, 33, y, 0, 32);
+    private static JwkPair toPair(ECPoint q, byte[] privateKeyBytes) {
+        byte[] uncompressed = q.getEncoded(false);
 
-        String xB64 = Base64Url.encode(x);
-        String yB64 = Base64Url.encode(y);
+        String xB64 = Base64Url.encode(uncompressed, 1, 32);
+        String yB64 = Base64Url.encode(uncompressed, 33, 32);
         String dB64 = Base64Url.encode(privateKeyBytes);
 
         JwkPublic pub = new JwkPublic(KTY, CRV, xB64, yB64);
@@ -34,21 +80,35 @@ public final class Secp256k1Jwk {
         return new JwkPair(pub, priv);
     }
 
+    /**
+     * RFC 7638 JWK thumbprint: base64url SHA-256 of the canonical {crv, kty, x, y} members.
+     */
+    public static String thumbprint(JwkPublic jwk) {
+        if (jwk == null || jwk.x == null || jwk.y == null) {
+            throw new IllegalArgumentException("x and y are required");
+        }
+
+        String json = "{\"crv\":\"" + CRV + "\",\"kty\":\"" + KTY
+            + "\",\"x\":\"" + jwk.x + "\",\"y\":\"" + jwk.y + "\"}";
+        return Base64Url.encode(Hashing.sha256(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
     public static byte[] toCompressed(JwkPublic jwk) {
         if (jwk == null) {
             throw new IllegalArgumentException("jwk must not be null");
         }
 
-        byte[] x = Base64Url.decode(jwk.x);
-        byte[] y = Base64Url.decode(jwk.y);
-        if (x.length != 32 || y.length != 32) {
+        if (jwk.x == null || jwk.y == null
+            || Base64Url.decodedLength(jwk.x, 0, jwk.x.length()) != 32
+            || Base64Url.decodedLength(jwk.y, 0, jwk.y.length()) != 32) {
             throw new IllegalArgumentException("x and y must be 32 bytes");
         }
 
-        byte prefix = (byte) ((y[y.length - 1] & 1) == 0 ? 0x02 : 0x03);
         byte[] out = new byte[33];
+        Base64Url.decode(jwk.y, 0, jwk.y.length(), out, 1);
+        byte prefix = (byte) ((out[32] & 1) == 0 ? 0x02 : 0x03);
+        Base64Url.decode(jwk.x, 0, jwk.x.length(), out, 1);
         out[0] = prefix;
-        System.arraycopy(x, 0, out, 1, 32);
         return out;
     }
 }
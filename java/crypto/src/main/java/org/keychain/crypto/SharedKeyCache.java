@@ -0,0 +1,190 @@
+package org.keychain.crypto;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+final class SharedKeyCache {
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final XChaCha20Poly1305.Provider provider;
+    private final LinkedHashMap<Key, Entry> entries;
+    /** The cached keys for each private key fingerprint, so one private key's entries can be dropped together. */
+    private final Map<ByteBuffer, Set<Key>> byFingerprint = new HashMap<>();
+    private long lastPurge = System.nanoTime();
+
+    SharedKeyCache(int maxEntries, long ttlMillis) {
+        this(maxEntries, ttlMillis, XChaCha20Poly1305.Provider.defaultProvider());
+    }
+
+    SharedKeyCache(int maxEntries, long ttlMillis, XChaCha20Poly1305.Provider provider) {
+        if (maxEntries < 0 || ttlMillis < 0) {
+            throw new IllegalArgumentException("maxEntries and ttlMillis must be >= 0");
+        }
+        if (provider == null) {
+            throw new IllegalArgumentException("provider is required");
+        }
+        this.maxEntries = maxEntries;
+        this.provider = provider;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, SharedKeyCache.Entry> eldest) {
+                if (size() > SharedKeyCache.this.maxEntries) {
+                    eldest.getValue().wipe();
+                    unindex(eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns a new cipher under the cached shared key for the pair. The caller owns the cipher and should
+     * {@link XChaCha20Poly1305#destroy() destroy} it when done; only the derived key is kept here.
+     */
+    XChaCha20Poly1305 cipher(JwkPublic pubKey, byte[] fingerprint, Supplier<byte[]> sharedKey) {
+        if (maxEntries == 0 || ttlNanos == 0) {
+            byte[] key32 = sharedKey.get();
+            try {
+                return XChaCha20Util.newCipher(key32, provider);
+            } finally {
+                Arrays.fill(key32, (byte) 0);
+            }
+        }
+
+        Key key = new Key(pubKey.x, pubKey.y, fingerprint);
+        long now = System.nanoTime();
+        synchronized (entries) {
+            purgeExpired(now);
+            Entry entry = entries.get(key);
+            if (entry != null && now - entry.createdAt < ttlNanos) {
+                return XChaCha20Util.newCipher(entry.key32, provider);
+            }
+        }
+
+        byte[] key32 = sharedKey.get();
+        synchronized (entries) {
+            Entry raced = entries.get(key);
+            if (raced != null && now - raced.createdAt < ttlNanos) {
+                Arrays.fill(key32, (byte) 0);
+                return XChaCha20Util.newCipher(raced.key32, provider);
+            }
+            if (raced != null) {
+                raced.wipe();
+            }
+            entries.put(key, new Entry(key32, now));
+            byFingerprint.computeIfAbsent(ByteBuffer.wrap(key.fingerprint), f -> new HashSet<>()).add(key);
+            return XChaCha20Util.newCipher(key32, provider);
+        }
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    void clear() {
+        synchronized (entries) {
+            for (Iterator<Entry> it = entries.values().iterator(); it.hasNext(); ) {
+                it.next().wipe();
+                it.remove();
+            }
+            byFingerprint.clear();
+        }
+    }
+
+    /**
+     * Wipes every entry derived from the private key with this fingerprint.
+     */
+    void clear(byte[] fingerprint) {
+        synchronized (entries) {
+            Set<Key> keys = byFingerprint.remove(ByteBuffer.wrap(fingerprint));
+            if (keys == null) {
+                return;
+            }
+            for (Key key : keys) {
+                entries.remove(key).wipe();
+            }
+        }
+    }
+
+    /**
+     * Wipes every expired entry, at most once per TTL so lookups stay amortised O(1).
+     */
+    private void purgeExpired(long now) {
+        if (now - lastPurge < ttlNanos) {
+            return;
+        }
+        lastPurge = now;
+        for (Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Key, Entry> entry = it.next();
+            if (now - entry.getValue().createdAt >= ttlNanos) {
+                entry.getValue().wipe();
+                it.remove();
+                unindex(entry.getKey());
+            }
+        }
+    }
+
+    private void unindex(Key key) {
+        ByteBuffer fingerprint = ByteBuffer.wrap(key.fingerprint);
+        Set<Key> keys = byFingerprint.get(fingerprint);
+        if (keys != null && keys.remove(key) && keys.isEmpty()) {
+            byFingerprint.remove(fingerprint);
+        }
+    }
+
+    private static final class Key {
+        private final String x;
+        private final String y;
+        private final byte[] fingerprint;
+        private final int hash;
+
+        private Key(String x, String y, byte[] fingerprint) {
+            this.x = x;
+            this.y = y;
+            this.fingerprint = fingerprint;
+            this.hash = 31 * (31 * x.hashCode() + y.hashCode()) + Arrays.hashCode(fingerprint);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) other;
+            return hash == that.hash
+                && x.equals(that.x)
+                && y.equals(that.y)
+                && Arrays.equals(fingerprint, that.fingerprint);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Entry {
+        private final byte[] key32;
+        private final long createdAt;
+
+        private Entry(byte[] key32, long createdAt) {
+            this.key32 = key32;
+            this.createdAt = createdAt;
+        }
+
+        private void wipe() {
+            Arrays.fill(key32, (byte) 0);
+        }
+    }
+}
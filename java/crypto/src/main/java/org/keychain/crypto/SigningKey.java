@@ -0,0 +1,76 @@
+package org.keychain.crypto;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import javax.security.auth.Destroyable;
+import org.bouncycastle.crypto.params.ECPrivateKeyParameters;
+import org.keychain.crypto.util.Base64Url;
+
+public final class SigningKey implements Destroyable {
+    private final JwkPublic publicJwk;
+    private final byte[] fingerprint;
+    private byte[] encoded;
+    private volatile ECPrivateKeyParameters params;
+
+    private SigningKey(JwkPublic publicJwk, byte[] encoded) {
+        this.publicJwk = publicJwk;
+        this.fingerprint = Hashing.sha256(encoded);
+        this.encoded = encoded;
+        this.params = new ECPrivateKeyParameters(new BigInteger(1, encoded), Secp256k1Domain.PARAMS);
+    }
+
+    public static SigningKey from(JwkPrivate privateJwk) {
+        if (privateJwk == null || privateJwk.d == null) {
+            throw new IllegalArgumentException("privateJwk with d is required");
+        }
+
+        byte[] encoded = Base64Url.decode(privateJwk.d);
+        if (encoded.length != 32) {
+            Arrays.fill(encoded, (byte) 0);
+            throw new IllegalArgumentException("d must be 32 bytes");
+        }
+        return new SigningKey(new JwkPublic(privateJwk.kty, privateJwk.crv, privateJwk.x, privateJwk.y), encoded);
+    }
+
+    public JwkPublic publicJwk() {
+        return publicJwk;
+    }
+
+    /**
+     * Rebuilds the JWK for {@link KeymasterCrypto} implementations that only accept {@link JwkPrivate};
+     * the returned copy is not wiped by {@link #destroy()}.
+     */
+    synchronized JwkPrivate privateJwk() {
+        if (encoded == null) {
+            throw new IllegalStateException("signing key destroyed");
+        }
+        return new JwkPrivate(publicJwk.kty, publicJwk.crv, publicJwk.x, publicJwk.y, Base64Url.encode(encoded));
+    }
+
+    ECPrivateKeyParameters params() {
+        ECPrivateKeyParameters current = params;
+        if (current == null) {
+            throw new IllegalStateException("signing key destroyed");
+        }
+        return current;
+    }
+
+    byte[] fingerprint() {
+        params();
+        return fingerprint;
+    }
+
+    @Override
+    public synchronized void destroy() {
+        params = null;
+        if (encoded != null) {
+            Arrays.fill(encoded, (byte) 0);
+            encoded = null;
+        }
+    }
+
+    @Override
+    public boolean isDestroyed() {
+        return params == null;
+    }
+}
@@ -0,0 +1,57 @@
+package org.keychain.crypto;
+
+import com.google.crypto.tink.aead.internal.InsecureNonceXChaCha20Poly1305;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+/**
+ * Tink keeps its key in state that cannot be wiped, so a Tink cipher is built per call from a key that
+ * {@link #destroy()} can zero.
+ */
+final class TinkXChaCha20Poly1305 implements XChaCha20Poly1305 {
+    private static final byte[] EMPTY = new byte[0];
+
+    private byte[] key;
+
+    TinkXChaCha20Poly1305(byte[] key32) throws GeneralSecurityException {
+        new InsecureNonceXChaCha20Poly1305(key32);
+        this.key = key32.clone();
+    }
+
+    @Override
+    public void encrypt(byte[] nonce, byte[] plaintext, byte[] out, int outOffset) throws GeneralSecurityException {
+        cipher().encrypt(ByteBuffer.wrap(out, outOffset, plaintext.length + TAG_LENGTH), nonce, plaintext, EMPTY);
+    }
+
+    @Override
+    public byte[] encrypt(byte[] nonce, byte[] plaintext) throws GeneralSecurityException {
+        return cipher().encrypt(nonce, plaintext, EMPTY);
+    }
+
+    @Override
+    public byte[] decrypt(byte[] nonce, byte[] ciphertext, int offset, int length)
+        throws GeneralSecurityException {
+        return cipher().decrypt(ByteBuffer.wrap(ciphertext, offset, length), nonce, EMPTY);
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (key != null) {
+            Arrays.fill(key, (byte) 0);
+            key = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isDestroyed() {
+        return key == null;
+    }
+
+    private synchronized InsecureNonceXChaCha20Poly1305 cipher() throws GeneralSecurityException {
+        if (key == null) {
+            throw new IllegalStateException("cipher destroyed");
+        }
+        return new InsecureNonceXChaCha20Poly1305(key);
+    }
+}
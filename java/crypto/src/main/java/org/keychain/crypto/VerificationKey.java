@@ -0,0 +1,86 @@
+package org.keychain.crypto;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.bouncycastle.crypto.params.ECPublicKeyParameters;
+import org.bouncycastle.math.ec.ECPoint;
+import org.bouncycastle.math.ec.WNafUtil;
+
+public final class VerificationKey {
+    private static final int CACHE_SIZE = 1024;
+    private static final int WNAF_WIDTH = 8;
+    private static final Map<Key, VerificationKey> CACHE = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, VerificationKey> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private final JwkPublic jwk;
+    final ECPublicKeyParameters params;
+
+    private VerificationKey(JwkPublic jwk, ECPublicKeyParameters params) {
+        this.jwk = jwk;
+        this.params = params;
+    }
+
+    public static VerificationKey from(JwkPublic jwk) {
+        if (jwk == null || jwk.x == null || jwk.y == null) {
+            throw new IllegalArgumentException("jwk with x and y is required");
+        }
+
+        Key key = new Key(jwk.x, jwk.y);
+        synchronized (CACHE) {
+            VerificationKey cached = CACHE.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        ECPoint q = Secp256k1Domain.PARAMS.validatePublicPoint(Secp256k1Domain.decodePoint(jwk));
+        WNafUtil.precompute(q, WNAF_WIDTH, true);
+        VerificationKey created = new VerificationKey(
+            new JwkPublic(jwk.kty, jwk.crv, jwk.x, jwk.y),
+            new ECPublicKeyParameters(q, Secp256k1Domain.PARAMS)
+        );
+
+        synchronized (CACHE) {
+            VerificationKey raced = CACHE.putIfAbsent(key, created);
+            return raced != null ? raced : created;
+        }
+    }
+
+    public JwkPublic jwk() {
+        return jwk;
+    }
+
+    static void clearCache() {
+        synchronized (CACHE) {
+            CACHE.clear();
+        }
+    }
+
+    private static final class Key {
+        private final String x;
+        private final String y;
+
+        private Key(String x, String y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) other;
+            return x.equals(that.x) && y.equals(that.y);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * x.hashCode() + y.hashCode();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package org.keychain.crypto;
+
+public class VerifyRequest {
+    public final String msgHashHex;
+    public final String sigCompactHex;
+    public final JwkPublic publicJwk;
+
+    public VerifyRequest(String msgHashHex, String sigCompactHex, JwkPublic publicJwk) {
+        this.msgHashHex = msgHashHex;
+        this.sigCompactHex = sigCompactHex;
+        this.publicJwk = publicJwk;
+    }
+}
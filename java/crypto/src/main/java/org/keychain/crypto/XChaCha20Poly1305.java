@@ -0,0 +1,67 @@
+package org.keychain.crypto;
+
+import java.security.GeneralSecurityException;
+import javax.security.auth.Destroyable;
+
+/**
+ * XChaCha20-Poly1305 with caller-supplied 24-byte nonces and no associated data. Output is
+ * {@code ciphertext || tag}; every provider produces byte-identical output.
+ */
+public interface XChaCha20Poly1305 extends Destroyable {
+    int KEY_LENGTH = 32;
+    int NONCE_LENGTH = 24;
+    int TAG_LENGTH = 16;
+
+    /**
+     * Writes {@code plaintext.length + TAG_LENGTH} bytes into {@code out} starting at {@code outOffset}.
+     */
+    void encrypt(byte[] nonce, byte[] plaintext, byte[] out, int outOffset) throws GeneralSecurityException;
+
+    default byte[] encrypt(byte[] nonce, byte[] plaintext) throws GeneralSecurityException {
+        byte[] out = new byte[plaintext.length + TAG_LENGTH];
+        encrypt(nonce, plaintext, out, 0);
+        return out;
+    }
+
+    byte[] decrypt(byte[] nonce, byte[] ciphertext, int offset, int length) throws GeneralSecurityException;
+
+    default byte[] decrypt(byte[] nonce, byte[] ciphertext) throws GeneralSecurityException {
+        return decrypt(nonce, ciphertext, 0, ciphertext.length);
+    }
+
+    /**
+     * Zeroes the key held by this instance; later calls throw {@link IllegalStateException}.
+     */
+    @Override
+    void destroy();
+
+    static XChaCha20Poly1305 create(byte[] key32, Provider provider) {
+        if (key32 == null || key32.length != KEY_LENGTH) {
+            throw new IllegalArgumentException("key32 must be 32 bytes");
+        }
+        if (provider == null) {
+            throw new IllegalArgumentException("provider is required");
+        }
+        try {
+            return provider == Provider.JDK ? new JdkXChaCha20Poly1305(key32) : new TinkXChaCha20Poly1305(key32);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cipher initialization failed", e);
+        }
+    }
+
+    enum Provider {
+        /** Tink's pure-Java implementation. */
+        TINK,
+        /** HChaCha20 subkey derivation over the JDK's {@code ChaCha20-Poly1305} cipher. */
+        JDK;
+
+        private static final Provider DEFAULT = JdkXChaCha20Poly1305.isAvailable() ? JDK : TINK;
+
+        /**
+         * {@link #JDK} when the platform provides {@code ChaCha20-Poly1305}, otherwise {@link #TINK}.
+         */
+        public static Provider defaultProvider() {
+            return DEFAULT;
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package org.keychain.crypto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+import org.keychain.crypto.util.Bytes;
+
+/**
+ * Segmented XChaCha20-Poly1305 in the STREAM construction.
+ *
+ * <p>The stream starts with a version byte and a random 19-byte nonce prefix. Plaintext is split into
+ * {@link #SEGMENT_SIZE} segments, each sealed with the nonce {@code prefix || counter (4 bytes, big-endian) ||
+ * last (1 byte)}, so truncation, reordering and appending are all detected.
+ */
+public final class XChaCha20Stream {
+    public static final int SEGMENT_SIZE = 64 * 1024;
+
+    static final byte VERSION = 0x01;
+    static final int PREFIX_LENGTH = 19;
+    static final int HEADER_LENGTH = 1 + PREFIX_LENGTH;
+    static final int TAG_LENGTH = 16;
+    static final int CIPHERTEXT_SEGMENT_SIZE = SEGMENT_SIZE + TAG_LENGTH;
+
+    private static final int NONCE_LENGTH = 24;
+    private static final byte[] EMPTY = new byte[0];
+
+    private XChaCha20Stream() {}
+
+    public static OutputStream encryptingOutputStream(byte[] key32, OutputStream ciphertext) {
+        return encryptingOutputStream(XChaCha20Util.newCipher(key32), ciphertext);
+    }
+
+    public static InputStream encryptingInputStream(byte[] key32, InputStream plaintext) {
+        return encryptingInputStream(XChaCha20Util.newCipher(key32), plaintext);
+    }
+
+    public static InputStream decryptingInputStream(byte[] key32, InputStream ciphertext) {
+        return decryptingInputStream(XChaCha20Util.newCipher(key32), ciphertext);
+    }
+
+    public static ReadableByteChannel encryptingChannel(byte[] key32, ReadableByteChannel plaintext) {
+        if (plaintext == null) {
+            throw new IllegalArgumentException("plaintext is required");
+        }
+        return Channels.newChannel(encryptingInputStream(key32, Channels.newInputStream(plaintext)));
+    }
+
+    public static ReadableByteChannel decryptingChannel(byte[] key32, ReadableByteChannel ciphertext) {
+        if (ciphertext == null) {
+            throw new IllegalArgumentException("ciphertext is required");
+        }
+        return Channels.newChannel(decryptingInputStream(key32, Channels.newInputStream(ciphertext)));
+    }
+
+    static OutputStream encryptingOutputStream(XChaCha20Poly1305 cipher, OutputStream ciphertext) {
+        if (ciphertext == null) {
+            throw new IllegalArgumentException("ciphertext is required");
+        }
+        return new EncryptingOutputStream(cipher, ciphertext);
+    }
+
+    static InputStream encryptingInputStream(XChaCha20Poly1305 cipher, InputStream plaintext) {
+        if (plaintext == null) {
+            throw new IllegalArgumentException("plaintext is required");
+        }
+        return new EncryptingInputStream(cipher, plaintext);
+    }
+
+    static InputStream decryptingInputStream(XChaCha20Poly1305 cipher, InputStream ciphertext) {
+        if (ciphertext == null) {
+            throw new IllegalArgumentException("ciphertext is required");
+        }
+        return new DecryptingInputStream(cipher, ciphertext);
+    }
+
+    private static byte[] newHeader() {
+        byte[] header = new byte[HEADER_LENGTH];
+        header[0] = VERSION;
+        System.arraycopy(Bytes.random(PREFIX_LENGTH), 0, header, 1, PREFIX_LENGTH);
+        return header;
+    }
+
+    private static byte[] nonce(byte[] header, long counter, boolean last) {
+        if (counter > 0xFFFFFFFFL) {
+            throw new IllegalStateException("stream too long");
+        }
+        byte[] nonce = new byte[NONCE_LENGTH];
+        System.arraycopy(header, 1, nonce, 0, PREFIX_LENGTH);
+        nonce[19] = (byte) (counter >>> 24);
+        nonce[20] = (byte) (counter >>> 16);
+        nonce[21] = (byte) (counter >>> 8);
+        nonce[22] = (byte) counter;
+        nonce[23] = (byte) (last ? 1 : 0);
+        return nonce;
+    }
+
+    private static byte[] seal(XChaCha20Poly1305 cipher, byte[] header, long counter, boolean last,
+                               byte[] buffer, int length) throws IOException {
+        byte[] plaintext = length == buffer.length ? buffer : Arrays.copyOf(buffer, length);
+        try {
+            return cipher.encrypt(nonce(header, counter, last), plaintext);
+        } catch (Exception e) {
+            throw new IOException("Encryption failed", e);
+        }
+    }
+
+    private static int readFully(InputStream in, byte[] buffer, int offset, int length) throws IOException {
+        int total = 0;
+        while (total < length) {
+            int read = in.read(buffer, offset + total, length - total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    private static final class EncryptingOutputStream extends OutputStream {
+        private final XChaCha20Poly1305 cipher;
+        private final OutputStream out;
+        private final byte[] buffer = new byte[SEGMENT_SIZE];
+        private byte[] header;
+        private int position;
+        private long counter;
+        private boolean closed;
+
+        private EncryptingOutputStream(XChaCha20Poly1305 cipher, OutputStream out) {
+            this.cipher = cipher;
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (closed) {
+                throw new IOException("stream closed");
+            }
+            if (b == null || off < 0 || len < 0 || off > b.length - len) {
+                throw new IndexOutOfBoundsException();
+            }
+
+            while (len > 0) {
+                // A full buffer is only sealed once more data arrives, so the last segment can be flagged on close.
+                if (position == SEGMENT_SIZE) {
+                    writeSegment(false);
+                }
+                int n = Math.min(len, SEGMENT_SIZE - position);
+                System.arraycopy(b, off, buffer, position, n);
+                position += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                writeSegment(true);
+            } finally {
+                Arrays.fill(buffer, (byte) 0);
+                cipher.destroy();
+                out.close();
+            }
+        }
+
+        private void writeSegment(boolean last) throws IOException {
+            if (header == null) {
+                header = newHeader();
+                out.write(header);
+            }
+            out.write(seal(cipher, header, counter, last, buffer, position));
+            counter += 1;
+            position = 0;
+        }
+    }
+
+    private static final class EncryptingInputStream extends InputStream {
+        private final XChaCha20Poly1305 cipher;
+        private final InputStream in;
+        private final byte[] plaintext = new byte[SEGMENT_SIZE + 1];
+        private final byte[] header = newHeader();
+        private byte[] segment = header;
+        private int position;
+        private int buffered;
+        private long counter;
+        private boolean done;
+
+        private EncryptingInputStream(XChaCha20Poly1305 cipher, InputStream in) {
+            this.cipher = cipher;
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            int n = read(one, 0, 1);
+            return n < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (b == null || off < 0 || len < 0 || off > b.length - len) {
+                throw new IndexOutOfBoundsException();
+            }
+            if (len == 0) {
+                return 0;
+            }
+            while (position == segment.length) {
+                if (done) {
+                    return -1;
+                }
+                nextSegment();
+            }
+
+            int n = Math.min(len, segment.length - position);
+            System.arraycopy(segment, position, b, off, n);
+            position += n;
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            Arrays.fill(plaintext, (byte) 0);
+            cipher.destroy();
+            in.close();
+        }
+
+        private void nextSegment() throws IOException {
+            buffered += readFully(in, plaintext, buffered, plaintext.length - buffered);
+            boolean last = buffered <= SEGMENT_SIZE;
+            int length = last ? buffered : SEGMENT_SIZE;
+
+            segment = seal(cipher, header, counter, last, plaintext, length);
+            counter += 1;
+            position = 0;
+            if (last) {
+                done = true;
+                buffered = 0;
+            } else {
+                plaintext[0] = plaintext[SEGMENT_SIZE];
+                buffered = 1;
+            }
+        }
+    }
+
+    private static final class DecryptingInputStream extends InputStream {
+        private final XChaCha20Poly1305 cipher;
+        private final InputStream in;
+        private final byte[] ciphertext = new byte[CIPHERTEXT_SEGMENT_SIZE + 1];
+        private byte[] header;
+        private byte[] segment = EMPTY;
+        private int position;
+        private int buffered;
+        private long counter;
+        private boolean done;
+
+        private DecryptingInputStream(XChaCha20Poly1305 cipher, InputStream in) {
+            this.cipher = cipher;
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            int n = read(one, 0, 1);
+            return n < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (b == null || off < 0 || len < 0 || off > b.length - len) {
+                throw new IndexOutOfBoundsException();
+            }
+            if (len == 0) {
+                return 0;
+            }
+            while (position == segment.length) {
+                if (done) {
+                    return -1;
+                }
+                nextSegment();
+            }
+
+            int n = Math.min(len, segment.length - position);
+            System.arraycopy(segment, position, b, off, n);
+            position += n;
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            Arrays.fill(segment, (byte) 0);
+            cipher.destroy();
+            in.close();
+        }
+
+        private void nextSegment() throws IOException {
+            if (header == null) {
+                byte[] read = new byte[HEADER_LENGTH];
+                if (readFully(in, read, 0, HEADER_LENGTH) != HEADER_LENGTH) {
+                    throw new IOException("ciphertext too short");
+                }
+                if (read[0] != VERSION) {
+                    throw new IOException("unsupported stream version");
+                }
+                header = read;
+            }
+
+            buffered += readFully(in, ciphertext, buffered, ciphertext.length - buffered);
+            boolean last = buffered <= CIPHERTEXT_SEGMENT_SIZE;
+            int length = last ? buffered : CIPHERTEXT_SEGMENT_SIZE;
+            if (length < TAG_LENGTH) {
+                throw new IOException("ciphertext truncated");
+            }
+
+            Arrays.fill(segment, (byte) 0);
+            try {
+                segment = cipher.decrypt(nonce(header, counter, last), ciphertext, 0, length);
+            } catch (Exception e) {
+                throw new IOException("Decryption failed", e);
+            }
+            counter += 1;
+            position = 0;
+            if (last) {
+                done = true;
+                buffered = 0;
+            } else {
+                ciphertext[0] = ciphertext[CIPHERTEXT_SEGMENT_SIZE];
+                buffered = 1;
+            }
+        }
+    }
+}
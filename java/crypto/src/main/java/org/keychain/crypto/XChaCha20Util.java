@@ -1,13 +1,14 @@
 package org.keychain.crypto;
 
 import java.nio.charset.StandardCharsets;
-import com.google.crypto.tink.aead.internal.InsecureNonceXChaCha20Poly1305;
+import java.util.Arrays;
 import org.keychain.crypto.util.Base64Url;
 import org.keychain.crypto.util.Bytes;
 import java.util.function.Supplier;
 
 public final class XChaCha20Util {
-    private static final int NONCE_LENGTH = 24;
+    private static final int NONCE_LENGTH = XChaCha20Poly1305.NONCE_LENGTH;
+    private static final int TAG_LENGTH = XChaCha20Poly1305.TAG_LENGTH;
     private static final Supplier<byte[]> NONCE_SUPPLIER = () -> Bytes.random(NONCE_LENGTH);
 
     private XChaCha20Util() {}
@@ -16,13 +17,20 @@ public final class XChaCha20Util {
         if (key32 == null || key32.length != 32) {
             throw new IllegalArgumentException("key32 must be 32 bytes");
         }
+        XChaCha20Poly1305 cipher = newCipher(key32);
+        try {
+            return encrypt(cipher, plaintext);
+        } finally {
+            cipher.destroy();
+        }
+    }
 
+    static String encrypt(XChaCha20Poly1305 cipher, byte[] plaintext) {
         try {
             byte[] nonce = NONCE_SUPPLIER.get();
-            InsecureNonceXChaCha20Poly1305 cipher = new InsecureNonceXChaCha20Poly1305(key32);
-            byte[] ciphertext = cipher.encrypt(nonce, plaintext, new byte[0]);
-
-            byte[] out = Bytes.concat(nonce, ciphertext);
+            byte[] out = new byte[NONCE_LENGTH + plaintext.length + TAG_LENGTH];
+            System.arraycopy(nonce, 0, out, 0, NONCE_LENGTH);
+            cipher.encrypt(nonce, plaintext, out, NONCE_LENGTH);
             return Base64Url.encode(out);
         } catch (Exception e) {
             throw new IllegalStateException("Encryption failed", e);
@@ -33,25 +41,37 @@ public final class XChaCha20Util {
         if (key32 == null || key32.length != 32) {
             throw new IllegalArgumentException("key32 must be 32 bytes");
         }
+        XChaCha20Poly1305 cipher = newCipher(key32);
+        try {
+            return decrypt(cipher, nonceCiphertextB64Url);
+        } finally {
+            cipher.destroy();
+        }
+    }
 
+    static byte[] decrypt(XChaCha20Poly1305 cipher, String nonceCiphertextB64Url) {
         byte[] data = Base64Url.decode(nonceCiphertextB64Url);
         if (data.length <= NONCE_LENGTH) {
             throw new IllegalArgumentException("ciphertext too short");
         }
 
-        byte[] nonce = new byte[NONCE_LENGTH];
-        byte[] ciphertext = new byte[data.length - NONCE_LENGTH];
-        System.arraycopy(data, 0, nonce, 0, NONCE_LENGTH);
-        System.arraycopy(data, NONCE_LENGTH, ciphertext, 0, ciphertext.length);
+        byte[] nonce = Arrays.copyOf(data, NONCE_LENGTH);
 
         try {
-            InsecureNonceXChaCha20Poly1305 cipher = new InsecureNonceXChaCha20Poly1305(key32);
-            return cipher.decrypt(nonce, ciphertext, new byte[0]);
+            return cipher.decrypt(nonce, data, NONCE_LENGTH, data.length - NONCE_LENGTH);
         } catch (Exception e) {
             throw new IllegalStateException("Decryption failed", e);
         }
     }
 
+    static XChaCha20Poly1305 newCipher(byte[] key32) {
+        return newCipher(key32, XChaCha20Poly1305.Provider.defaultProvider());
+    }
+
+    static XChaCha20Poly1305 newCipher(byte[] key32, XChaCha20Poly1305.Provider provider) {
+        return XChaCha20Poly1305.create(key32, provider);
+    }
+
     public static String encryptString(byte[] key32, String plaintext) {
         return encrypt(key32, plaintext.getBytes(StandardCharsets.UTF_8));
     }
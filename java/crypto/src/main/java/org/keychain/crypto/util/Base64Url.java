@@ -1,18 +1,155 @@
 package org.keychain.crypto.util;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Base64;
 
 public final class Base64Url {
-    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
     private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final byte[] ALPHABET =
+        "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] DECODE = new byte[128];
+
+    static {
+        Arrays.fill(DECODE, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DECODE[ALPHABET[i]] = (byte) i;
+        }
+    }
 
     private Base64Url() {}
 
     public static String encode(byte[] data) {
-        return ENCODER.encodeToString(data);
+        return encode(data, 0, data.length);
+    }
+
+    public static String encode(byte[] data, int offset, int length) {
+        checkRange(data.length, offset, length);
+        byte[] out = new byte[encodedLength(length)];
+        encodeTo(data, offset, length, out);
+        return new String(out, StandardCharsets.ISO_8859_1);
+    }
+
+    public static StringBuilder encode(byte[] data, int offset, int length, StringBuilder out) {
+        out.ensureCapacity(out.length() + encodedLength(length));
+        try {
+            encode(data, offset, length, (Appendable) out);
+            return out;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static <A extends Appendable> A encode(byte[] data, int offset, int length, A out) throws IOException {
+        checkRange(data.length, offset, length);
+        int end = offset + length - length % 3;
+        for (int i = offset; i < end; i += 3) {
+            int bits = (data[i] & 0xFF) << 16 | (data[i + 1] & 0xFF) << 8 | (data[i + 2] & 0xFF);
+            out.append((char) ALPHABET[bits >>> 18])
+                .append((char) ALPHABET[(bits >>> 12) & 0x3F])
+                .append((char) ALPHABET[(bits >>> 6) & 0x3F])
+                .append((char) ALPHABET[bits & 0x3F]);
+        }
+        int remaining = length % 3;
+        if (remaining == 1) {
+            int bits = (data[end] & 0xFF) << 16;
+            out.append((char) ALPHABET[bits >>> 18]).append((char) ALPHABET[(bits >>> 12) & 0x3F]);
+        } else if (remaining == 2) {
+            int bits = (data[end] & 0xFF) << 16 | (data[end + 1] & 0xFF) << 8;
+            out.append((char) ALPHABET[bits >>> 18])
+                .append((char) ALPHABET[(bits >>> 12) & 0x3F])
+                .append((char) ALPHABET[(bits >>> 6) & 0x3F]);
+        }
+        return out;
+    }
+
+    public static String encode(ByteBuffer data) {
+        if (data.hasArray()) {
+            int offset = data.arrayOffset() + data.position();
+            int length = data.remaining();
+            data.position(data.limit());
+            return encode(data.array(), offset, length);
+        }
+        byte[] copy = new byte[data.remaining()];
+        data.get(copy);
+        return encode(copy);
+    }
+
+    public static int encodedLength(int length) {
+        return (length / 3) * 4 + ((length % 3) * 4 + 2) / 3;
     }
 
     public static byte[] decode(String data) {
         return DECODER.decode(data);
     }
+
+    public static int decodedLength(CharSequence data, int start, int end) {
+        while (end > start && data.charAt(end - 1) == '=') {
+            end--;
+        }
+        int chars = end - start;
+        if (chars % 4 == 1) {
+            throw new IllegalArgumentException("Invalid base64url length");
+        }
+        return (chars / 4) * 3 + (chars % 4 == 0 ? 0 : chars % 4 - 1);
+    }
+
+    public static int decode(CharSequence data, int start, int end, byte[] out, int offset) {
+        if (start < 0 || end > data.length() || start > end) {
+            throw new IndexOutOfBoundsException();
+        }
+        int length = decodedLength(data, start, end);
+        checkRange(out.length, offset, length);
+
+        int position = offset;
+        int buffer = 0;
+        int bits = 0;
+        int limit = start + encodedLength(length);
+        for (int i = start; i < limit; i++) {
+            char c = data.charAt(i);
+            int value = c < 128 ? DECODE[c] : -1;
+            if (value < 0) {
+                throw new IllegalArgumentException("Illegal base64url character");
+            }
+            buffer = (buffer << 6) | value;
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                out[position++] = (byte) (buffer >> bits);
+            }
+        }
+        return length;
+    }
+
+    private static void encodeTo(byte[] data, int offset, int length, byte[] out) {
+        int position = 0;
+        int end = offset + length - length % 3;
+        for (int i = offset; i < end; i += 3) {
+            int bits = (data[i] & 0xFF) << 16 | (data[i + 1] & 0xFF) << 8 | (data[i + 2] & 0xFF);
+            out[position++] = ALPHABET[bits >>> 18];
+            out[position++] = ALPHABET[(bits >>> 12) & 0x3F];
+            out[position++] = ALPHABET[(bits >>> 6) & 0x3F];
+            out[position++] = ALPHABET[bits & 0x3F];
+        }
+        int remaining = length % 3;
+        if (remaining == 1) {
+            int bits = (data[end] & 0xFF) << 16;
+            out[position++] = ALPHABET[bits >>> 18];
+            out[position] = ALPHABET[(bits >>> 12) & 0x3F];
+        } else if (remaining == 2) {
+            int bits = (data[end] & 0xFF) << 16 | (data[end + 1] & 0xFF) << 8;
+            out[position++] = ALPHABET[bits >>> 18];
+            out[position++] = ALPHABET[(bits >>> 12) & 0x3F];
+            out[position] = ALPHABET[(bits >>> 6) & 0x3F];
+        }
+    }
+
+    private static void checkRange(int size, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > size - length) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
 }
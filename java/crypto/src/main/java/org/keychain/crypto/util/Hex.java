@@ -1,34 +1,121 @@
 package org.keychain.crypto.util;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
 public final class Hex {
     private static final char[] HEX_ARRAY = "0123456789abcdef".toCharArray();
+    private static final byte[] DECODE = new byte[128];
+
+    static {
+        Arrays.fill(DECODE, (byte) -1);
+        for (int i = 0; i < 10; i++) {
+            DECODE['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++) {
+            DECODE['a' + i] = (byte) (10 + i);
+            DECODE['A' + i] = (byte) (10 + i);
+        }
+    }
 
     private Hex() {}
 
     public static String encode(byte[] bytes) {
-        char[] hexChars = new char[bytes.length * 2];
-        for (int i = 0; i < bytes.length; i++) {
-            int v = bytes[i] & 0xFF;
+        return encode(bytes, 0, bytes.length);
+    }
+
+    public static String encode(byte[] bytes, int offset, int length) {
+        checkRange(bytes.length, offset, length);
+        char[] hexChars = new char[length * 2];
+        for (int i = 0; i < length; i++) {
+            int v = bytes[offset + i] & 0xFF;
             hexChars[i * 2] = HEX_ARRAY[v >>> 4];
             hexChars[i * 2 + 1] = HEX_ARRAY[v & 0x0F];
         }
         return new String(hexChars);
     }
 
+    public static StringBuilder encode(byte[] bytes, int offset, int length, StringBuilder out) {
+        checkRange(bytes.length, offset, length);
+        out.ensureCapacity(out.length() + length * 2);
+        for (int i = offset; i < offset + length; i++) {
+            int v = bytes[i] & 0xFF;
+            out.append(HEX_ARRAY[v >>> 4]).append(HEX_ARRAY[v & 0x0F]);
+        }
+        return out;
+    }
+
+    public static <A extends Appendable> A encode(byte[] bytes, int offset, int length, A out) throws IOException {
+        checkRange(bytes.length, offset, length);
+        for (int i = offset; i < offset + length; i++) {
+            int v = bytes[i] & 0xFF;
+            out.append(HEX_ARRAY[v >>> 4]).append(HEX_ARRAY[v & 0x0F]);
+        }
+        return out;
+    }
+
+    public static StringBuilder encode(ByteBuffer bytes, StringBuilder out) {
+        out.ensureCapacity(out.length() + bytes.remaining() * 2);
+        while (bytes.hasRemaining()) {
+            int v = bytes.get() & 0xFF;
+            out.append(HEX_ARRAY[v >>> 4]).append(HEX_ARRAY[v & 0x0F]);
+        }
+        return out;
+    }
+
     public static byte[] decode(String hex) {
         if (hex.length() % 2 != 0) {
             throw new IllegalArgumentException("Hex string must have even length");
         }
-        int len = hex.length();
-        byte[] data = new byte[len / 2];
-        for (int i = 0; i < len; i += 2) {
-            int hi = Character.digit(hex.charAt(i), 16);
-            int lo = Character.digit(hex.charAt(i + 1), 16);
-            if (hi == -1 || lo == -1) {
-                throw new IllegalArgumentException("Invalid hex character");
-            }
-            data[i / 2] = (byte) ((hi << 4) + lo);
-        }
+        byte[] data = new byte[hex.length() / 2];
+        decode(hex, 0, hex.length(), data, 0);
         return data;
     }
+
+    public static int decode(CharSequence hex, int start, int end, byte[] out, int offset) {
+        if (start < 0 || end > hex.length() || start > end) {
+            throw new IndexOutOfBoundsException();
+        }
+        if ((end - start) % 2 != 0) {
+            throw new IllegalArgumentException("Hex string must have even length");
+        }
+        int length = (end - start) / 2;
+        checkRange(out.length, offset, length);
+        for (int i = 0; i < length; i++) {
+            out[offset + i] = decodeByte(hex, start + i * 2);
+        }
+        return length;
+    }
+
+    public static int decode(CharSequence hex, int start, int end, ByteBuffer out) {
+        if (start < 0 || end > hex.length() || start > end) {
+            throw new IndexOutOfBoundsException();
+        }
+        if ((end - start) % 2 != 0) {
+            throw new IllegalArgumentException("Hex string must have even length");
+        }
+        int length = (end - start) / 2;
+        for (int i = 0; i < length; i++) {
+            out.put(decodeByte(hex, start + i * 2));
+        }
+        return length;
+    }
+
+    private static byte decodeByte(CharSequence hex, int index) {
+        char c1 = hex.charAt(index);
+        char c2 = hex.charAt(index + 1);
+        int hi = c1 < 128 ? DECODE[c1] : -1;
+        int lo = c2 < 128 ? DECODE[c2] : -1;
+        if ((hi | lo) < 0) {
+            throw new IllegalArgumentException("Invalid hex character");
+        }
+        return (byte) ((hi << 4) | lo);
+    }
+
+    private static void checkRange(int size, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > size - length) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
 }
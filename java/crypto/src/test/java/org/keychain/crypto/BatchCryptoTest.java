@@ -0,0 +1,96 @@
+package org.keychain.crypto;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keychain.crypto.util.Hex;
+
+class BatchCryptoTest {
+    private ExecutorService executor;
+    private KeymasterCryptoImpl crypto;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        KeymasterCryptoOptions options = new KeymasterCryptoOptions();
+        options.executor = executor;
+        options.batchChunkSize = 3;
+        crypto = new KeymasterCryptoImpl(options);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void signsAndVerifiesInOrder() {
+        JwkPair pair = crypto.generateJwk(privateKey(21));
+        JwkPair other = crypto.generateJwk(privateKey(22));
+        List<String> hashes = new ArrayList<>();
+        for (int i = 0; i < 20; i += 1) {
+            hashes.add(crypto.hashMessage("message " + i));
+        }
+
+        List<String> signatures = crypto.signHashes(hashes, crypto.signingKey(pair.privateJwk));
+        List<VerifyRequest> requests = new ArrayList<>();
+        for (int i = 0; i < hashes.size(); i += 1) {
+            assertEquals(crypto.signHash(hashes.get(i), pair.privateJwk), signatures.get(i));
+            requests.add(new VerifyRequest(hashes.get(i), signatures.get(i), i % 3 == 0 ? other.publicJwk : pair.publicJwk));
+        }
+        requests.add(null);
+        requests.add(new VerifyRequest(hashes.get(0), "zz", pair.publicJwk));
+
+        List<Boolean> results = crypto.verifySigs(requests);
+        assertEquals(requests.size(), results.size());
+        for (int i = 0; i < hashes.size(); i += 1) {
+            assertEquals(i % 3 != 0, results.get(i));
+        }
+        assertEquals(false, results.get(hashes.size()));
+        assertEquals(false, results.get(hashes.size() + 1));
+    }
+
+    @Test
+    void encryptsAndDecryptsBatches() {
+        JwkPair sender = crypto.generateJwk(privateKey(23));
+        JwkPair receiver = crypto.generateJwk(privateKey(24));
+        List<byte[]> messages = new ArrayList<>();
+        for (int i = 0; i < 10; i += 1) {
+            messages.add(("payload " + i).getBytes(StandardCharsets.UTF_8));
+        }
+
+        List<String> ciphertexts = crypto.encryptBytes(receiver.publicJwk, crypto.signingKey(sender.privateJwk), messages);
+        List<byte[]> plaintexts = crypto.decryptBytes(sender.publicJwk, crypto.signingKey(receiver.privateJwk), ciphertexts);
+
+        for (int i = 0; i < messages.size(); i += 1) {
+            assertArrayEquals(messages.get(i), plaintexts.get(i));
+        }
+    }
+
+    @Test
+    void propagatesItemFailures() {
+        SigningKey key = crypto.signingKey(crypto.generateJwk(privateKey(25)).privateJwk);
+        List<String> hashes = new ArrayList<>();
+        for (int i = 0; i < 10; i += 1) {
+            hashes.add(Hex.encode(new byte[32]));
+        }
+        hashes.set(7, "xyz");
+
+        assertThrows(IllegalArgumentException.class, () -> crypto.signHashes(hashes, key));
+    }
+
+    private static byte[] privateKey(int value) {
+        byte[] priv = new byte[32];
+        priv[31] = (byte) value;
+        return priv;
+    }
+}
@@ -0,0 +1,132 @@
+package org.keychain.crypto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.keychain.crypto.util.Hex;
+
+class CanonicalJsonTest {
+    private static final String[] SAMPLES = {
+        "", "a", "été", "€", "😀", "\"quoted\"", "back\\slash", "\b\f\n\r\t",
+        "\u0000\u001f\u007f", "</script>", "  ", "\ud800", "x\udc00y", "￿"
+    };
+
+    @Test
+    void streamingHashMatchesStringCanonicalizer() {
+        Random random = new Random(8785);
+        for (int i = 0; i < 500; i++) {
+            Map<String, Object> value = randomObject(random, 0);
+            assertSameHash(value);
+        }
+    }
+
+    @Test
+    void numbersMatchStringCanonicalizer() {
+        List<Object> numbers = new ArrayList<>();
+        numbers.add(0);
+        numbers.add(-0.0);
+        numbers.add(1.0);
+        numbers.add(1e21);
+        numbers.add(1e-7);
+        numbers.add(123456789.123);
+        numbers.add(0.1f);
+        numbers.add(Integer.MIN_VALUE);
+        numbers.add((1L << 53) - 1);
+        numbers.add(1L << 53);
+        numbers.add(Long.MAX_VALUE);
+        numbers.add(new BigDecimal("1.50"));
+        numbers.add(new BigDecimal("1E+3"));
+        numbers.add(Double.MIN_VALUE);
+        numbers.add(Double.MAX_VALUE);
+        assertSameHash(numbers);
+    }
+
+    @Test
+    void treeAndPojoInputsHashAlike() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode tree = mapper.readTree("{\"b\":[1,2.5,\"x\"],\"a\":{\"d\":true,\"c\":null}}");
+        Object pojo = mapper.treeToValue(tree, Object.class);
+
+        assertEquals(Hex.encode(CanonicalJson.sha256(tree)), Hex.encode(CanonicalJson.sha256(pojo)));
+        assertSameHash(pojo);
+    }
+
+    @Test
+    void rejectsScalarsAndNonFiniteNumbers() {
+        assertThrows(IllegalArgumentException.class, () -> CanonicalJson.sha256(null));
+        assertThrows(IllegalArgumentException.class, () -> CanonicalJson.sha256("text"));
+        assertThrows(IllegalArgumentException.class, () -> CanonicalJson.sha256(List.of(Double.NaN)));
+
+        // A failed call must not leave partial state behind for the next one.
+        assertSameHash(Map.of("a", 1));
+    }
+
+    private static void assertSameHash(Object value) {
+        String expected = Hashing.sha256Hex(CanonicalJson.canonicalize(value));
+        assertEquals(expected, Hex.encode(CanonicalJson.sha256(value)));
+        assertEquals(expected, Hashing.hashCanonicalJson(value));
+    }
+
+    private static Map<String, Object> randomObject(Random random, int depth) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        int size = random.nextInt(6);
+        for (int i = 0; i < size; i++) {
+            map.put(randomString(random), randomValue(random, depth + 1));
+        }
+        return map;
+    }
+
+    private static Object randomValue(Random random, int depth) {
+        int kind = random.nextInt(depth > 3 ? 9 : 11);
+        switch (kind) {
+            case 0:
+                return null;
+            case 1:
+                return random.nextBoolean();
+            case 2:
+                return random.nextInt();
+            case 3:
+                return random.nextLong();
+            case 4:
+                return random.nextDouble() * Math.pow(10, random.nextInt(60) - 30);
+            case 5:
+                return random.nextFloat();
+            case 6:
+                return BigDecimal.valueOf(random.nextInt(100000), random.nextInt(6));
+            case 7:
+            case 8:
+                return randomString(random);
+            case 9:
+                return randomObject(random, depth);
+            default:
+                List<Object> list = new ArrayList<>();
+                int size = random.nextInt(5);
+                for (int i = 0; i < size; i++) {
+                    list.add(randomValue(random, depth + 1));
+                }
+                return list;
+        }
+    }
+
+    private static String randomString(Random random) {
+        StringBuilder sb = new StringBuilder();
+        int parts = random.nextInt(4);
+        for (int i = 0; i < parts; i++) {
+            if (random.nextBoolean()) {
+                sb.append(SAMPLES[random.nextInt(SAMPLES.length)]);
+            } else {
+                sb.append((char) random.nextInt(0x10000));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,78 @@
+package org.keychain.crypto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class CanonicalSnapshotTest {
+    @Test
+    void hashMatchesCanonicalJson() {
+        Map<String, Object> value = sample();
+        CanonicalSnapshot snapshot = CanonicalSnapshot.of(value);
+
+        assertEquals(Hashing.hashCanonicalJson(value), snapshot.hash());
+        assertEquals(snapshot.hash(), Hashing.hashCanonicalJson(snapshot));
+    }
+
+    @Test
+    void withoutMatchesHashOfEditedCopy() {
+        Map<String, Object> value = sample();
+        CanonicalSnapshot snapshot = CanonicalSnapshot.of(value);
+
+        Map<String, Object> edited = new LinkedHashMap<>(value);
+        edited.remove("signature");
+
+        CanonicalSnapshot unsigned = snapshot.without("signature");
+        assertEquals(Hashing.hashCanonicalJson(edited), unsigned.hash());
+        assertFalse(unsigned.has("signature"));
+        assertTrue(snapshot.has("signature"));
+        assertSame(unsigned, unsigned.without("signature", "missing"));
+    }
+
+    @Test
+    void withReplacesFieldWithoutTouchingOriginal() {
+        CanonicalSnapshot snapshot = CanonicalSnapshot.of(sample());
+        String before = snapshot.hash();
+
+        CanonicalSnapshot changed = snapshot.with("type", "update");
+        assertNotEquals(before, changed.hash());
+        assertEquals(before, CanonicalSnapshot.of(sample()).hash());
+        assertEquals(snapshot, changed.with("type", "create"));
+        assertEquals(snapshot.without("type"), changed.with("type", null));
+    }
+
+    @Test
+    void snapshotIsDetachedFromSource() {
+        Map<String, Object> value = sample();
+        CanonicalSnapshot snapshot = CanonicalSnapshot.of(value);
+        value.put("type", "mutated");
+
+        assertEquals(CanonicalSnapshot.of(sample()), snapshot);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> roundTrip = snapshot.toValue(Map.class);
+        assertEquals("create", roundTrip.get("type"));
+    }
+
+    @Test
+    void rejectsNonObjects() {
+        assertThrows(IllegalArgumentException.class, () -> CanonicalSnapshot.of(null));
+        assertThrows(IllegalArgumentException.class, () -> CanonicalSnapshot.of(List.of(1, 2)));
+        assertThrows(IllegalArgumentException.class, () -> CanonicalSnapshot.of("text"));
+    }
+
+    private static Map<String, Object> sample() {
+        Map<String, Object> value = new LinkedHashMap<>();
+        value.put("type", "create");
+        value.put("data", Map.of("b", List.of(1, 2.5, "x"), "a", true));
+        value.put("signature", Map.of("hash", "00", "value", "11"));
+        return value;
+    }
+}
@@ -0,0 +1,205 @@
+package org.keychain.crypto;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class KeymasterCryptoDefaultsTest {
+    private final KeymasterCryptoImpl impl = new KeymasterCryptoImpl();
+    private final KeymasterCrypto legacy = new LegacyCrypto(impl);
+
+    @Test
+    void generatesJwksThroughGenerateJwk() {
+        List<JwkPair> pairs = legacy.generateJwks(Arrays.asList(privateKey(1), privateKey(2)));
+
+        assertEquals(2, pairs.size());
+        assertEquals(impl.generateJwk(privateKey(1)).publicJwk.x, pairs.get(0).publicJwk.x);
+        assertEquals(impl.generateJwk(privateKey(2)).publicJwk.x, pairs.get(1).publicJwk.x);
+        assertThrows(IllegalArgumentException.class, () -> legacy.generateJwks(null));
+    }
+
+    @Test
+    void verifiesThroughPublicJwk() {
+        JwkPair pair = impl.generateJwk(privateKey(3));
+        String hash = impl.hashMessage("verify");
+        String sig = impl.signHash(hash, pair.privateJwk);
+        VerificationKey key = legacy.verificationKey(pair.publicJwk);
+
+        assertTrue(legacy.verifySig(hash, sig, key));
+        assertFalse(legacy.verifySig(impl.hashMessage("other"), sig, key));
+    }
+
+    @Test
+    void signsAndEncryptsThroughPrivateJwk() {
+        JwkPair sender = impl.generateJwk(privateKey(4));
+        JwkPair receiver = impl.generateJwk(privateKey(5));
+        SigningKey key = legacy.signingKey(sender.privateJwk);
+        String hash = impl.hashMessage("sign");
+
+        assertTrue(impl.verifySig(hash, legacy.signHash(hash, key), sender.publicJwk));
+        String ciphertext = legacy.encryptMessage(receiver.publicJwk, key, "hello");
+        assertEquals("hello", impl.decryptMessage(sender.publicJwk, receiver.privateJwk, ciphertext));
+        assertEquals("hello", legacy.decryptMessage(receiver.publicJwk, key, ciphertext));
+        assertArrayEquals(new byte[] {1, 2}, legacy.decryptBytes(
+            receiver.publicJwk, key, legacy.encryptBytes(receiver.publicJwk, key, new byte[] {1, 2})));
+
+        key.destroy();
+        assertThrows(IllegalStateException.class, () -> legacy.signHash(hash, key));
+    }
+
+    @Test
+    void batchesThroughSingleOperations() {
+        JwkPair sender = impl.generateJwk(privateKey(6));
+        JwkPair receiver = impl.generateJwk(privateKey(7));
+        SigningKey key = legacy.signingKey(sender.privateJwk);
+        List<String> hashes = Arrays.asList(impl.hashMessage("a"), impl.hashMessage("b"));
+
+        List<String> sigs = legacy.signHashes(hashes, key);
+        List<Boolean> valid = legacy.verifySigs(Arrays.asList(
+            new VerifyRequest(hashes.get(0), sigs.get(0), sender.publicJwk),
+            new VerifyRequest(hashes.get(0), sigs.get(1), sender.publicJwk),
+            new VerifyRequest(hashes.get(1), "not-a-signature", sender.publicJwk),
+            null
+        ));
+        assertEquals(Arrays.asList(true, false, false, false), valid);
+
+        List<String> ciphertexts = legacy.encryptBytes(
+            receiver.publicJwk, key, Arrays.asList(new byte[] {1}, new byte[] {2, 3}));
+        List<byte[]> plaintexts = legacy.decryptBytes(receiver.publicJwk, key, ciphertexts);
+        assertArrayEquals(new byte[] {1}, plaintexts.get(0));
+        assertArrayEquals(new byte[] {2, 3}, plaintexts.get(1));
+    }
+
+    @Test
+    void streamsInImplementationFormat() throws Exception {
+        JwkPair sender = impl.generateJwk(privateKey(8));
+        JwkPair receiver = impl.generateJwk(privateKey(9));
+        byte[] plaintext = new byte[XChaCha20Stream.SEGMENT_SIZE + 5];
+        Arrays.fill(plaintext, (byte) 7);
+
+        ByteArrayOutputStream ciphertext = new ByteArrayOutputStream();
+        try (OutputStream out = legacy.encryptStream(receiver.publicJwk, sender.privateJwk, ciphertext)) {
+            out.write(plaintext);
+        }
+        try (InputStream in = impl.decryptStream(
+            sender.publicJwk, receiver.privateJwk, new ByteArrayInputStream(ciphertext.toByteArray()))) {
+            assertArrayEquals(plaintext, in.readAllBytes());
+        }
+
+        ciphertext.reset();
+        try (OutputStream out = impl.encryptStream(receiver.publicJwk, sender.privateJwk, ciphertext)) {
+            out.write(plaintext);
+        }
+        try (InputStream in = legacy.decryptStream(
+            sender.publicJwk, receiver.privateJwk, new ByteArrayInputStream(ciphertext.toByteArray()))) {
+            assertArrayEquals(plaintext, in.readAllBytes());
+        }
+    }
+
+    private static byte[] privateKey(int seed) {
+        byte[] key = new byte[32];
+        Arrays.fill(key, (byte) seed);
+        return key;
+    }
+
+    /**
+     * Implements only the methods that predate the default ones, the way an external provider would.
+     */
+    private static final class LegacyCrypto implements KeymasterCrypto {
+        private final KeymasterCrypto delegate;
+
+        private LegacyCrypto(KeymasterCrypto delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String generateMnemonic() {
+            return delegate.generateMnemonic();
+        }
+
+        @Override
+        public HdKey generateHdKey(String mnemonic) {
+            return delegate.generateHdKey(mnemonic);
+        }
+
+        @Override
+        public HdKey generateHdKeyJson(HdKeyJson json) {
+            return delegate.generateHdKeyJson(json);
+        }
+
+        @Override
+        public JwkPair generateJwk(byte[] privateKeyBytes) {
+            return delegate.generateJwk(privateKeyBytes);
+        }
+
+        @Override
+        public JwkPair generateRandomJwk() {
+            return delegate.generateRandomJwk();
+        }
+
+        @Override
+        public byte[] convertJwkToCompressedBytes(JwkPublic jwk) {
+            return delegate.convertJwkToCompressedBytes(jwk);
+        }
+
+        @Override
+        public String hashMessage(String msg) {
+            return delegate.hashMessage(msg);
+        }
+
+        @Override
+        public String hashMessage(byte[] bytes) {
+            return delegate.hashMessage(bytes);
+        }
+
+        @Override
+        public String hashJson(Object obj) {
+            return delegate.hashJson(obj);
+        }
+
+        @Override
+        public String signHash(String msgHashHex, JwkPrivate privateJwk) {
+            return delegate.signHash(msgHashHex, privateJwk);
+        }
+
+        @Override
+        public boolean verifySig(String msgHashHex, String sigCompactHex, JwkPublic publicJwk) {
+            return delegate.verifySig(msgHashHex, sigCompactHex, publicJwk);
+        }
+
+        @Override
+        public String encryptBytes(JwkPublic pubKey, JwkPrivate privKey, byte[] data) {
+            return delegate.encryptBytes(pubKey, privKey, data);
+        }
+
+        @Override
+        public byte[] decryptBytes(JwkPublic pubKey, JwkPrivate privKey, String ciphertextB64Url) {
+            return delegate.decryptBytes(pubKey, privKey, ciphertextB64Url);
+        }
+
+        @Override
+        public String encryptMessage(JwkPublic pubKey, JwkPrivate privKey, String message) {
+            return delegate.encryptMessage(pubKey, privKey, message);
+        }
+
+        @Override
+        public String decryptMessage(JwkPublic pubKey, JwkPrivate privKey, String ciphertextB64Url) {
+            return delegate.decryptMessage(pubKey, privKey, ciphertextB64Url);
+        }
+
+        @Override
+        public String generateRandomSalt() {
+            return delegate.generateRandomSalt();
+        }
+    }
+}
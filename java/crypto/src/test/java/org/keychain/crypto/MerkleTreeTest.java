@@ -0,0 +1,85 @@
+package org.keychain.crypto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class MerkleTreeTest {
+    @Test
+    void everyPathLeadsToRoot() {
+        for (int size = 1; size <= 17; size++) {
+            List<String> leaves = leaves(size);
+            MerkleTree tree = MerkleTree.of(leaves);
+            for (int i = 0; i < size; i++) {
+                assertEquals(tree.root(), MerkleTree.rootFromPath(leaves.get(i), i, size, tree.path(i)), size + "/" + i);
+            }
+        }
+    }
+
+    @Test
+    void singleLeafRootIsDomainSeparated() {
+        String leaf = Hashing.sha256Hex("only");
+        MerkleTree tree = MerkleTree.of(List.of(leaf));
+
+        assertEquals(0, tree.path(0).size());
+        assertNotEquals(leaf, tree.root());
+    }
+
+    @Test
+    void wrongLeafOrIndexChangesRoot() {
+        List<String> leaves = leaves(6);
+        MerkleTree tree = MerkleTree.of(leaves);
+
+        assertNotEquals(tree.root(), MerkleTree.rootFromPath(leaves.get(1), 2, 6, tree.path(2)));
+        assertNotEquals(tree.root(), MerkleTree.rootFromPath(leaves.get(2), 3, 6, tree.path(2)));
+        assertThrows(IllegalArgumentException.class, () -> MerkleTree.rootFromPath(leaves.get(2), 8, 6, tree.path(2)));
+    }
+
+    @Test
+    void unpairedLeafCannotBeProvenPastTheEnd() {
+        List<String> leaves = leaves(3);
+        MerkleTree tree = MerkleTree.of(leaves);
+
+        assertEquals(1, tree.path(2).size());
+        assertThrows(IllegalArgumentException.class, () -> MerkleTree.rootFromPath(leaves.get(2), 3, 3, tree.path(2)));
+        assertThrows(IllegalArgumentException.class, () -> MerkleTree.rootFromPath(leaves.get(2), 3, 4, tree.path(2)));
+    }
+
+    @Test
+    void repeatedLastLeafChangesRoot() {
+        List<String> leaves = leaves(3);
+        List<String> repeated = new ArrayList<>(leaves);
+        repeated.add(leaves.get(2));
+
+        assertNotEquals(MerkleTree.of(leaves).root(), MerkleTree.of(repeated).root());
+    }
+
+    @Test
+    void pathLengthMustMatchCount() {
+        List<String> leaves = leaves(5);
+        MerkleTree tree = MerkleTree.of(leaves);
+        List<String> longer = new ArrayList<>(tree.path(4));
+        longer.add(tree.path(0).get(0));
+
+        assertThrows(IllegalArgumentException.class, () -> MerkleTree.rootFromPath(leaves.get(4), 4, 5, longer));
+        assertThrows(IllegalArgumentException.class, () -> MerkleTree.rootFromPath(leaves.get(0), 0, 5, List.of()));
+        assertThrows(IllegalArgumentException.class, () -> MerkleTree.rootFromPath(leaves.get(0), 0, 0, List.of()));
+    }
+
+    @Test
+    void rejectsEmptyBatch() {
+        assertThrows(IllegalArgumentException.class, () -> MerkleTree.of(List.of()));
+    }
+
+    private static List<String> leaves(int size) {
+        List<String> leaves = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            leaves.add(Hashing.sha256Hex("leaf " + i));
+        }
+        return leaves;
+    }
+}
@@ -1,11 +1,14 @@
 package org.keychain.crypto;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.InputStream;
+import javax.crypto.SecretKey;
 import org.junit.jupiter.api.Test;
 
 class MnemonicEncryptionTest {
@@ -20,6 +23,24 @@ class MnemonicEncryptionTest {
         assertEquals(mnemonic, dec);
     }
 
+    @Test
+    void derivedKeyDecryptsAndReencrypts() {
+        String mnemonic = "abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon about";
+        String passphrase = "passphrase";
+
+        EncryptedMnemonic enc = MnemonicEncryption.encrypt(mnemonic, passphrase);
+        SecretKey key = MnemonicEncryption.deriveKey(passphrase, enc);
+        assertEquals(mnemonic, MnemonicEncryption.decrypt(enc, key));
+
+        EncryptedMnemonic again = MnemonicEncryption.encrypt(mnemonic, key, enc);
+        assertEquals(enc.salt, again.salt);
+        assertNotEquals(enc.iv, again.iv);
+        assertEquals(mnemonic, MnemonicEncryption.decrypt(again, passphrase));
+
+        SecretKey wrong = MnemonicEncryption.deriveKey("wrong", enc);
+        assertThrows(IllegalStateException.class, () -> MnemonicEncryption.decrypt(enc, wrong));
+    }
+
     @Test
     void matchesVector() throws Exception {
         ObjectMapper mapper = new ObjectMapper();
@@ -0,0 +1,86 @@
+package org.keychain.crypto;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+import org.bouncycastle.asn1.sec.SECNamedCurves;
+import org.bouncycastle.asn1.x9.X9ECParameters;
+import org.bouncycastle.crypto.params.ECDomainParameters;
+import org.bouncycastle.crypto.params.ECPublicKeyParameters;
+import org.bouncycastle.crypto.signers.ECDSASigner;
+import org.bouncycastle.math.ec.ECPoint;
+import org.bouncycastle.util.BigIntegers;
+import org.junit.jupiter.api.Test;
+import org.keychain.crypto.util.Hex;
+
+class Secp256k1DomainTest {
+    private static final X9ECParameters GENERIC = SECNamedCurves.getByName("secp256k1");
+
+    @Test
+    void customCurveMatchesGenericCurve() {
+        assertEquals(GENERIC.getCurve().getField(), Secp256k1Domain.PARAMS.getCurve().getField());
+        assertEquals(GENERIC.getN(), Secp256k1Domain.PARAMS.getN());
+        assertArrayEquals(GENERIC.getG().getEncoded(false), Secp256k1Domain.PARAMS.getG().getEncoded(false));
+    }
+
+    @Test
+    void publicKeysMatchGenericCurve() {
+        Random random = new Random(11);
+        for (int i = 0; i < 64; i += 1) {
+            BigInteger d = randomScalar(random);
+            byte[] expected = GENERIC.getG().multiply(d).normalize().getEncoded(false);
+            assertArrayEquals(expected, Secp256k1Domain.publicPoint(d).getEncoded(false));
+
+            JwkPair pair = Secp256k1Jwk.fromPrivateKey(BigIntegers.asUnsignedByteArray(32, d));
+            assertArrayEquals(expected, Secp256k1Domain.decodePoint(pair.publicJwk).getEncoded(false));
+        }
+    }
+
+    @Test
+    void sharedSecretsMatchGenericCurve() {
+        Random random = new Random(12);
+        for (int i = 0; i < 32; i += 1) {
+            JwkPair a = Secp256k1Jwk.fromPrivateKey(BigIntegers.asUnsignedByteArray(32, randomScalar(random)));
+            BigInteger d = randomScalar(random);
+            JwkPair b = Secp256k1Jwk.fromPrivateKey(BigIntegers.asUnsignedByteArray(32, d));
+
+            ECPoint q = GENERIC.getCurve().decodePoint(Secp256k1Domain.decodePoint(a.publicJwk).getEncoded(false));
+            byte[] expected = q.multiply(d).normalize().getEncoded(true);
+            assertArrayEquals(expected, Secp256k1Ecdh.sharedSecretCompressed(a.publicJwk, b.privateJwk));
+        }
+    }
+
+    @Test
+    void signaturesVerifyOnGenericCurve() {
+        Random random = new Random(13);
+        ECDomainParameters generic = new ECDomainParameters(GENERIC.getCurve(), GENERIC.getG(), GENERIC.getN(), GENERIC.getH());
+        for (int i = 0; i < 32; i += 1) {
+            JwkPair pair = Secp256k1Jwk.fromPrivateKey(BigIntegers.asUnsignedByteArray(32, randomScalar(random)));
+            byte[] hash = new byte[32];
+            random.nextBytes(hash);
+            byte[] sig = Hex.decode(Secp256k1Sign.signHash(Hex.encode(hash), pair.privateJwk));
+
+            ECPoint q = GENERIC.getCurve().decodePoint(Secp256k1Domain.decodePoint(pair.publicJwk).getEncoded(false));
+            ECDSASigner verifier = new ECDSASigner();
+            verifier.init(false, new ECPublicKeyParameters(q, generic));
+            assertTrue(verifier.verifySignature(
+                hash,
+                new BigInteger(1, Arrays.copyOfRange(sig, 0, 32)),
+                new BigInteger(1, Arrays.copyOfRange(sig, 32, 64))
+            ));
+            assertTrue(Secp256k1Sign.verifySig(Hex.encode(hash), Hex.encode(sig), pair.publicJwk));
+        }
+    }
+
+    private static BigInteger randomScalar(Random random) {
+        BigInteger d;
+        do {
+            d = new BigInteger(256, random);
+        } while (d.signum() == 0 || d.compareTo(GENERIC.getN()) >= 0);
+        return d;
+    }
+}
@@ -2,9 +2,17 @@ package org.keychain.crypto;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import org.junit.jupiter.api.Test;
+import org.keychain.crypto.util.Base64Url;
 
 class Secp256k1JwkTest {
     @Test
@@ -34,4 +42,63 @@ class Secp256k1JwkTest {
         assertEquals(33, compressed.length);
         assertTrue(compressed[0] == 0x02 || compressed[0] == 0x03);
     }
+
+    @Test
+    void publicKeyRoundTripsThroughCompressedEncoding() {
+        byte[] priv = new byte[32];
+        priv[31] = 0x07;
+        JwkPair pair = Secp256k1Jwk.fromPrivateKey(priv);
+
+        JwkPublic decoded = Secp256k1Jwk.fromPublicKey(Secp256k1Jwk.toCompressed(pair.publicJwk));
+        assertEquals(pair.publicJwk.x, decoded.x);
+        assertEquals(pair.publicJwk.y, decoded.y);
+        assertEquals("secp256k1", decoded.crv);
+
+        byte[] invalid = new byte[33];
+        invalid[0] = 0x02;
+        invalid[32] = 0x05;
+        assertThrows(IllegalArgumentException.class, () -> Secp256k1Jwk.fromPublicKey(invalid));
+        assertThrows(IllegalArgumentException.class, () -> Secp256k1Jwk.fromPublicKey(new byte[10]));
+    }
+
+    @Test
+    void thumbprintHashesCanonicalMembers() {
+        byte[] priv = new byte[32];
+        priv[31] = 0x01;
+        JwkPair pair = Secp256k1Jwk.fromPrivateKey(priv);
+
+        Map<String, Object> members = new HashMap<>();
+        members.put("kty", "EC");
+        members.put("crv", "secp256k1");
+        members.put("x", pair.publicJwk.x);
+        members.put("y", pair.publicJwk.y);
+        String expected = Base64Url.encode(Hashing.sha256(
+            CanonicalJson.canonicalize(members).getBytes(StandardCharsets.UTF_8)
+        ));
+
+        assertEquals(expected, Secp256k1Jwk.thumbprint(pair.publicJwk));
+        assertEquals(expected, Secp256k1Jwk.thumbprint(pair.privateJwk));
+    }
+
+    @Test
+    void batchGenerationMatchesSingleGeneration() {
+        Random random = new Random(5);
+        List<byte[]> keys = new ArrayList<>();
+        for (int i = 0; i < 20; i += 1) {
+            byte[] priv = new byte[32];
+            random.nextBytes(priv);
+            priv[0] &= 0x7F;
+            keys.add(priv);
+        }
+
+        List<JwkPair> pairs = Secp256k1Jwk.fromPrivateKeys(keys);
+        assertEquals(keys.size(), pairs.size());
+        for (int i = 0; i < keys.size(); i += 1) {
+            JwkPair expected = Secp256k1Jwk.fromPrivateKey(keys.get(i));
+            assertEquals(expected.publicJwk.x, pairs.get(i).publicJwk.x);
+            assertEquals(expected.publicJwk.y, pairs.get(i).publicJwk.y);
+            assertEquals(expected.privateJwk.d, pairs.get(i).privateJwk.d);
+        }
+        assertTrue(Secp256k1Jwk.fromPrivateKeys(List.of()).isEmpty());
+    }
 }
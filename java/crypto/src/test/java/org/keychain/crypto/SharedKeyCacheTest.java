@@ -0,0 +1,166 @@
+package org.keychain.crypto;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+
+class SharedKeyCacheTest {
+    private static final byte[] ZERO = new byte[32];
+
+    @Test
+    void reusesSharedKeyForSamePair() throws Exception {
+        SharedKeyCache cache = new SharedKeyCache(4, 60_000);
+        JwkPublic pub = pub("a");
+        AtomicInteger derivations = new AtomicInteger();
+        Supplier<byte[]> derive = () -> {
+            derivations.incrementAndGet();
+            return key(1);
+        };
+
+        XChaCha20Poly1305 first = cache.cipher(pub, new byte[] {1}, derive);
+        XChaCha20Poly1305 second = cache.cipher(pub("a"), new byte[] {1}, derive);
+        XChaCha20Poly1305 other = cache.cipher(pub, new byte[] {2}, derive);
+
+        assertNotSame(first, second);
+        assertNotSame(first, other);
+        assertEquals(2, derivations.get());
+
+        byte[] nonce = new byte[XChaCha20Poly1305.NONCE_LENGTH];
+        byte[] ciphertext = first.encrypt(nonce, new byte[] {1, 2, 3});
+        first.destroy();
+        assertTrue(first.isDestroyed());
+        assertThrows(IllegalStateException.class, () -> first.encrypt(nonce, new byte[] {1}));
+        assertArrayEquals(new byte[] {1, 2, 3}, second.decrypt(nonce, ciphertext));
+        assertArrayEquals(new byte[] {1, 2, 3}, cache.cipher(pub, new byte[] {1}, derive).decrypt(nonce, ciphertext));
+        assertEquals(2, derivations.get());
+    }
+
+    @Test
+    void wipesEvictedAndClearedKeys() {
+        SharedKeyCache cache = new SharedKeyCache(2, 60_000);
+        List<byte[]> keys = new ArrayList<>();
+        for (int i = 0; i < 3; i += 1) {
+            byte[] key = key(i + 1);
+            keys.add(key);
+            cache.cipher(pub("p" + i), new byte[] {1}, () -> key);
+        }
+
+        assertEquals(2, cache.size());
+        assertArrayEquals(ZERO, keys.get(0));
+        assertEquals(3, keys.get(2)[0]);
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertArrayEquals(ZERO, keys.get(1));
+        assertArrayEquals(ZERO, keys.get(2));
+    }
+
+    @Test
+    void clearsEntriesOfOnePrivateKey() {
+        SharedKeyCache cache = new SharedKeyCache(8, 60_000);
+        byte[] first = key(1);
+        byte[] second = key(2);
+        byte[] other = key(3);
+        cache.cipher(pub("a"), new byte[] {1}, () -> first);
+        cache.cipher(pub("b"), new byte[] {1}, () -> second);
+        cache.cipher(pub("a"), new byte[] {2}, () -> other);
+
+        cache.clear(new byte[] {1});
+        assertEquals(1, cache.size());
+        assertArrayEquals(ZERO, first);
+        assertArrayEquals(ZERO, second);
+        assertEquals(3, other[0]);
+        cache.clear(new byte[] {1});
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void clearsCachedKeysOfPrivateJwk() {
+        KeymasterCryptoImpl crypto = new KeymasterCryptoImpl();
+        JwkPair sender = Secp256k1Jwk.fromPrivateKey(key(13));
+        JwkPair receiver = Secp256k1Jwk.fromPrivateKey(key(14));
+        String ciphertext = crypto.encryptMessage(receiver.publicJwk, sender.privateJwk, "hello");
+
+        crypto.clearCachedKeys(sender.privateJwk);
+        assertEquals("hello", crypto.decryptMessage(sender.publicJwk, receiver.privateJwk, ciphertext));
+        assertThrows(IllegalArgumentException.class, () -> crypto.clearCachedKeys(null));
+    }
+
+    @Test
+    void expiresEntries() throws InterruptedException {
+        SharedKeyCache cache = new SharedKeyCache(4, 1);
+        byte[] key = key(5);
+        XChaCha20Poly1305 first = cache.cipher(pub("a"), new byte[] {1}, () -> key);
+        Thread.sleep(5);
+        XChaCha20Poly1305 second = cache.cipher(pub("a"), new byte[] {1}, () -> key(5));
+
+        assertNotSame(first, second);
+        assertArrayEquals(ZERO, key);
+    }
+
+    @Test
+    void purgesExpiredEntriesOnAccess() throws InterruptedException {
+        SharedKeyCache cache = new SharedKeyCache(4, 1);
+        byte[] idle = key(9);
+        cache.cipher(pub("idle"), new byte[] {1}, () -> idle);
+        Thread.sleep(5);
+        cache.cipher(pub("other"), new byte[] {1}, () -> key(10));
+
+        assertArrayEquals(ZERO, idle);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void disabledCacheWipesDerivedKeyImmediately() {
+        SharedKeyCache cache = new SharedKeyCache(0, 60_000);
+        byte[] key = key(6);
+        cache.cipher(pub("a"), new byte[] {1}, () -> key);
+
+        assertEquals(0, cache.size());
+        assertArrayEquals(ZERO, key);
+    }
+
+    @Test
+    void cachedCipherRoundTrips() {
+        KeymasterCryptoImpl crypto = new KeymasterCryptoImpl();
+        JwkPair sender = Secp256k1Jwk.fromPrivateKey(key(7));
+        JwkPair receiver = Secp256k1Jwk.fromPrivateKey(key(8));
+
+        for (int i = 0; i < 3; i += 1) {
+            String ciphertext = crypto.encryptMessage(receiver.publicJwk, sender.privateJwk, "hello " + i);
+            assertEquals("hello " + i, crypto.decryptMessage(sender.publicJwk, receiver.privateJwk, ciphertext));
+            assertEquals("hello " + i, crypto.decryptMessage(sender.publicJwk, SigningKey.from(receiver.privateJwk), ciphertext));
+        }
+    }
+
+    @Test
+    void sizeAndTtlConstructorConfiguresCache() {
+        JwkPair sender = Secp256k1Jwk.fromPrivateKey(key(11));
+        JwkPair receiver = Secp256k1Jwk.fromPrivateKey(key(12));
+        KeymasterCryptoImpl uncached = new KeymasterCryptoImpl(0, 0);
+
+        String ciphertext = uncached.encryptMessage(receiver.publicJwk, sender.privateJwk, "hello");
+        assertEquals("hello", new KeymasterCryptoImpl(16, 60_000).decryptMessage(
+            sender.publicJwk, receiver.privateJwk, ciphertext));
+        assertThrows(IllegalArgumentException.class, () -> new KeymasterCryptoImpl(-1, 60_000));
+    }
+
+    private static JwkPublic pub(String x) {
+        return new JwkPublic("EC", "secp256k1", x, "y");
+    }
+
+    private static byte[] key(int value) {
+        byte[] key = new byte[32];
+        key[0] = (byte) value;
+        key[31] = (byte) value;
+        return key;
+    }
+}
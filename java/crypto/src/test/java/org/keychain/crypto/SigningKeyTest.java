@@ -0,0 +1,58 @@
+package org.keychain.crypto;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class SigningKeyTest {
+    private static final String HASH = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
+    @Test
+    void signaturesMatchJwkSigning() {
+        JwkPair pair = Secp256k1Jwk.fromPrivateKey(privateKey(7));
+        SigningKey key = SigningKey.from(pair.privateJwk);
+
+        String expected = Secp256k1Sign.signHash(HASH, pair.privateJwk);
+        assertEquals(expected, Secp256k1Sign.signHash(HASH, key));
+        assertEquals(expected, Secp256k1Sign.signHash(HASH, key));
+        assertTrue(Secp256k1Sign.verifySig(HASH, expected, key.publicJwk()));
+    }
+
+    @Test
+    void sharedSecretsMatchJwkEcdh() {
+        JwkPair sender = Secp256k1Jwk.fromPrivateKey(privateKey(8));
+        JwkPair receiver = Secp256k1Jwk.fromPrivateKey(privateKey(9));
+
+        assertArrayEquals(
+            Secp256k1Ecdh.sharedSecretCompressed(receiver.publicJwk, sender.privateJwk),
+            Secp256k1Ecdh.sharedSecretCompressed(receiver.publicJwk, SigningKey.from(sender.privateJwk))
+        );
+
+        KeymasterCrypto crypto = new KeymasterCryptoImpl();
+        String ciphertext = crypto.encryptMessage(receiver.publicJwk, SigningKey.from(sender.privateJwk), "hello");
+        assertEquals("hello", crypto.decryptMessage(sender.publicJwk, receiver.privateJwk, ciphertext));
+    }
+
+    @Test
+    void destroyedKeysCannotBeUsed() {
+        JwkPair pair = Secp256k1Jwk.fromPrivateKey(privateKey(10));
+        SigningKey key = SigningKey.from(pair.privateJwk);
+        assertFalse(key.isDestroyed());
+
+        key.destroy();
+
+        assertTrue(key.isDestroyed());
+        assertThrows(IllegalStateException.class, () -> Secp256k1Sign.signHash(HASH, key));
+        assertThrows(IllegalStateException.class, () -> Secp256k1Ecdh.sharedSecretCompressed(pair.publicJwk, key));
+    }
+
+    private static byte[] privateKey(int value) {
+        byte[] priv = new byte[32];
+        priv[31] = (byte) value;
+        return priv;
+    }
+}
@@ -0,0 +1,49 @@
+package org.keychain.crypto;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.keychain.crypto.util.Base64Url;
+
+class VerificationKeyTest {
+    private static final String HASH = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
+    @Test
+    void handlesAreCachedByCoordinates() {
+        JwkPair pair = Secp256k1Jwk.fromPrivateKey(privateKey(3));
+        JwkPublic copy = new JwkPublic(pair.publicJwk.kty, pair.publicJwk.crv, pair.publicJwk.x, pair.publicJwk.y);
+
+        assertSame(VerificationKey.from(pair.publicJwk), VerificationKey.from(copy));
+    }
+
+    @Test
+    void verifiesWithHandle() {
+        JwkPair pair = Secp256k1Jwk.fromPrivateKey(privateKey(4));
+        JwkPair other = Secp256k1Jwk.fromPrivateKey(privateKey(5));
+        String sig = Secp256k1Sign.signHash(HASH, pair.privateJwk);
+
+        assertTrue(Secp256k1Sign.verifySig(HASH, sig, VerificationKey.from(pair.publicJwk)));
+        assertFalse(Secp256k1Sign.verifySig(HASH, sig, VerificationKey.from(other.publicJwk)));
+        assertTrue(Secp256k1Sign.verifySig(HASH, sig, pair.publicJwk));
+    }
+
+    @Test
+    void rejectsPointsOffCurve() {
+        JwkPair pair = Secp256k1Jwk.fromPrivateKey(privateKey(6));
+        byte[] y = Base64Url.decode(pair.publicJwk.y);
+        y[31] ^= 1;
+        JwkPublic bad = new JwkPublic("EC", "secp256k1", pair.publicJwk.x, Base64Url.encode(y));
+
+        assertThrows(IllegalArgumentException.class, () -> VerificationKey.from(bad));
+        assertThrows(IllegalArgumentException.class, () -> VerificationKey.from(null));
+    }
+
+    private static byte[] privateKey(int value) {
+        byte[] priv = new byte[32];
+        priv[31] = (byte) value;
+        return priv;
+    }
+}
@@ -0,0 +1,108 @@
+package org.keychain.crypto;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.security.GeneralSecurityException;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.keychain.crypto.util.Hex;
+
+class XChaCha20Poly1305Test {
+    private static final XChaCha20Poly1305.Provider TINK = XChaCha20Poly1305.Provider.TINK;
+    private static final XChaCha20Poly1305.Provider JDK = XChaCha20Poly1305.Provider.JDK;
+
+    @Test
+    void hChaCha20MatchesDraftVector() {
+        byte[] key = Hex.decode("000102030405060708090a0b0c0d0e0f101112131415161718191a1b1c1d1e1f");
+        byte[] nonce = Hex.decode("000000090000004a0000000031415927");
+
+        assertEquals(
+            "82413b4227b27bfed30e42508a877d73a0f9e4d58a74a853c12ec41326d3ecdc",
+            Hex.encode(JdkXChaCha20Poly1305.hChaCha20(key, nonce))
+        );
+    }
+
+    @Test
+    void providersProduceIdenticalCiphertext() throws GeneralSecurityException {
+        Random random = new Random(42);
+        for (int size : new int[] {0, 1, 15, 16, 63, 64, 65, 1000, 70_000}) {
+            byte[] key = bytes(random, 32);
+            byte[] nonce = bytes(random, 24);
+            byte[] plaintext = bytes(random, size);
+
+            byte[] tink = XChaCha20Poly1305.create(key, TINK).encrypt(nonce, plaintext);
+            byte[] jdk = XChaCha20Poly1305.create(key, JDK).encrypt(nonce, plaintext);
+
+            assertArrayEquals(tink, jdk, "size " + size);
+            assertArrayEquals(plaintext, XChaCha20Poly1305.create(key, JDK).decrypt(nonce, tink));
+            assertArrayEquals(plaintext, XChaCha20Poly1305.create(key, TINK).decrypt(nonce, jdk));
+        }
+    }
+
+    @Test
+    void utilCiphertextDecryptsAcrossProviders() {
+        byte[] key = Hex.decode("021510bc0b4faf0c8aba1a69c27c06bb6253d546a4e40176d4c948068116b66b");
+        byte[] plaintext = "hello keymaster".getBytes();
+
+        String tink = XChaCha20Util.encrypt(XChaCha20Util.newCipher(key, TINK), plaintext);
+        String jdk = XChaCha20Util.encrypt(XChaCha20Util.newCipher(key, JDK), plaintext);
+
+        assertArrayEquals(plaintext, XChaCha20Util.decrypt(XChaCha20Util.newCipher(key, JDK), tink));
+        assertArrayEquals(plaintext, XChaCha20Util.decrypt(XChaCha20Util.newCipher(key, TINK), jdk));
+    }
+
+    @Test
+    void jdkEncryptsRepeatedlyWithFreshNonces() throws GeneralSecurityException {
+        Random random = new Random(11);
+        XChaCha20Poly1305 cipher = XChaCha20Poly1305.create(bytes(random, 32), JDK);
+        for (int i = 0; i < 3; i++) {
+            byte[] nonce = bytes(random, 24);
+            byte[] plaintext = bytes(random, 8 + i);
+            assertArrayEquals(plaintext, cipher.decrypt(nonce, cipher.encrypt(nonce, plaintext)));
+        }
+    }
+
+    @Test
+    void jdkRefusesToReuseNonceForEncryption() throws GeneralSecurityException {
+        Random random = new Random(13);
+        XChaCha20Poly1305 cipher = XChaCha20Poly1305.create(bytes(random, 32), JDK);
+        byte[] nonce = bytes(random, 24);
+        cipher.encrypt(nonce, new byte[8]);
+
+        assertThrows(GeneralSecurityException.class, () -> cipher.encrypt(nonce, new byte[8]));
+        cipher.encrypt(bytes(random, 24), new byte[8]);
+    }
+
+    @Test
+    void jdkDecryptsSameMessageRepeatedly() throws GeneralSecurityException {
+        Random random = new Random(17);
+        XChaCha20Poly1305 cipher = XChaCha20Poly1305.create(bytes(random, 32), JDK);
+        byte[] nonce = bytes(random, 24);
+        byte[] plaintext = bytes(random, 12);
+        byte[] sealed = cipher.encrypt(nonce, plaintext);
+
+        assertArrayEquals(plaintext, cipher.decrypt(nonce, sealed));
+        assertArrayEquals(plaintext, cipher.decrypt(nonce, sealed));
+    }
+
+    @Test
+    void jdkRejectsTamperedCiphertext() throws GeneralSecurityException {
+        Random random = new Random(7);
+        byte[] key = bytes(random, 32);
+        byte[] nonce = bytes(random, 24);
+        XChaCha20Poly1305 cipher = XChaCha20Poly1305.create(key, JDK);
+        byte[] sealed = cipher.encrypt(nonce, bytes(random, 40));
+        sealed[3] ^= 1;
+
+        assertThrows(GeneralSecurityException.class, () -> cipher.decrypt(nonce, sealed));
+        assertThrows(GeneralSecurityException.class, () -> cipher.decrypt(nonce, new byte[8]));
+    }
+
+    private static byte[] bytes(Random random, int length) {
+        byte[] out = new byte[length];
+        random.nextBytes(out);
+        return out;
+    }
+}
@@ -0,0 +1,121 @@
+package org.keychain.crypto;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.keychain.crypto.util.Hex;
+
+class XChaCha20StreamTest {
+    private static final byte[] KEY = Hex.decode("021510bc0b4faf0c8aba1a69c27c06bb6253d546a4e40176d4c948068116b66b");
+    private static final int SEGMENT = XChaCha20Stream.SEGMENT_SIZE;
+
+    @Test
+    void roundTripsAcrossSegmentBoundaries() throws IOException {
+        for (int size : new int[] {0, 1, SEGMENT - 1, SEGMENT, SEGMENT + 1, 3 * SEGMENT + 17}) {
+            byte[] plaintext = random(size);
+            byte[] ciphertext = encrypt(plaintext);
+
+            int segments = Math.max(1, (size + SEGMENT - 1) / SEGMENT);
+            assertEquals(XChaCha20Stream.HEADER_LENGTH + size + segments * XChaCha20Stream.TAG_LENGTH, ciphertext.length);
+            assertArrayEquals(plaintext, decrypt(ciphertext), "size " + size);
+        }
+    }
+
+    @Test
+    void encryptingInputStreamMatchesOutputStreamFormat() throws IOException {
+        byte[] plaintext = random(2 * SEGMENT + 5);
+        InputStream encrypting = XChaCha20Stream.encryptingInputStream(KEY, new ByteArrayInputStream(plaintext));
+        byte[] ciphertext = encrypting.readAllBytes();
+
+        assertArrayEquals(plaintext, decrypt(ciphertext));
+    }
+
+    @Test
+    void channelsRoundTrip() throws IOException {
+        byte[] plaintext = random(SEGMENT + 100);
+        ReadableByteChannel encrypted = XChaCha20Stream.encryptingChannel(
+            KEY, Channels.newChannel(new ByteArrayInputStream(plaintext)));
+        ReadableByteChannel decrypted = XChaCha20Stream.decryptingChannel(KEY, encrypted);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteBuffer buffer = ByteBuffer.allocate(1000);
+        while (decrypted.read(buffer) >= 0) {
+            buffer.flip();
+            out.write(buffer.array(), 0, buffer.limit());
+            buffer.clear();
+        }
+        assertArrayEquals(plaintext, out.toByteArray());
+    }
+
+    @Test
+    void detectsTruncationAndTampering() throws IOException {
+        byte[] ciphertext = encrypt(random(2 * SEGMENT));
+        int firstSegmentEnd = XChaCha20Stream.HEADER_LENGTH + XChaCha20Stream.CIPHERTEXT_SEGMENT_SIZE;
+
+        assertThrows(IOException.class, () -> decrypt(Arrays.copyOf(ciphertext, firstSegmentEnd)));
+        assertThrows(IOException.class, () -> decrypt(Arrays.copyOf(ciphertext, ciphertext.length - 1)));
+        assertThrows(IOException.class, () -> decrypt(Arrays.copyOf(ciphertext, 10)));
+
+        byte[] tampered = ciphertext.clone();
+        tampered[firstSegmentEnd + 3] ^= 1;
+        assertThrows(IOException.class, () -> decrypt(tampered));
+
+        byte[] appended = Arrays.copyOf(ciphertext, ciphertext.length + 1);
+        assertThrows(IOException.class, () -> decrypt(appended));
+    }
+
+    @Test
+    void keymasterCryptoStreamsUseSharedKey() throws IOException {
+        KeymasterCryptoImpl crypto = new KeymasterCryptoImpl();
+        JwkPair sender = crypto.generateJwk(Hex.decode("0000000000000000000000000000000000000000000000000000000000000031"));
+        JwkPair receiver = crypto.generateJwk(Hex.decode("0000000000000000000000000000000000000000000000000000000000000032"));
+        byte[] plaintext = random(SEGMENT + 9);
+
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        try (OutputStream out = crypto.encryptStream(receiver.publicJwk, sender.privateJwk, sink)) {
+            out.write(plaintext);
+        }
+        try (InputStream in = crypto.decryptStream(sender.publicJwk, receiver.privateJwk,
+            new ByteArrayInputStream(sink.toByteArray()))) {
+            assertArrayEquals(plaintext, in.readAllBytes());
+        }
+    }
+
+    private static byte[] encrypt(byte[] plaintext) throws IOException {
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        try (OutputStream out = XChaCha20Stream.encryptingOutputStream(KEY, sink)) {
+            int offset = 0;
+            Random random = new Random(plaintext.length);
+            while (offset < plaintext.length) {
+                int n = Math.min(plaintext.length - offset, 1 + random.nextInt(20000));
+                out.write(plaintext, offset, n);
+                offset += n;
+            }
+        }
+        return sink.toByteArray();
+    }
+
+    private static byte[] decrypt(byte[] ciphertext) throws IOException {
+        try (InputStream in = XChaCha20Stream.decryptingInputStream(KEY, new ByteArrayInputStream(ciphertext))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static byte[] random(int size) {
+        byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        return data;
+    }
+}
@@ -0,0 +1,91 @@
+package org.keychain.crypto.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class CodecTest {
+    @Test
+    void hexMatchesReference() {
+        Random random = new Random(3);
+        for (int i = 0; i < 200; i++) {
+            byte[] data = new byte[random.nextInt(70)];
+            random.nextBytes(data);
+            String expected = reference(data);
+
+            assertEquals(expected, Hex.encode(data));
+            assertArrayEquals(data, Hex.decode(expected));
+            assertArrayEquals(data, Hex.decode(expected.toUpperCase()));
+        }
+    }
+
+    @Test
+    void hexWorksOnSlices() {
+        byte[] data = {0x00, 0x12, (byte) 0xab, (byte) 0xff, 0x7f};
+        assertEquals("12abff", Hex.encode(data, 1, 3));
+        assertEquals(">12abff", Hex.encode(data, 1, 3, new StringBuilder(">")).toString());
+        assertEquals("ff7f", Hex.encode(ByteBuffer.wrap(data, 3, 2), new StringBuilder()).toString());
+
+        byte[] out = new byte[6];
+        assertEquals(3, Hex.decode("xx12abffyy", 2, 8, out, 2));
+        assertArrayEquals(new byte[] {0, 0, 0x12, (byte) 0xab, (byte) 0xff, 0}, out);
+
+        ByteBuffer buffer = ByteBuffer.allocate(2);
+        Hex.decode("beef", 0, 4, buffer);
+        assertArrayEquals(new byte[] {(byte) 0xbe, (byte) 0xef}, buffer.array());
+
+        assertThrows(IllegalArgumentException.class, () -> Hex.decode("abc"));
+        assertThrows(IllegalArgumentException.class, () -> Hex.decode("zz"));
+        assertThrows(IllegalArgumentException.class, () -> Hex.decode("١٢"));
+    }
+
+    @Test
+    void base64UrlMatchesJdk() {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        Random random = new Random(4);
+        for (int i = 0; i < 200; i++) {
+            byte[] data = new byte[random.nextInt(70)];
+            random.nextBytes(data);
+            String expected = encoder.encodeToString(data);
+
+            assertEquals(expected, Base64Url.encode(data));
+            assertEquals(expected, Base64Url.encode(data, 0, data.length, new StringBuilder()).toString());
+
+            byte[] out = new byte[data.length + 2];
+            assertEquals(data.length, Base64Url.decode(expected, 0, expected.length(), out, 1));
+            assertArrayEquals(data, Arrays.copyOfRange(out, 1, 1 + data.length));
+        }
+    }
+
+    @Test
+    void base64UrlWorksOnSlices() {
+        byte[] data = {1, 2, 3, 4, 5, 6, 7};
+        assertEquals(Base64Url.encode(new byte[] {2, 3, 4, 5}), Base64Url.encode(data, 1, 4));
+        assertEquals(Base64Url.encode(new byte[] {3, 4}), Base64Url.encode(ByteBuffer.wrap(data, 2, 2)));
+        assertEquals(2, Base64Url.decodedLength("AQI=", 0, 4));
+
+        byte[] out = new byte[2];
+        assertEquals(2, Base64Url.decode("AQI=", 0, 4, out, 0));
+        assertArrayEquals(new byte[] {1, 2}, out);
+
+        assertThrows(IllegalArgumentException.class, () -> Base64Url.decode("A+I", 0, 3, new byte[2], 0));
+        assertThrows(IllegalArgumentException.class, () -> Base64Url.decode("AQIDB", 0, 5, new byte[4], 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> Base64Url.decode("AQID", 0, 4, new byte[2], 0));
+    }
+
+    private static String reference(byte[] data) {
+        String hex = new BigInteger(1, data).toString(16);
+        StringBuilder padded = new StringBuilder();
+        for (int i = hex.length(); i < data.length * 2; i++) {
+            padded.append('0');
+        }
+        return data.length == 0 ? "" : padded.append(hex).toString();
+    }
+}
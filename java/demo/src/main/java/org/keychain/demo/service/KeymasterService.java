@@ -45,7 +45,7 @@ public class KeymasterService {
     }
 
     public boolean isReady() {
-        return keymaster != null;
+        return keymaster != null && keymaster.isUnlocked();
     }
 
     public boolean hasWallet() {
@@ -82,10 +82,13 @@ public class KeymasterService {
             throw new IllegalArgumentException("Unsupported wallet file");
         }
 
+        // Decrypt the upload in memory before it replaces the stored wallet. The throwaway Keymaster is closed, which
+        // wipes its session, so the Keymaster kept for the stored wallet unlocks its own.
         WalletJsonMemory<WalletEncFile> memory = new WalletJsonMemory<>(WalletEncFile.class);
         memory.saveWallet(wallet, true);
-        Keymaster temp = new Keymaster(memory, gatekeeper, passphrase, registry);
-        temp.loadWallet();
+        try (Keymaster temp = new Keymaster(memory, gatekeeper, passphrase, registry)) {
+            temp.loadWallet();
+        }
 
         walletStore.saveWallet(wallet, true);
         Keymaster instance = new Keymaster(walletStore, gatekeeper, passphrase, registry);
@@ -105,6 +108,9 @@ public class KeymasterService {
         if (keymaster == null) {
             throw new IllegalStateException("Passphrase not set");
         }
+        if (!keymaster.isUnlocked()) {
+            throw new IllegalStateException("Wallet locked");
+        }
         return keymaster;
     }
 
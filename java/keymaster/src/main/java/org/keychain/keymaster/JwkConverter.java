@@ -17,4 +17,11 @@ public final class JwkConverter {
         out.y = jwk.y;
         return out;
     }
+
+    public static JwkPublic toJwkPublic(EcdsaJwkPublic jwk) {
+        if (jwk == null) {
+            return null;
+        }
+        return new JwkPublic(jwk.kty, jwk.crv, jwk.x, jwk.y);
+    }
 }
@@ -0,0 +1,148 @@
+package org.keychain.keymaster;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.bitcoinj.crypto.DeterministicKey;
+import org.keychain.crypto.HdKeyUtil;
+import org.keychain.crypto.JwkPair;
+import org.keychain.crypto.KeymasterCrypto;
+
+/**
+ * Caches the hardened account nodes (m/44'/0'/account'/0) and an LRU of keypairs derived from them.
+ *
+ * <p>The cache is bound to one master key; passing a different master drops everything derived from the
+ * previous one. A keypair leaving the cache also has its cached shared keys dropped from {@link KeymasterCrypto}.
+ */
+final class KeyDerivationCache {
+    static final int DEFAULT_MAX_KEY_PAIRS = 256;
+
+    private final KeymasterCrypto crypto;
+    private final int maxKeyPairs;
+    private final Map<Integer, DeterministicKey> chains = new HashMap<>();
+    private final LinkedHashMap<Long, JwkPair> keyPairs;
+    private DeterministicKey master;
+    private JwkPair masterKeyPair;
+
+    KeyDerivationCache(KeymasterCrypto crypto, int maxKeyPairs) {
+        if (crypto == null) {
+            throw new IllegalArgumentException("crypto is required");
+        }
+        if (maxKeyPairs < 0) {
+            throw new IllegalArgumentException("maxKeyPairs must be >= 0");
+        }
+        this.crypto = crypto;
+        this.maxKeyPairs = maxKeyPairs;
+        this.keyPairs = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, JwkPair> eldest) {
+                if (size() > KeyDerivationCache.this.maxKeyPairs) {
+                    KeyDerivationCache.this.crypto.clearCachedKeys(eldest.getValue().privateJwk);
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    synchronized JwkPair masterKeyPair(DeterministicKey master) {
+        bind(master);
+        if (masterKeyPair == null) {
+            masterKeyPair = generate(master);
+        }
+        return masterKeyPair;
+    }
+
+    synchronized DeterministicKey chain(DeterministicKey master, int account) {
+        bind(master);
+        return chains.computeIfAbsent(account, a -> HdKeyUtil.deriveChain(master, a));
+    }
+
+    synchronized JwkPair keyPair(DeterministicKey master, int account, int index) {
+        DeterministicKey chain = chain(master, account);
+        Long key = key(account, index);
+        JwkPair pair = keyPairs.get(key);
+        if (pair == null) {
+            pair = generate(HdKeyUtil.deriveChild(chain, index));
+            keyPairs.put(key, pair);
+        }
+        return pair;
+    }
+
+    /**
+     * Returns the keypairs for indexes {@code index - 1} down to 0, generating all misses in one batch.
+     */
+    synchronized List<JwkPair> olderKeyPairs(DeterministicKey master, int account, int index) {
+        DeterministicKey chain = chain(master, account);
+        List<JwkPair> result = new ArrayList<>(index);
+        List<Integer> missing = new ArrayList<>();
+        List<byte[]> privateKeys = new ArrayList<>();
+        for (int i = index - 1; i >= 0; i -= 1) {
+            JwkPair pair = keyPairs.get(key(account, i));
+            if (pair == null) {
+                missing.add(result.size());
+                privateKeys.add(HdKeyUtil.privateKeyBytes(HdKeyUtil.deriveChild(chain, i)));
+            }
+            result.add(pair);
+        }
+
+        if (!missing.isEmpty()) {
+            List<JwkPair> generated;
+            try {
+                generated = crypto.generateJwks(privateKeys);
+            } finally {
+                privateKeys.forEach(bytes -> Arrays.fill(bytes, (byte) 0));
+            }
+            for (int j = 0; j < missing.size(); j++) {
+                int position = missing.get(j);
+                JwkPair pair = generated.get(j);
+                result.set(position, pair);
+                keyPairs.put(key(account, index - 1 - position), pair);
+            }
+        }
+        return result;
+    }
+
+    synchronized int size() {
+        return keyPairs.size();
+    }
+
+    synchronized void clear() {
+        for (JwkPair pair : keyPairs.values()) {
+            crypto.clearCachedKeys(pair.privateJwk);
+        }
+        if (masterKeyPair != null) {
+            crypto.clearCachedKeys(masterKeyPair.privateJwk);
+        }
+        chains.clear();
+        keyPairs.clear();
+        masterKeyPair = null;
+        master = null;
+    }
+
+    private JwkPair generate(DeterministicKey key) {
+        byte[] privateKey = HdKeyUtil.privateKeyBytes(key);
+        try {
+            return crypto.generateJwk(privateKey);
+        } finally {
+            Arrays.fill(privateKey, (byte) 0);
+        }
+    }
+
+    private void bind(DeterministicKey master) {
+        if (master == null) {
+            throw new IllegalArgumentException("master is required");
+        }
+        if (this.master != master) {
+            clear();
+            this.master = master;
+        }
+    }
+
+    private static Long key(int account, int index) {
+        return ((long) account << 32) | (index & 0xFFFFFFFFL);
+    }
+}
@@ -6,13 +6,14 @@ import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
-import org.bitcoinj.crypto.DeterministicKey;
 import org.keychain.cid.Cid;
-import org.keychain.crypto.HdKeyUtil;
+import org.keychain.crypto.CanonicalSnapshot;
 import org.keychain.crypto.JwkPair;
 import org.keychain.crypto.KeymasterCrypto;
 import org.keychain.crypto.KeymasterCryptoImpl;
-import org.keychain.crypto.MnemonicEncryption;
+import org.keychain.crypto.MerkleTree;
+import org.keychain.crypto.Secp256k1Jwk;
+import org.keychain.crypto.VerificationKey;
 import org.keychain.gatekeeper.GatekeeperInterface;
 import org.keychain.gatekeeper.model.BlockInfo;
 import org.keychain.gatekeeper.model.DocumentMetadata;
@@ -29,10 +30,12 @@ import org.keychain.keymaster.model.CheckWalletResult;
 import org.keychain.keymaster.model.FixWalletResult;
 import org.keychain.keymaster.model.WalletEncFile;
 import org.keychain.keymaster.model.WalletFile;
+import org.keychain.keymaster.model.WatchOnlyId;
+import org.keychain.keymaster.model.WatchOnlyWallet;
 import org.keychain.keymaster.store.WalletStore;
 import org.keychain.keymaster.store.WalletJsonMapper;
 
-public class Keymaster {
+public class Keymaster implements AutoCloseable {
     private static final DateTimeFormatter ISO_MILLIS =
         DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'").withZone(ZoneOffset.UTC);
     private static final String DEFAULT_REGISTRY = "hyperswarm";
@@ -41,11 +44,11 @@ public class Keymaster {
     private static Supplier<Instant> NOW_SUPPLIER = Instant::now;
     private final KeymasterWalletManager walletManager;
     private final KeymasterCrypto crypto;
-    private final String passphrase;
     private final GatekeeperInterface gatekeeper;
     private final OperationFactory operationFactory;
     private final String defaultRegistry;
     private final String ephemeralRegistry;
+    private final VerifiedRootCache verifiedRoots = new VerifiedRootCache(VerifiedRootCache.DEFAULT_MAX_ENTRIES);
 
     public Keymaster(
         WalletStore<WalletEncFile> store,
@@ -69,7 +72,6 @@ public class Keymaster {
         }
 
         this.crypto = crypto;
-        this.passphrase = passphrase;
         this.gatekeeper = gatekeeper;
         this.operationFactory = operationFactory;
         this.defaultRegistry = normalizeRegistry(defaultRegistry);
@@ -122,6 +124,11 @@ public class Keymaster {
         this(store, null, new KeymasterCryptoImpl(), passphrase, DEFAULT_REGISTRY);
     }
 
+    /**
+     * The current wallet snapshot, shared with every other reader and with later writers. Its collections, and those
+     * of its IDs, are unmodifiable, but the fields of the {@link WalletFile} and its {@link IDInfo}s are not: treat it
+     * as read-only and change the wallet through {@link #mutateWallet}.
+     */
     public WalletFile loadWallet() {
         WalletFile wallet = walletManager.loadWallet();
         if (wallet == null) {
@@ -163,6 +170,15 @@ public class Keymaster {
         return walletManager.mutateWallet(mutator);
     }
 
+    public java.util.concurrent.CompletableFuture<Boolean> mutateWalletAsync(Consumer<WalletFile> mutator) {
+        loadWallet();
+        return walletManager.mutateWalletAsync(mutator);
+    }
+
+    public boolean flushWallet() {
+        return walletManager.flush();
+    }
+
     public java.util.Map<String, String> listNames(boolean includeIds) {
         WalletFile wallet = loadWallet();
         java.util.Map<String, String> names = new java.util.HashMap<>();
@@ -277,7 +293,7 @@ public class Keymaster {
         String phrase = mnemonic != null ? mnemonic : crypto.generateMnemonic();
 
         Seed seed = new Seed();
-        seed.mnemonicEnc = MnemonicEncryption.encrypt(phrase, passphrase);
+        seed.mnemonicEnc = walletManager.newSeed(phrase);
 
         WalletFile wallet = new WalletFile();
         wallet.version = 1;
@@ -290,7 +306,8 @@ public class Keymaster {
             throw new IllegalStateException("save wallet failed");
         }
 
-        return wallet;
+        // The published snapshot, not the wallet built here, which saveWallet copied.
+        return loadWallet();
     }
 
     public String decryptMnemonic() {
@@ -298,22 +315,91 @@ public class Keymaster {
         if (wallet == null || wallet.seed == null || wallet.seed.mnemonicEnc == null) {
             throw new IllegalStateException("wallet mnemonic not available");
         }
-        return MnemonicEncryption.decrypt(wallet.seed.mnemonicEnc, passphrase);
+        return walletManager.decryptMnemonic(wallet);
     }
 
     public String getMnemonicForDerivation(WalletFile wallet) {
         if (wallet == null || wallet.seed == null || wallet.seed.mnemonicEnc == null) {
             throw new IllegalStateException("wallet mnemonic not available");
         }
-        return MnemonicEncryption.decrypt(wallet.seed.mnemonicEnc, passphrase);
+        return walletManager.decryptMnemonic(wallet);
+    }
+
+    /**
+     * Derives the wallet keys now so later saves and derivations skip the passphrase KDF. Also ends a {@link #lock()}.
+     */
+    public void unlock() {
+        walletManager.clearLock();
+        walletManager.session(loadWallet());
+    }
+
+    /**
+     * Adopts a session unlocked elsewhere for this wallet's seed; the Keymaster wipes it on {@link #lock()}.
+     */
+    public void unlock(WalletSession session) {
+        walletManager.unlock(session);
+    }
+
+    /**
+     * Wipes the unlocked seed and every key derived from it. Signing, decryption, key derivation and wallet writes
+     * throw {@link IllegalStateException} until {@link #unlock()} is called again; so do they once the session has
+     * been idle for longer than its timeout. Idle expiry is noticed on the next call, not by a timer.
+     */
+    public void lock() {
+        walletManager.lock();
+    }
+
+    public boolean isUnlocked() {
+        return walletManager.isUnlocked();
+    }
+
+    /**
+     * Flushes pending writes and wipes the passphrase, the decrypted wallet and its keys, including shared keys cached
+     * for them. Every later wallet call throws {@link IllegalStateException}.
+     */
+    @Override
+    public void close() {
+        walletManager.close();
+    }
+
+    public void setSessionIdleTimeout(java.time.Duration idleTimeout) {
+        walletManager.setSessionIdleTimeout(idleTimeout);
+    }
+
+    public void setGroupCommitWindow(java.time.Duration window) {
+        walletManager.setGroupCommitWindow(window);
     }
 
     public WalletEncFile exportEncryptedWallet() {
         WalletFile wallet = loadWallet();
-        WalletCrypto walletCrypto = new WalletCrypto(crypto, passphrase);
+        WalletCrypto walletCrypto = new WalletCrypto(crypto, walletManager.session(wallet));
         return walletCrypto.encryptForStorage(wallet);
     }
 
+    /**
+     * Exports each ID's account-level extended public key, for use with {@link WatchOnlyKeymaster}.
+     */
+    public WatchOnlyWallet exportWatchOnlyWallet() {
+        WalletFile wallet = loadWallet();
+        WatchOnlyWallet watchOnly = new WatchOnlyWallet();
+        watchOnly.version = wallet.version;
+        watchOnly.current = wallet.current;
+        watchOnly.ids = new java.util.LinkedHashMap<>();
+        if (wallet.ids != null) {
+            for (java.util.Map.Entry<String, IDInfo> entry : wallet.ids.entrySet()) {
+                IDInfo id = entry.getValue();
+                WatchOnlyId info = new WatchOnlyId();
+                info.did = id.did;
+                info.account = id.account;
+                info.index = id.index;
+                info.xpub = walletManager.accountXpub(wallet, id.account);
+                info.keyIndex = id.keyIndex != null ? new java.util.HashMap<>(id.keyIndex) : null;
+                watchOnly.ids.put(entry.getKey(), info);
+            }
+        }
+        return watchOnly;
+    }
+
     public java.util.List<String> listRegistries() {
         if (gatekeeper == null) {
             throw new IllegalStateException("gatekeeper not configured");
@@ -692,8 +778,8 @@ public class Keymaster {
 
             WalletFile upgraded = walletManager.upgradeWallet(recovered);
             if (upgraded.version != null && upgraded.version == 1 && upgraded.seed != null && upgraded.seed.mnemonicEnc != null) {
-                String mnemonic = decryptMnemonic();
-                upgraded.seed.mnemonicEnc = MnemonicEncryption.encrypt(mnemonic, passphrase);
+                // The backup holds the current seed, which is already encrypted under the current passphrase.
+                upgraded.seed.mnemonicEnc = walletManager.session(loadWallet()).seed();
             }
 
             mutateWallet(current -> replaceWallet(current, upgraded));
@@ -734,6 +820,7 @@ public class Keymaster {
             idInfo.did = did;
             idInfo.account = account;
             idInfo.index = index;
+            recordKeyIndex(idInfo, keypair.publicJwk, index);
 
             wallet.ids.put(validName, idInfo);
             wallet.counter = account + 1;
@@ -1821,9 +1908,7 @@ public class Keymaster {
             IDInfo id = getCurrentIdInfo(wallet);
             int nextIndex = id.index + 1;
 
-            DeterministicKey master = walletManager.getHdKeyFromCacheOrMnemonic(wallet);
-            DeterministicKey derived = HdKeyUtil.derivePath(master, id.account, nextIndex);
-            JwkPair keypair = crypto.generateJwk(HdKeyUtil.privateKeyBytes(derived));
+            JwkPair keypair = walletManager.deriveKeyPair(wallet, id.account, nextIndex);
 
             MdipDocument doc = resolveDID(id.did);
             if (doc.didDocumentMetadata == null || !Boolean.TRUE.equals(doc.didDocumentMetadata.confirmed)) {
@@ -1843,6 +1928,8 @@ public class Keymaster {
                 throw new IllegalStateException("Cannot rotate keys");
             }
 
+            indexExistingKeys(wallet, id);
+            recordKeyIndex(id, keypair.publicJwk, nextIndex);
             id.index = nextIndex;
         });
 
@@ -1864,9 +1951,7 @@ public class Keymaster {
             return false;
         }
 
-        java.util.Map<String, Object> copy = new java.util.LinkedHashMap<>(obj);
-        copy.remove("signature");
-        String msgHash = crypto.hashJson(copy);
+        String msgHash = crypto.hashJson(CanonicalSnapshot.of(obj).without("signature"));
 
         Object hashObj = signature.get("hash");
         if (hashObj instanceof String && !msgHash.equals(hashObj)) {
@@ -1874,6 +1959,27 @@ public class Keymaster {
         }
 
         Object signedObj = signature.get("signed");
+        String signedHash = msgHash;
+        String rootKey = null;
+        Object merkleObj = signature.get("merkle");
+        if (merkleObj != null) {
+            signedHash = merkleRoot(msgHash, merkleObj);
+            if (signedHash == null) {
+                return false;
+            }
+            if (signedObj instanceof String && signature.get("value") instanceof String) {
+                rootKey = VerifiedRootCache.key(
+                    (String) signerObj,
+                    (String) signedObj,
+                    signedHash,
+                    (String) signature.get("value")
+                );
+                if (verifiedRoots.contains(rootKey)) {
+                    return true;
+                }
+            }
+        }
+
         ResolveDIDOptions options = null;
         if (signedObj instanceof String) {
             options = new ResolveDIDOptions();
@@ -1889,12 +1995,51 @@ public class Keymaster {
         );
 
         try {
-            return crypto.verifySig(msgHash, (String) signature.get("value"), cryptoJwk);
+            VerificationKey key = crypto.verificationKey(cryptoJwk);
+            boolean valid = crypto.verifySig(signedHash, (String) signature.get("value"), key);
+            if (valid && rootKey != null) {
+                verifiedRoots.add(rootKey);
+            }
+            return valid;
         } catch (Exception e) {
             return false;
         }
     }
 
+    /**
+     * Returns the root proven by a batch signature's inclusion path, or {@code null} if the proof is malformed
+     * or does not lead to the claimed root.
+     */
+    private static String merkleRoot(String msgHash, Object merkleObj) {
+        if (!(merkleObj instanceof java.util.Map<?, ?>)) {
+            return null;
+        }
+        java.util.Map<?, ?> merkle = (java.util.Map<?, ?>) merkleObj;
+        Object root = merkle.get("root");
+        Object index = merkle.get("index");
+        Object count = merkle.get("count");
+        Object path = merkle.get("path");
+        if (!(root instanceof String)
+            || !(index instanceof Integer)
+            || !(count instanceof Integer)
+            || !(path instanceof java.util.List<?>)) {
+            return null;
+        }
+        java.util.List<String> siblings = new java.util.ArrayList<>();
+        for (Object sibling : (java.util.List<?>) path) {
+            if (!(sibling instanceof String)) {
+                return null;
+            }
+            siblings.add((String) sibling);
+        }
+        try {
+            String computed = MerkleTree.rootFromPath(msgHash, (Integer) index, (Integer) count, siblings);
+            return computed.equals(root) ? computed : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     private MdipDocument resolveWithRetries(String did, int retries, int delayMs) {
         while (retries >= 0) {
             try {
@@ -2185,6 +2330,70 @@ public class Keymaster {
         return signed;
     }
 
+    public java.util.List<java.util.Map<String, Object>> addSignatures(
+        java.util.List<java.util.Map<String, Object>> objs
+    ) {
+        return addSignatures(objs, null);
+    }
+
+    /**
+     * Signs a batch with a single signature over the Merkle root of the objects' canonical hashes. Each result
+     * carries {@code signature.merkle = {root, index, count, path}}, which {@link #verifySignature} checks in place
+     * of a per-object signature; the signed root commits to the batch size, so an index past the end is rejected.
+     */
+    public java.util.List<java.util.Map<String, Object>> addSignatures(
+        java.util.List<java.util.Map<String, Object>> objs,
+        String controllerDid
+    ) {
+        if (objs == null || objs.isEmpty()) {
+            throw new IllegalArgumentException("objs");
+        }
+
+        IDInfo id = fetchIdInfo(controllerDid);
+        JwkPair keypair = fetchKeyPair(controllerDid);
+        if (keypair == null) {
+            throw new IllegalArgumentException("addSignatures: no keypair");
+        }
+
+        java.util.List<java.util.Map<String, Object>> unsigned = new java.util.ArrayList<>(objs.size());
+        java.util.List<String> hashes = new java.util.ArrayList<>(objs.size());
+        for (java.util.Map<String, Object> obj : objs) {
+            if (obj == null) {
+                throw new IllegalArgumentException("obj");
+            }
+            java.util.Map<String, Object> copy = new java.util.LinkedHashMap<>(obj);
+            copy.remove("signature");
+            unsigned.add(copy);
+            hashes.add(crypto.hashJson(copy));
+        }
+
+        MerkleTree tree = MerkleTree.of(hashes);
+        String root = tree.root();
+        String signatureValue = crypto.signHash(root, keypair.privateJwk);
+        String signedAt = nowIso();
+
+        java.util.List<java.util.Map<String, Object>> results = new java.util.ArrayList<>(objs.size());
+        for (int i = 0; i < unsigned.size(); i++) {
+            java.util.Map<String, Object> merkle = new java.util.LinkedHashMap<>();
+            merkle.put("root", root);
+            merkle.put("index", i);
+            merkle.put("count", unsigned.size());
+            merkle.put("path", tree.path(i));
+
+            java.util.Map<String, Object> signature = new java.util.LinkedHashMap<>();
+            signature.put("signer", id.did);
+            signature.put("signed", signedAt);
+            signature.put("hash", hashes.get(i));
+            signature.put("value", signatureValue);
+            signature.put("merkle", merkle);
+
+            java.util.Map<String, Object> signed = unsigned.get(i);
+            signed.put("signature", signature);
+            results.add(signed);
+        }
+        return results;
+    }
+
     public String validateName(String name) {
         return validateNameInternal(name, null);
     }
@@ -2443,19 +2652,36 @@ public class Keymaster {
         if (ciphertext == null) {
             throw new IllegalArgumentException("Invalid parameter: did not encrypted");
         }
-        return decryptWithDerivedKeys(wallet, id, senderCrypto, ciphertext);
+        return decryptWithDerivedKeys(wallet, id, senderCrypto, ciphertext, created);
     }
 
     private String decryptWithDerivedKeys(
         WalletFile wallet,
         IDInfo id,
         org.keychain.crypto.JwkPublic senderPublicJwk,
-        String ciphertext
+        String ciphertext,
+        String created
     ) {
-        DeterministicKey master = walletManager.getHdKeyFromCacheOrMnemonic(wallet);
-        for (int index = id.index; index >= 0; index -= 1) {
-            DeterministicKey derived = HdKeyUtil.derivePath(master, id.account, index);
-            JwkPair receiver = crypto.generateJwk(HdKeyUtil.privateKeyBytes(derived));
+        JwkPair current = walletManager.deriveKeyPair(wallet, id.account, id.index);
+        try {
+            return crypto.decryptMessage(senderPublicJwk, current.privateJwk, ciphertext);
+        } catch (Exception ignored) {
+            // try the key that was current when the message was created
+        }
+
+        JwkPair historic = keyPairAt(wallet, id, created);
+        if (historic != null && historic != current) {
+            try {
+                return crypto.decryptMessage(senderPublicJwk, historic.privateJwk, ciphertext);
+            } catch (Exception ignored) {
+                // try older keys
+            }
+        }
+
+        for (JwkPair receiver : walletManager.deriveOlderKeyPairs(wallet, id.account, id.index)) {
+            if (receiver == historic) {
+                continue;
+            }
             try {
                 return crypto.decryptMessage(senderPublicJwk, receiver.privateJwk, ciphertext);
             } catch (Exception ignored) {
@@ -2465,6 +2691,53 @@ public class Keymaster {
         throw new IllegalArgumentException("ID can't decrypt ciphertext");
     }
 
+    private JwkPair keyPairAt(WalletFile wallet, IDInfo id, String versionTime) {
+        if (gatekeeper == null || versionTime == null || id.keyIndex == null || id.index == 0) {
+            return null;
+        }
+        try {
+            ResolveDIDOptions options = new ResolveDIDOptions();
+            options.confirm = true;
+            options.versionTime = versionTime;
+            return indexedKeyPair(wallet, id, getPublicKeyJwk(gatekeeper.resolveDID(id.did, options)));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private JwkPair indexedKeyPair(WalletFile wallet, IDInfo id, EcdsaJwkPublic publicJwk) {
+        if (id.keyIndex == null || publicJwk == null || publicJwk.x == null || publicJwk.y == null) {
+            return null;
+        }
+        Integer index = id.keyIndex.get(Secp256k1Jwk.thumbprint(JwkConverter.toJwkPublic(publicJwk)));
+        if (index == null || index < 0 || index > id.index) {
+            return null;
+        }
+        JwkPair keypair = walletManager.deriveKeyPair(wallet, id.account, index);
+        if (publicJwk.x.equals(keypair.publicJwk.x) && publicJwk.y.equals(keypair.publicJwk.y)) {
+            return keypair;
+        }
+        return null;
+    }
+
+    private void indexExistingKeys(WalletFile wallet, IDInfo id) {
+        if (id.keyIndex != null && id.keyIndex.size() > id.index) {
+            return;
+        }
+        recordKeyIndex(id, walletManager.deriveKeyPair(wallet, id.account, id.index).publicJwk, id.index);
+        List<JwkPair> older = walletManager.deriveOlderKeyPairs(wallet, id.account, id.index);
+        for (int i = 0; i < older.size(); i += 1) {
+            recordKeyIndex(id, older.get(i).publicJwk, id.index - 1 - i);
+        }
+    }
+
+    private static void recordKeyIndex(IDInfo id, org.keychain.crypto.JwkPublic publicJwk, int index) {
+        if (id.keyIndex == null) {
+            id.keyIndex = new HashMap<>();
+        }
+        id.keyIndex.put(Secp256k1Jwk.thumbprint(publicJwk), index);
+    }
+
     private static boolean isVerifiableCredential(Object obj) {
         if (!(obj instanceof java.util.Map<?, ?>)) {
             return false;
@@ -2598,11 +2871,9 @@ public class Keymaster {
     public JwkPair fetchKeyPair(String nameOrDid) {
         WalletFile wallet = loadWallet();
         IDInfo id = fetchIdInfo(nameOrDid, wallet);
-        DeterministicKey master = walletManager.getHdKeyFromCacheOrMnemonic(wallet);
 
         if (gatekeeper == null) {
-            DeterministicKey derived = HdKeyUtil.derivePath(master, id.account, id.index);
-            return crypto.generateJwk(HdKeyUtil.privateKeyBytes(derived));
+            return walletManager.deriveKeyPair(wallet, id.account, id.index);
         }
 
         ResolveDIDOptions options = new ResolveDIDOptions();
@@ -2610,13 +2881,21 @@ public class Keymaster {
         MdipDocument doc = gatekeeper.resolveDID(id.did, options);
         EcdsaJwkPublic confirmed = getPublicKeyJwk(doc);
 
-        for (int i = id.index; i >= 0; i -= 1) {
-            DeterministicKey derived = HdKeyUtil.derivePath(master, id.account, i);
-            JwkPair keypair = crypto.generateJwk(HdKeyUtil.privateKeyBytes(derived));
-            if (confirmed != null && confirmed.x != null && confirmed.y != null) {
-                if (confirmed.x.equals(keypair.publicJwk.x) && confirmed.y.equals(keypair.publicJwk.y)) {
-                    return keypair;
-                }
+        if (confirmed == null || confirmed.x == null || confirmed.y == null) {
+            return null;
+        }
+
+        JwkPair current = walletManager.deriveKeyPair(wallet, id.account, id.index);
+        if (confirmed.x.equals(current.publicJwk.x) && confirmed.y.equals(current.publicJwk.y)) {
+            return current;
+        }
+        JwkPair indexed = indexedKeyPair(wallet, id, confirmed);
+        if (indexed != null) {
+            return indexed;
+        }
+        for (JwkPair keypair : walletManager.deriveOlderKeyPairs(wallet, id.account, id.index)) {
+            if (confirmed.x.equals(keypair.publicJwk.x) && confirmed.y.equals(keypair.publicJwk.y)) {
+                return keypair;
             }
         }
 
@@ -2637,14 +2916,12 @@ public class Keymaster {
         String registry = current != null && current.mdip != null ? current.mdip.registry : null;
 
         if (current != null) {
-            MdipDocument currentCopy = WalletJsonMapper.mapper().convertValue(current, MdipDocument.class);
-            MdipDocument docCopy = WalletJsonMapper.mapper().convertValue(doc, MdipDocument.class);
-            currentCopy.didDocumentMetadata = null;
-            currentCopy.didResolutionMetadata = null;
-            docCopy.didDocumentMetadata = null;
-            docCopy.didResolutionMetadata = null;
-            String currentHash = crypto.hashJson(currentCopy);
-            String updateHash = crypto.hashJson(docCopy);
+            String currentHash = crypto.hashJson(
+                CanonicalSnapshot.of(current).without("didDocumentMetadata", "didResolutionMetadata")
+            );
+            String updateHash = crypto.hashJson(
+                CanonicalSnapshot.of(doc).without("didDocumentMetadata", "didResolutionMetadata")
+            );
             if (currentHash.equals(updateHash)) {
                 return true;
             }
@@ -2750,15 +3027,12 @@ public class Keymaster {
     }
 
     private JwkPair getCurrentKeypairFromPath(WalletFile wallet, int account, int index) {
-        DeterministicKey master = walletManager.getHdKeyFromCacheOrMnemonic(wallet);
-        DeterministicKey derived = HdKeyUtil.derivePath(master, account, index);
-        return crypto.generateJwk(HdKeyUtil.privateKeyBytes(derived));
+        return walletManager.deriveKeyPair(wallet, account, index);
     }
 
     public JwkPair hdKeyPair() {
         WalletFile wallet = loadWallet();
-        DeterministicKey master = walletManager.getHdKeyFromCacheOrMnemonic(wallet);
-        return crypto.generateJwk(HdKeyUtil.privateKeyBytes(master));
+        return walletManager.masterKeyPair(wallet);
     }
 
     private static void replaceWallet(WalletFile target, WalletFile source) {
@@ -2771,7 +3045,7 @@ public class Keymaster {
         target.extras = source.extras;
     }
 
-    private static boolean didMatch(String did1, String did2) {
+    static boolean didMatch(String did1, String did2) {
         if (did1 == null || did2 == null) {
             return false;
         }
@@ -2804,15 +3078,15 @@ public class Keymaster {
         if (did == null || !did.startsWith("did:")) {
             return false;
         }
-        String[] parts = did.split(":");
-        if (parts.length < 3) {
-            return false;
+        int end = did.length();
+        while (end > 0 && did.charAt(end - 1) == ':') {
+            end -= 1;
         }
-        String suffix = parts[parts.length - 1];
-        if (suffix == null || suffix.isBlank()) {
+        int separator = did.lastIndexOf(':', end - 1);
+        if (separator < 4) {
             return false;
         }
-        return Cid.isValid(suffix);
+        return Cid.isValid(did, separator + 1, end);
     }
 
     public EcdsaJwkPublic getPublicKeyJwk(MdipDocument doc) {
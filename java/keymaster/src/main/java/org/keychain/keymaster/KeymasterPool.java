@@ -0,0 +1,321 @@
+package org.keychain.keymaster;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.keychain.crypto.KeymasterCrypto;
+import org.keychain.gatekeeper.GatekeeperInterface;
+import org.keychain.keymaster.model.WalletEncFile;
+import org.keychain.keymaster.store.WalletStore;
+
+/**
+ * Unlocked {@link Keymaster}s for many tenants, kept in a bounded LRU so repeat requests skip the passphrase KDF and
+ * wallet decryption.
+ *
+ * <p>All tenants share one {@link GatekeeperInterface} and one {@link KeymasterCrypto}, and with them their
+ * resolution and shared-key caches. A Keymaster leaving the pool, by LRU, idle timeout or {@link #evict}, is
+ * {@link Keymaster#close() closed}: pending writes are flushed, then its passphrase, decrypted wallet and keys are
+ * wiped. A request still holding it gets {@link IllegalStateException} and should get the tenant again, so an evicted
+ * Keymaster never overwrites what its replacement has written.
+ *
+ * <p>With an idle timeout the pool runs {@link #evictIdle()} on its own daemon thread every half timeout, so the keys
+ * of a tenant that sees no more requests are wiped without further calls. {@link #close()} stops that thread; a pool
+ * that is dropped without being closed keeps it running.
+ */
+public class KeymasterPool implements AutoCloseable {
+    private final GatekeeperInterface gatekeeper;
+    private final KeymasterCrypto crypto;
+    private final Function<String, WalletStore<WalletEncFile>> stores;
+    private final int maxTenants;
+    private final Duration idleTimeout;
+    private final String defaultRegistry;
+    private final Clock clock;
+    private final ScheduledExecutorService evictor;
+    /** Random key for the passphrase digests kept per tenant, so the pool never holds a passphrase itself. */
+    private final byte[] digestKey = new byte[32];
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    /** Tenants being unlocked, so concurrent misses wait for the one unlock in flight. */
+    private final Map<String, CompletableFuture<Keymaster>> opening = new HashMap<>();
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public KeymasterPool(
+        GatekeeperInterface gatekeeper,
+        KeymasterCrypto crypto,
+        Function<String, WalletStore<WalletEncFile>> stores,
+        KeymasterPoolOptions options
+    ) {
+        this(gatekeeper, crypto, stores, options, Clock.systemUTC());
+    }
+
+    KeymasterPool(
+        GatekeeperInterface gatekeeper,
+        KeymasterCrypto crypto,
+        Function<String, WalletStore<WalletEncFile>> stores,
+        KeymasterPoolOptions options,
+        Clock clock
+    ) {
+        if (crypto == null) {
+            throw new IllegalArgumentException("crypto is required");
+        }
+        if (stores == null) {
+            throw new IllegalArgumentException("stores is required");
+        }
+        KeymasterPoolOptions opts = options != null ? options : new KeymasterPoolOptions();
+        if (opts.maxTenants <= 0) {
+            throw new IllegalArgumentException("maxTenants must be > 0");
+        }
+        if (opts.idleTimeout != null && (opts.idleTimeout.isNegative() || opts.idleTimeout.isZero())) {
+            throw new IllegalArgumentException("idleTimeout must be positive");
+        }
+        this.gatekeeper = gatekeeper;
+        this.crypto = crypto;
+        this.stores = stores;
+        this.maxTenants = opts.maxTenants;
+        this.idleTimeout = opts.idleTimeout;
+        this.defaultRegistry = opts.defaultRegistry;
+        this.clock = clock;
+        new SecureRandom().nextBytes(digestKey);
+        this.evictor = idleTimeout != null ? startEvictor(idleTimeout) : null;
+    }
+
+    /**
+     * The tenant's unlocked Keymaster. A cached one is returned only for the passphrase it was unlocked with;
+     * otherwise the wallet is unlocked again, and replaces the cached one if that succeeds. Concurrent misses for a
+     * tenant wait for one unlock instead of each opening the wallet.
+     */
+    public Keymaster get(String tenant, String passphrase) {
+        if (tenant == null || tenant.isBlank()) {
+            throw new IllegalArgumentException("tenant is required");
+        }
+        if (passphrase == null || passphrase.isEmpty()) {
+            throw new IllegalArgumentException("passphrase is required");
+        }
+
+        byte[] passphraseDigest = digest(passphrase);
+        while (true) {
+            List<Entry> expired;
+            Keymaster cached = null;
+            CompletableFuture<Keymaster> pending;
+            boolean opener = false;
+            synchronized (this) {
+                expired = removeIdle(clock.instant());
+                Entry entry = entries.get(tenant);
+                // A Keymaster locked by its caller or by idle expiry is replaced rather than handed out locked.
+                if (entry != null && entry.matches(passphraseDigest) && entry.keymaster.isUnlocked()) {
+                    entry.lastUsed = clock.instant();
+                    hits += 1;
+                    cached = entry.keymaster;
+                }
+                pending = opening.get(tenant);
+                if (cached == null && pending == null) {
+                    pending = new CompletableFuture<>();
+                    opening.put(tenant, pending);
+                    opener = true;
+                    misses += 1;
+                }
+            }
+            wipe(expired);
+            if (cached != null) {
+                return cached;
+            }
+            if (opener) {
+                return open(tenant, passphrase, passphraseDigest, pending);
+            }
+            // Another request is opening this tenant; its Keymaster is returned on the next pass only if it was
+            // unlocked with the same passphrase.
+            try {
+                pending.join();
+            } catch (CompletionException | CancellationException e) {
+                // The other request failed; this one tries its own passphrase.
+            }
+        }
+    }
+
+    public boolean evict(String tenant) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.remove(tenant);
+            if (entry == null) {
+                return false;
+            }
+            evictions += 1;
+        }
+        entry.close();
+        return true;
+    }
+
+    /**
+     * Evicts tenants idle for longer than the idle timeout. {@link #get} and the pool's eviction thread also do this.
+     */
+    public int evictIdle() {
+        List<Entry> expired;
+        synchronized (this) {
+            expired = removeIdle(clock.instant());
+        }
+        wipe(expired);
+        return expired.size();
+    }
+
+    public synchronized KeymasterPoolStats stats() {
+        return new KeymasterPoolStats(hits, misses, evictions, entries.size());
+    }
+
+    @Override
+    public void close() {
+        if (evictor != null) {
+            evictor.shutdownNow();
+        }
+        List<Entry> all;
+        synchronized (this) {
+            all = new ArrayList<>(entries.values());
+            entries.clear();
+        }
+        wipe(all);
+    }
+
+    private Keymaster open(
+        String tenant,
+        String passphrase,
+        byte[] passphraseDigest,
+        CompletableFuture<Keymaster> pending
+    ) {
+        Keymaster keymaster = null;
+        try {
+            WalletStore<WalletEncFile> store = stores.apply(tenant);
+            if (store == null) {
+                throw new IllegalArgumentException("unknown tenant");
+            }
+            keymaster = new Keymaster(store, gatekeeper, crypto, passphrase, defaultRegistry);
+            keymaster.setSessionIdleTimeout(idleTimeout);
+            keymaster.unlock();
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                opening.remove(tenant);
+            }
+            pending.completeExceptionally(e);
+            if (keymaster != null) {
+                keymaster.close();
+            }
+            throw e;
+        }
+
+        List<Entry> removed = new ArrayList<>();
+        synchronized (this) {
+            opening.remove(tenant);
+            Entry previous = entries.put(tenant, new Entry(keymaster, passphraseDigest, clock.instant()));
+            if (previous != null) {
+                removed.add(previous);
+            }
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (entries.size() > maxTenants) {
+                removed.add(eldest.next());
+                eldest.remove();
+                evictions += 1;
+            }
+        }
+        pending.complete(keymaster);
+        wipe(removed);
+        return keymaster;
+    }
+
+    private ScheduledExecutorService startEvictor(Duration idleTimeout) {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "keymaster-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, idleTimeout.toMillis() / 2);
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                evictIdle();
+            } catch (RuntimeException e) {
+                // A tenant that failed to flush is already out of the pool; keep sweeping the others.
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+        return executor;
+    }
+
+    private List<Entry> removeIdle(Instant now) {
+        List<Entry> expired = new ArrayList<>();
+        if (idleTimeout == null) {
+            return expired;
+        }
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (eldest.hasNext()) {
+            Entry entry = eldest.next();
+            if (Duration.between(entry.lastUsed, now).compareTo(idleTimeout) <= 0) {
+                break;
+            }
+            eldest.remove();
+            expired.add(entry);
+            evictions += 1;
+        }
+        return expired;
+    }
+
+    /**
+     * HMAC-SHA256 of the passphrase under this pool's random key; equal passphrases give equal digests only within
+     * one pool, and a digest is no help in guessing the passphrase without the key.
+     */
+    private byte[] digest(String passphrase) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(digestKey, "HmacSHA256"));
+            return mac.doFinal(passphrase.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+
+    private static void wipe(List<Entry> entries) {
+        for (Entry entry : entries) {
+            entry.close();
+        }
+    }
+
+    private static final class Entry {
+        private final Keymaster keymaster;
+        private final byte[] passphraseDigest;
+        private Instant lastUsed;
+
+        private Entry(Keymaster keymaster, byte[] passphraseDigest, Instant lastUsed) {
+            this.keymaster = keymaster;
+            this.passphraseDigest = passphraseDigest;
+            this.lastUsed = lastUsed;
+        }
+
+        private boolean matches(byte[] candidateDigest) {
+            return MessageDigest.isEqual(passphraseDigest, candidateDigest);
+        }
+
+        private void close() {
+            try {
+                keymaster.close();
+            } finally {
+                Arrays.fill(passphraseDigest, (byte) 0);
+            }
+        }
+    }
+}
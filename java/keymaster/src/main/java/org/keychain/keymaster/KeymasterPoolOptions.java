@@ -0,0 +1,14 @@
+package org.keychain.keymaster;
+
+import java.time.Duration;
+
+public class KeymasterPoolOptions {
+    public int maxTenants;
+    public Duration idleTimeout;
+    public String defaultRegistry;
+
+    public KeymasterPoolOptions() {
+        this.maxTenants = 1024;
+        this.idleTimeout = WalletSession.DEFAULT_IDLE_TIMEOUT;
+    }
+}
@@ -0,0 +1,15 @@
+package org.keychain.keymaster;
+
+public class KeymasterPoolStats {
+    public final long hits;
+    public final long misses;
+    public final long evictions;
+    public final int size;
+
+    public KeymasterPoolStats(long hits, long misses, long evictions, int size) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.size = size;
+    }
+}
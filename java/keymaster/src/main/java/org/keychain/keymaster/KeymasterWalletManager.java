@@ -4,53 +4,121 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 import javax.crypto.Cipher;
+import javax.crypto.Mac;
 import javax.crypto.SecretKey;
 import javax.crypto.SecretKeyFactory;
 import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.PBEKeySpec;
 import javax.crypto.spec.SecretKeySpec;
 import org.bitcoinj.crypto.DeterministicKey;
+import org.keychain.crypto.EncryptedMnemonic;
 import org.keychain.crypto.HdKeyUtil;
+import org.keychain.crypto.JwkPair;
 import org.keychain.crypto.KeymasterCrypto;
-import org.keychain.crypto.MnemonicEncryption;
+import org.keychain.crypto.util.Hex;
 import org.keychain.keymaster.model.Seed;
 import org.keychain.keymaster.model.WalletEncFile;
 import org.keychain.keymaster.model.WalletFile;
+import org.keychain.keymaster.store.WalletDurability;
+import org.keychain.keymaster.store.WalletJournalStore;
 import org.keychain.keymaster.store.WalletJsonMapper;
+import org.keychain.keymaster.store.WalletRecordStore;
 import org.keychain.keymaster.store.WalletStore;
 
 public class KeymasterWalletManager {
+    /** Journal records after which the wallet is compacted into a new snapshot in the background. */
+    static final int JOURNAL_COMPACT_RECORDS = 256;
+
+    /** Records read per query when loading a wallet from a {@link WalletRecordStore}. */
+    static final int RECORD_PAGE_SIZE = 512;
+    /** Header field marking a wallet whose IDs and names live in {@link WalletRecordStore} records. */
+    private static final String RECORDS_HEADER = "records";
+
+    /** How long a {@link WalletDurability#BATCHED} store collects mutations before persisting them together. */
+    public static final Duration DEFAULT_GROUP_COMMIT_WINDOW = Duration.ofMillis(5);
+
     private final WalletStore<WalletEncFile> store;
+    private final WalletJournalStore<WalletEncFile> journal;
+    private final WalletRecordStore<WalletEncFile> recordStore;
     private final KeymasterCrypto crypto;
     private final ObjectMapper mapper;
-    private final String passphrase;
+    private String passphrase;
     private final ReentrantLock writeLock = new ReentrantLock();
-    private WalletFile walletCache;
-    private DeterministicKey hdkeyCache;
-
+    /**
+     * The published wallet snapshot. Readers take it without locking; writers hold {@link #writeLock} and publish a new
+     * snapshot in place of the one they started from, never editing a published one. The snapshot's collections are
+     * unmodifiable, but its fields and those of its IDs are plain public fields: readers share one instance and must
+     * not assign them.
+     */
+    private final AtomicReference<WalletFile> walletCache = new AtomicReference<>();
+    private final KeyDerivationCache keys;
+    private WalletSession session;
+    /**
+     * Set by {@link #lock()} and by an idle session expiring; until {@link #clearLock()} no session is unlocked with the
+     * passphrase, so every operation needing the seed or a private key fails.
+     */
+    private boolean locked;
+    private Duration sessionIdleTimeout = WalletSession.DEFAULT_IDLE_TIMEOUT;
+    private String snapshotHash;
+    private int journalRecords;
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    private Duration groupCommitWindow = DEFAULT_GROUP_COMMIT_WINDOW;
+    private CompletableFuture<Boolean> pendingFlush;
+    private final List<WalletDelta> pendingDeltas = new ArrayList<>();
+    private boolean pendingSnapshot;
+    /** The wallet as last written to {@link #recordStore}; mutations are diffed against it. */
+    private WalletFile recordBase;
+    /** The ordinals stored with the ID and name records of {@link #recordBase}. */
+    private Map<List<Object>, Long> recordOrdinals = Map.of();
+    /** Set by {@link #close()} while holding both {@link #writeLock} and this object's monitor. */
+    private boolean closed;
+
+    @SuppressWarnings("unchecked")
     public KeymasterWalletManager(
         WalletStore<WalletEncFile> store,
         KeymasterCrypto crypto,
         String passphrase
     ) {
         this.store = store;
+        this.journal = store instanceof WalletJournalStore ? (WalletJournalStore<WalletEncFile>) store : null;
+        this.recordStore = store instanceof WalletRecordStore ? (WalletRecordStore<WalletEncFile>) store : null;
         this.crypto = crypto;
         this.mapper = WalletJsonMapper.mapper();
         this.passphrase = passphrase;
+        this.keys = new KeyDerivationCache(crypto, KeyDerivationCache.DEFAULT_MAX_KEY_PAIRS);
     }
 
     public WalletFile loadWallet() {
-        if (walletCache != null) {
-            return walletCache;
+        WalletFile cached = walletCache.get();
+        if (cached != null) {
+            return cached;
+        }
+
+        writeLock.lock();
+        try {
+            requireOpen();
+            cached = walletCache.get();
+            return cached != null ? cached : loadStoredWallet();
+        } finally {
+            writeLock.unlock();
         }
+    }
 
+    private WalletFile loadStoredWallet() {
         WalletEncFile stored = store.loadWallet();
         if (stored == null) {
             return null;
@@ -66,32 +134,77 @@ public class KeymasterWalletManager {
             store.saveWallet(encryptWalletForStorage(wallet), true);
         } else if (isV1WithEnc(stored)) {
             wallet = decryptWalletFromStorage(stored);
+            snapshotSaved(stored);
+            if (recordStore != null && Boolean.TRUE.equals(stored.extra.get(RECORDS_HEADER))) {
+                recordOrdinals = loadRecords(wallet);
+                wallet = WalletDraft.snapshot(wallet);
+                recordBase = wallet;
+                walletCache.set(wallet);
+                return wallet;
+            } else if (journal != null && replayJournal(wallet)) {
+                wallet = WalletDraft.snapshot(wallet);
+                walletCache.set(wallet);
+                saveSnapshot(wallet, true);
+                return walletCache.get();
+            }
         } else if (isV1Decrypted(stored)) {
             wallet = toWalletFile(stored);
         } else {
             throw new IllegalStateException("Keymaster: Unsupported wallet version.");
         }
 
-        walletCache = wallet;
-        return walletCache;
+        wallet = WalletDraft.snapshot(wallet);
+        walletCache.set(wallet);
+        return wallet;
     }
 
+    /**
+     * Saves a copy of {@code wallet} and publishes it, so later changes to the caller's wallet do not reach the
+     * snapshot.
+     */
     public boolean saveWallet(WalletFile wallet, boolean overwrite) {
-        WalletFile upgraded = upgradeWallet(wallet);
-        WalletEncFile stored = encryptWalletForStorage(upgraded);
+        writeLock.lock();
+        try {
+            requireOpen();
+            return saveSnapshot(WalletDraft.snapshot(upgradeWallet(wallet)), overwrite);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Saves and publishes a wallet already in snapshot form, such as one from {@link WalletDraft#commit()}. Callers
+     * hold {@link #writeLock}.
+     */
+    private boolean saveSnapshot(WalletFile wallet, boolean overwrite) {
+        if (recordStore != null) {
+            return saveRecords(wallet, overwrite);
+        }
+        WalletEncFile stored = encryptWalletForStorage(wallet);
         boolean ok = store.saveWallet(stored, overwrite);
         if (ok) {
-            walletCache = upgraded;
+            walletCache.set(wallet);
+            snapshotSaved(stored);
         }
         return ok;
     }
 
     boolean saveStoredWallet(WalletEncFile stored, boolean overwrite) {
-        boolean ok = store.saveWallet(stored, overwrite);
-        if (ok) {
-            walletCache = decryptWalletFromStorage(stored);
+        writeLock.lock();
+        try {
+            requireOpen();
+            if (recordStore != null) {
+                return saveWallet(decryptWalletFromStorage(stored), overwrite);
+            }
+            boolean ok = store.saveWallet(stored, overwrite);
+            if (ok) {
+                walletCache.set(WalletDraft.snapshot(decryptWalletFromStorage(stored)));
+                snapshotSaved(stored);
+            }
+            return ok;
+        } finally {
+            writeLock.unlock();
         }
-        return ok;
     }
 
     void decryptStoredWallet(WalletEncFile stored) {
@@ -99,40 +212,508 @@ public class KeymasterWalletManager {
     }
 
     public boolean mutateWallet(Consumer<WalletFile> mutator) {
+        if (store.durability() != WalletDurability.BATCHED) {
+            writeLock.lock();
+            try {
+                WalletDraft draft = draft(mutator);
+                return draft != null && persist(draft);
+            } finally {
+                writeLock.unlock();
+            }
+        }
+        try {
+            return mutateWalletAsync(mutator).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Applies {@code mutator} to the in-memory wallet right away. The returned future completes once the change is
+     * persisted with the store's durability; for a {@link WalletDurability#BATCHED} store, that is when the group
+     * commit holding it has been written and forced to disk. Mutator exceptions are thrown directly.
+     */
+    public CompletableFuture<Boolean> mutateWalletAsync(Consumer<WalletFile> mutator) {
         writeLock.lock();
         try {
-            WalletFile wallet = loadWallet();
-            if (wallet == null) {
-                throw new IllegalStateException("No wallet loaded");
+            WalletDraft draft = draft(mutator);
+            if (draft == null) {
+                return CompletableFuture.completedFuture(false);
+            }
+            if (store.durability() != WalletDurability.BATCHED) {
+                return CompletableFuture.completedFuture(persist(draft));
+            }
+
+            WalletDelta delta = journal != null && snapshotHash != null && !pendingSnapshot
+                ? draft.delta(mapper)
+                : null;
+            publish(draft.base(), draft.commit());
+            if (delta != null) {
+                pendingDeltas.add(delta);
+            } else if (recordStore == null) {
+                pendingDeltas.clear();
+                pendingSnapshot = true;
             }
+            if (pendingFlush == null) {
+                pendingFlush = new CompletableFuture<>();
+                CompletableFuture.delayedExecutor(groupCommitWindow.toNanos(), TimeUnit.NANOSECONDS)
+                    .execute(this::flushPending);
+            }
+            // Each caller gets its own view, so completing or cancelling it cannot settle the shared flush.
+            return pendingFlush.copy();
+        } finally {
+            writeLock.unlock();
+        }
+    }
 
-            WalletFile working = deepCopyWallet(wallet);
-            String before = toJson(mapper, walletToMap(working));
-            mutator.accept(working);
-            String after = toJson(mapper, walletToMap(working));
+    /**
+     * Persists any batched mutations now instead of waiting for the group commit window.
+     */
+    public boolean flush() {
+        CompletableFuture<Boolean> flushed;
+        writeLock.lock();
+        try {
+            flushed = pendingFlush;
+        } finally {
+            writeLock.unlock();
+        }
+        if (flushed == null) {
+            return true;
+        }
+        flushPending();
+        return flushed.join();
+    }
 
-            if (Objects.equals(before, after)) {
-                return false;
+    /**
+     * Flushes pending writes, then drops the passphrase, the decrypted wallet and every key derived from it. Any later
+     * load, write or unlock fails, so a closed manager can no longer overwrite what another one has written.
+     */
+    public void close() {
+        writeLock.lock();
+        try {
+            if (closed) {
+                return;
             }
+            flush();
+        } finally {
+            try {
+                synchronized (this) {
+                    closed = true;
+                    passphrase = null;
+                    clearKeys();
+                }
+                walletCache.set(null);
+                recordBase = null;
+                recordOrdinals = Map.of();
+                pendingDeltas.clear();
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
 
-            boolean ok = saveWallet(working, true);
-            if (ok) {
-                walletCache = working;
+    private void requireOpen() {
+        if (closed) {
+            throw new IllegalStateException("Keymaster: Closed.");
+        }
+    }
+
+    void setGroupCommitWindow(Duration window) {
+        if (window == null || window.isNegative()) {
+            throw new IllegalArgumentException("window must be >= 0");
+        }
+        writeLock.lock();
+        try {
+            groupCommitWindow = window;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private WalletDraft draft(Consumer<WalletFile> mutator) {
+        WalletFile wallet = loadWallet();
+        if (wallet == null) {
+            throw new IllegalStateException("No wallet loaded");
+        }
+
+        WalletDraft draft = WalletDraft.of(wallet);
+        mutator.accept(draft.working());
+        return draft.isChanged() ? draft : null;
+    }
+
+    private boolean persist(WalletDraft draft) {
+        if (recordStore != null) {
+            return writeRecords(draft.commit());
+        }
+        WalletDelta delta = journal != null && snapshotHash != null ? draft.delta(mapper) : null;
+        WalletFile committed = draft.commit();
+        if (delta != null && appendJournal(committed, List.of(delta))) {
+            publish(draft.base(), committed);
+            return true;
+        }
+        return saveSnapshot(committed, true);
+    }
+
+    /**
+     * Swaps in the snapshot a writer derived from {@code base}. Writers hold {@link #writeLock}, so a failed swap means
+     * the wallet was replaced by a path that bypassed it.
+     */
+    private void publish(WalletFile base, WalletFile next) {
+        if (!walletCache.compareAndSet(base, next)) {
+            throw new IllegalStateException("Keymaster: Wallet changed concurrently.");
+        }
+    }
+
+    private void flushPending() {
+        writeLock.lock();
+        CompletableFuture<Boolean> flushed = pendingFlush;
+        try {
+            if (flushed == null) {
+                return;
             }
-            return ok;
+            pendingFlush = null;
+            boolean ok = true;
+            if (pendingSnapshot) {
+                ok = saveSnapshot(walletCache.get(), true);
+            } else if (recordStore != null) {
+                ok = writeRecords(walletCache.get());
+            } else if (!pendingDeltas.isEmpty() && !appendJournal(walletCache.get(), pendingDeltas)) {
+                ok = saveSnapshot(walletCache.get(), true);
+            }
+            pendingDeltas.clear();
+            pendingSnapshot = !ok;
+            flushed.complete(ok);
+        } catch (RuntimeException e) {
+            pendingDeltas.clear();
+            pendingSnapshot = true;
+            flushed.completeExceptionally(e);
         } finally {
             writeLock.unlock();
         }
     }
 
+    private boolean appendJournal(WalletFile wallet, List<WalletDelta> deltas) {
+        var jwk = masterKeyPair(wallet);
+        List<String> records = new ArrayList<>(deltas.size());
+        for (WalletDelta delta : deltas) {
+            Map<String, Object> record = new java.util.LinkedHashMap<>();
+            record.put("snapshot", snapshotHash);
+            record.put("seq", journalRecords + records.size());
+            record.put("ops", delta.ops());
+            records.add(crypto.encryptMessage(jwk.publicJwk, jwk.privateJwk, toJson(mapper, record)));
+        }
+        if (!journal.appendRecords(journalRecords, records)) {
+            return false;
+        }
+        journalRecords += records.size();
+        if (journalRecords >= JOURNAL_COMPACT_RECORDS) {
+            compactInBackground();
+        }
+        return true;
+    }
+
+    /**
+     * Applies the journal records that follow the loaded snapshot to {@code wallet}, stopping at the first record that
+     * does not follow on from the ones before it. Returns whether the journal should be compacted right away because
+     * it held such records: left over from an earlier snapshot, appended out of sequence by another writer, or torn by
+     * a crash.
+     */
+    private boolean replayJournal(WalletFile wallet) {
+        List<String> records = journal.loadRecords();
+        journalRecords = 0;
+        if (records.isEmpty()) {
+            return false;
+        }
+
+        var jwk = masterKeyPair(wallet);
+        Map<String, Object> data = walletToMap(wallet);
+        for (int i = 0; i < records.size(); i++) {
+            Map<String, Object> record;
+            try {
+                record = fromJson(mapper, crypto.decryptMessage(jwk.publicJwk, jwk.privateJwk, records.get(i)));
+            } catch (RuntimeException e) {
+                break;
+            }
+            if (!snapshotHash.equals(record.get("snapshot")) || !Integer.valueOf(i).equals(record.get("seq"))) {
+                break;
+            }
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> ops = (List<Map<String, Object>>) record.get("ops");
+            WalletDelta.apply(data, ops);
+            journalRecords = i + 1;
+        }
+        if (journalRecords == 0) {
+            return true;
+        }
+
+        data.put("version", wallet.version);
+        data.put("seed", wallet.seed);
+        WalletFile replayed = mapper.convertValue(data, WalletFile.class);
+        wallet.counter = replayed.counter;
+        wallet.ids = replayed.ids;
+        wallet.current = replayed.current;
+        wallet.names = replayed.names;
+        wallet.extras = replayed.extras;
+        return journalRecords < records.size();
+    }
+
+    private boolean saveRecords(WalletFile wallet, boolean overwrite) {
+        WalletEncFile header = encryptRecordHeader(wallet);
+        WalletRecords records = WalletRecords.all(wallet, mapper);
+        Map<String, String> rows = encryptRecords(wallet, records.upserts);
+        boolean ok = recordStore.replaceRecords(header, rows, overwrite);
+        if (ok) {
+            walletCache.set(wallet);
+            recordBase = wallet;
+            recordOrdinals = records.ordinals;
+            snapshotSaved(header);
+        }
+        return ok;
+    }
+
+    /**
+     * Writes only the records that changed since {@link #recordBase}, falling back to a full save when the stored
+     * wallet is not yet split into records.
+     */
+    private boolean writeRecords(WalletFile wallet) {
+        if (recordBase == null) {
+            return saveSnapshot(wallet, true);
+        }
+        WalletRecords changes = WalletRecords.diff(recordBase, recordOrdinals, wallet, mapper);
+        WalletEncFile header = changes.headerChanged ? encryptRecordHeader(wallet) : null;
+        Map<String, String> upserts = encryptRecords(wallet, changes.upserts);
+        List<String> deletes = new ArrayList<>(changes.deletes.size());
+        if (!changes.deletes.isEmpty()) {
+            Mac mac = recordKeyMac(masterKeyPair(wallet));
+            for (List<Object> key : changes.deletes) {
+                deletes.add(recordKey(mac, key));
+            }
+        }
+
+        boolean ok = header == null && upserts.isEmpty() && deletes.isEmpty()
+            || recordStore.updateRecords(header, upserts, deletes);
+        if (ok) {
+            walletCache.set(wallet);
+            recordBase = wallet;
+            recordOrdinals = changes.ordinals;
+        }
+        return ok;
+    }
+
+    private Map<List<Object>, Long> loadRecords(WalletFile wallet) {
+        var jwk = masterKeyPair(wallet);
+        Mac mac = recordKeyMac(jwk);
+        Map<List<Object>, Object> records = new HashMap<>();
+        String afterKey = null;
+        while (true) {
+            Map<String, String> page = recordStore.loadRecords(afterKey, RECORD_PAGE_SIZE);
+            for (Map.Entry<String, String> row : page.entrySet()) {
+                Map<String, Object> record = fromJson(
+                    mapper,
+                    crypto.decryptMessage(jwk.publicJwk, jwk.privateJwk, row.getValue())
+                );
+                if (!(record.get("key") instanceof List) || !recordKey(mac, record.get("key")).equals(row.getKey())) {
+                    throw new IllegalStateException("Keymaster: Corrupt wallet records.");
+                }
+                @SuppressWarnings("unchecked")
+                List<Object> key = (List<Object>) record.get("key");
+                records.put(key, record.get("value"));
+                afterKey = row.getKey();
+            }
+            if (page.size() < RECORD_PAGE_SIZE) {
+                break;
+            }
+        }
+        return WalletRecords.assemble(wallet, records, mapper);
+    }
+
+    private WalletEncFile encryptRecordHeader(WalletFile wallet) {
+        WalletEncFile header = encryptWalletForStorage(WalletRecords.header(wallet));
+        header.extra.put(RECORDS_HEADER, true);
+        return header;
+    }
+
+    /**
+     * Encrypts each record together with its logical key, and stores it under a keyed hash of that key so the store
+     * learns neither ID names nor aliases.
+     */
+    private Map<String, String> encryptRecords(WalletFile wallet, Map<List<Object>, Object> records) {
+        Map<String, String> rows = new java.util.LinkedHashMap<>();
+        if (records.isEmpty()) {
+            return rows;
+        }
+        var jwk = masterKeyPair(wallet);
+        Mac mac = recordKeyMac(jwk);
+        for (Map.Entry<List<Object>, Object> record : records.entrySet()) {
+            Map<String, Object> data = new java.util.LinkedHashMap<>();
+            data.put("key", record.getKey());
+            data.put("value", record.getValue());
+            rows.put(
+                recordKey(mac, record.getKey()),
+                crypto.encryptMessage(jwk.publicJwk, jwk.privateJwk, toJson(mapper, data))
+            );
+        }
+        return rows;
+    }
+
+    private static Mac recordKeyMac(JwkPair jwk) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(Base64.getUrlDecoder().decode(jwk.privateJwk.d), "HmacSHA256"));
+            byte[] recordKey = mac.doFinal("keymaster wallet record keys".getBytes(StandardCharsets.UTF_8));
+            mac.init(new SecretKeySpec(recordKey, "HmacSHA256"));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+
+    private String recordKey(Mac mac, Object key) {
+        try {
+            return Hex.encode(mac.doFinal(mapper.writeValueAsBytes(key)));
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to serialize wallet record key", e);
+        }
+    }
+
+    private void snapshotSaved(WalletEncFile stored) {
+        snapshotHash = journal != null && stored.enc != null ? crypto.hashMessage(stored.enc) : null;
+        journalRecords = 0;
+        pendingDeltas.clear();
+        pendingSnapshot = false;
+    }
+
+    private void compactInBackground() {
+        if (!compacting.compareAndSet(false, true)) {
+            return;
+        }
+        CompletableFuture.runAsync(() -> {
+            writeLock.lock();
+            try {
+                WalletFile wallet = walletCache.get();
+                if (wallet != null && journalRecords > 0) {
+                    saveSnapshot(wallet, true);
+                }
+            } finally {
+                writeLock.unlock();
+                compacting.set(false);
+            }
+        });
+    }
+
     DeterministicKey getHdKeyFromCacheOrMnemonic(WalletFile wallet) {
-        if (hdkeyCache != null) {
-            return hdkeyCache;
+        return session(wallet).master();
+    }
+
+    synchronized WalletSession session(WalletFile wallet) {
+        EncryptedMnemonic enc = wallet != null && wallet.seed != null ? wallet.seed.mnemonicEnc : null;
+        if (enc == null) {
+            throw new IllegalStateException("wallet mnemonic not available");
+        }
+        requireUnlockable();
+        // A different encrypted seed means the wallet was replaced, so nothing derived so far may be reused.
+        if (session != null && session.matches(enc)) {
+            return session;
+        }
+
+        requireOpen();
+        clearKeys();
+        session = WalletSession.unlock(enc, passphrase, sessionIdleTimeout);
+        return session;
+    }
+
+    synchronized void unlock(WalletSession unlocked) {
+        if (unlocked == null || !unlocked.isUnlocked()) {
+            throw new IllegalArgumentException("session must be unlocked");
+        }
+        requireOpen();
+        if (unlocked != session) {
+            clearKeys();
+            session = unlocked;
+        }
+        locked = false;
+    }
+
+    /**
+     * Wipes the session and its derived keys and keeps the wallet locked until {@link #clearLock()}.
+     */
+    synchronized void lock() {
+        clearKeys();
+        locked = true;
+    }
+
+    synchronized void clearLock() {
+        requireOpen();
+        locked = false;
+    }
+
+    synchronized boolean isUnlocked() {
+        expireSession();
+        return session != null;
+    }
+
+    synchronized void setSessionIdleTimeout(Duration idleTimeout) {
+        sessionIdleTimeout = idleTimeout;
+    }
+
+    synchronized EncryptedMnemonic newSeed(String mnemonic) {
+        requireOpen();
+        requireUnlockable();
+        clearKeys();
+        session = WalletSession.create(mnemonic, passphrase, sessionIdleTimeout);
+        return session.seed();
+    }
+
+    String decryptMnemonic(WalletFile wallet) {
+        return session(wallet).decryptMnemonic(wallet.seed.mnemonicEnc);
+    }
+
+    JwkPair deriveKeyPair(WalletFile wallet, int account, int index) {
+        return keys.keyPair(getHdKeyFromCacheOrMnemonic(wallet), account, index);
+    }
+
+    List<JwkPair> deriveOlderKeyPairs(WalletFile wallet, int account, int index) {
+        return keys.olderKeyPairs(getHdKeyFromCacheOrMnemonic(wallet), account, index);
+    }
+
+    /**
+     * The extended public key of the account's chain node, from which every key of an ID can be derived.
+     */
+    String accountXpub(WalletFile wallet, int account) {
+        return HdKeyUtil.toXpub(keys.chain(getHdKeyFromCacheOrMnemonic(wallet), account));
+    }
+
+    JwkPair masterKeyPair(WalletFile wallet) {
+        return keys.masterKeyPair(getHdKeyFromCacheOrMnemonic(wallet));
+    }
+
+    synchronized void clearKeys() {
+        keys.clear();
+        if (session != null) {
+            session.lock();
+            session = null;
         }
+    }
+
+    /**
+     * Idle expiry is checked here, on the next access, rather than by a timer; an expired session locks the wallet
+     * like {@link #lock()} and its derived keys are wiped now.
+     */
+    private void expireSession() {
+        if (session != null && !session.isUnlocked()) {
+            clearKeys();
+            locked = true;
+        }
+    }
 
-        String mnemonic = MnemonicEncryption.decrypt(wallet.seed.mnemonicEnc, passphrase);
-        hdkeyCache = HdKeyUtil.masterFromMnemonic(mnemonic);
-        return hdkeyCache;
+    private void requireUnlockable() {
+        expireSession();
+        if (locked) {
+            throw new IllegalStateException("Keymaster: Wallet locked.");
+        }
     }
 
     WalletFile upgradeWallet(WalletFile wallet) {
@@ -155,7 +736,7 @@ public class KeymasterWalletManager {
             String mnemonic = crypto.decryptMessage(jwk.publicJwk, jwk.privateJwk, wallet.seed.mnemonic);
 
             Seed seed = new Seed();
-            seed.mnemonicEnc = MnemonicEncryption.encrypt(mnemonic, passphrase);
+            seed.mnemonicEnc = newSeed(mnemonic);
 
             WalletFile upgraded = new WalletFile();
             upgraded.version = 1;
@@ -166,7 +747,6 @@ public class KeymasterWalletManager {
             upgraded.names = wallet.names;
             upgraded.extras = wallet.extras;
 
-            hdkeyCache = HdKeyUtil.masterFromMnemonic(mnemonic);
             return upgraded;
         }
 
@@ -182,8 +762,7 @@ public class KeymasterWalletManager {
         safeSeed.mnemonicEnc = wallet.seed.mnemonicEnc;
 
         String plaintext = toJson(mapper, walletToMap(wallet));
-        DeterministicKey master = getHdKeyFromCacheOrMnemonic(wallet);
-        var jwk = crypto.generateJwk(HdKeyUtil.privateKeyBytes(master));
+        var jwk = masterKeyPair(wallet);
         String enc = crypto.encryptMessage(jwk.publicJwk, jwk.privateJwk, plaintext);
 
         WalletEncFile stored = new WalletEncFile();
@@ -202,8 +781,7 @@ public class KeymasterWalletManager {
         wallet.version = stored.version;
         wallet.seed = stored.seed;
 
-        DeterministicKey master = getHdKeyFromCacheOrMnemonic(wallet);
-        var jwk = crypto.generateJwk(HdKeyUtil.privateKeyBytes(master));
+        var jwk = masterKeyPair(wallet);
         String plaintext = crypto.decryptMessage(jwk.publicJwk, jwk.privateJwk, stored.enc);
 
         Map<String, Object> data = fromJson(mapper, plaintext);
@@ -306,13 +884,4 @@ public class KeymasterWalletManager {
             throw new IllegalStateException("Failed to parse wallet", e);
         }
     }
-
-    private WalletFile deepCopyWallet(WalletFile wallet) {
-        try {
-            String json = mapper.writeValueAsString(wallet);
-            return mapper.readValue(json, WalletFile.class);
-        } catch (Exception e) {
-            throw new IllegalStateException("Failed to clone wallet", e);
-        }
-    }
 }
@@ -5,6 +5,7 @@ import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.Objects;
+import org.keychain.crypto.CanonicalSnapshot;
 import org.keychain.crypto.JwkPrivate;
 import org.keychain.crypto.KeymasterCrypto;
 import org.keychain.gatekeeper.model.Operation;
@@ -37,7 +38,7 @@ public class OperationSignerImpl implements OperationSigner {
             throw new IllegalArgumentException("signerDid is required");
         }
 
-        String msgHash = crypto.hashJson(copyWithoutSignature(operation));
+        String msgHash = crypto.hashJson(CanonicalSnapshot.of(operation).without("signature"));
         String signatureValue = crypto.signHash(msgHash, privateJwk);
 
         Signature signature = new Signature();
@@ -60,7 +61,7 @@ public class OperationSignerImpl implements OperationSigner {
             throw new IllegalArgumentException("privateJwk is required");
         }
 
-        String msgHash = crypto.hashJson(copyWithoutSignature(operation));
+        String msgHash = crypto.hashJson(CanonicalSnapshot.of(operation).without("signature"));
         String signatureValue = crypto.signHash(msgHash, privateJwk);
 
         Signature signature = new Signature();
@@ -77,12 +78,6 @@ public class OperationSignerImpl implements OperationSigner {
         return ISO_MILLIS.format(Instant.now(clock));
     }
 
-    private static Operation copyWithoutSignature(Operation operation) {
-        Operation copy = copyOperation(operation);
-        copy.signature = null;
-        return copy;
-    }
-
     private static Operation copyOperation(Operation operation) {
         Operation copy = new Operation();
         copy.type = operation.type;
@@ -0,0 +1,93 @@
+package org.keychain.keymaster;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Copy-on-write view of a list: reads go to the shared base list until the first write, which copies it and
+ * marks the view dirty.
+ */
+final class TrackedList<E> extends AbstractList<E> implements RandomAccess {
+    private final List<E> base;
+    private List<E> copy;
+    private boolean dirty;
+    private boolean appendOnly = true;
+
+    TrackedList(List<E> base) {
+        this.base = base;
+    }
+
+    boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Elements added after the base elements, or {@code null} if any write did more than append.
+     */
+    List<E> appended() {
+        if (!appendOnly) {
+            return null;
+        }
+        return copy != null ? copy.subList(base.size(), copy.size()) : List.of();
+    }
+
+    /**
+     * The list to keep once the draft is committed: the shared base if nothing was written.
+     */
+    List<E> unwrap() {
+        return copy != null ? copy : base;
+    }
+
+    @Override
+    public E get(int index) {
+        return unwrap().get(index);
+    }
+
+    @Override
+    public int size() {
+        return unwrap().size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return unwrap().contains(o);
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        return unwrap().indexOf(o);
+    }
+
+    @Override
+    public E set(int index, E element) {
+        appendOnly = false;
+        return writable().set(index, element);
+    }
+
+    @Override
+    public void add(int index, E element) {
+        if (index != size()) {
+            appendOnly = false;
+        }
+        writable().add(index, element);
+        modCount++;
+    }
+
+    @Override
+    public E remove(int index) {
+        appendOnly = false;
+        E removed = writable().remove(index);
+        modCount++;
+        return removed;
+    }
+
+    private List<E> writable() {
+        if (copy == null) {
+            copy = new ArrayList<>(base);
+        }
+        dirty = true;
+        return copy;
+    }
+}
@@ -0,0 +1,160 @@
+package org.keychain.keymaster;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Copy-on-write view of a map: reads, including iteration, go to the shared base map until the first write, which
+ * copies it and marks the view dirty.
+ */
+final class TrackedMap<K, V> extends AbstractMap<K, V> {
+    private final Map<K, V> base;
+    private Map<K, V> copy;
+    private boolean dirty;
+
+    TrackedMap(Map<K, V> base) {
+        this.base = base;
+    }
+
+    boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * The map to keep once the draft is committed: the shared base if nothing was written.
+     */
+    Map<K, V> unwrap() {
+        return dirty ? copy : base;
+    }
+
+    @Override
+    public V get(Object key) {
+        return current().get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return current().containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return current().size();
+    }
+
+    @Override
+    public V put(K key, V value) {
+        Map<K, V> current = current();
+        if (current.containsKey(key) && Objects.equals(current.get(key), value)) {
+            return value;
+        }
+        dirty = true;
+        return copied().put(key, value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        if (!current().containsKey(key)) {
+            return null;
+        }
+        dirty = true;
+        return copied().remove(key);
+    }
+
+    @Override
+    public void clear() {
+        if (!current().isEmpty()) {
+            dirty = true;
+            copied().clear();
+        }
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return TrackedMap.this.size();
+            }
+        };
+    }
+
+    private Map<K, V> current() {
+        return copy != null ? copy : base;
+    }
+
+    private Map<K, V> copied() {
+        if (copy == null) {
+            copy = new LinkedHashMap<>(base);
+        }
+        return copy;
+    }
+
+    /**
+     * Iterates whichever map is current; a removal through the iterator while it is still on the base copies the
+     * base and carries on from the same entry in the copy.
+     */
+    private final class EntryIterator implements Iterator<Entry<K, V>> {
+        private Iterator<Entry<K, V>> it = current().entrySet().iterator();
+        private boolean onCopy = copy != null;
+        private K lastKey;
+        private boolean canRemove;
+
+        @Override
+        public boolean hasNext() {
+            return it.hasNext();
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            Entry<K, V> entry = it.next();
+            lastKey = entry.getKey();
+            canRemove = true;
+            return new SimpleEntry<>(entry) {
+                @Override
+                public V setValue(V value) {
+                    V previous = super.setValue(value);
+                    if (!Objects.equals(previous, value)) {
+                        dirty = true;
+                        copied().put(getKey(), value);
+                    }
+                    return previous;
+                }
+            };
+        }
+
+        @Override
+        public void remove() {
+            if (!canRemove) {
+                throw new IllegalStateException();
+            }
+            canRemove = false;
+            if (!onCopy) {
+                Iterator<Entry<K, V>> copied = copied().entrySet().iterator();
+                while (true) {
+                    if (!copied.hasNext()) {
+                        throw new ConcurrentModificationException();
+                    }
+                    if (Objects.equals(copied.next().getKey(), lastKey)) {
+                        break;
+                    }
+                }
+                it = copied;
+                onCopy = true;
+            }
+            it.remove();
+            dirty = true;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.keychain.keymaster;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU set of batch signatures whose Merkle root has already passed EC verification, keyed by signer, signing
+ * time, root and signature value. Later items of the same batch then only need their inclusion path checked.
+ */
+final class VerifiedRootCache {
+    static final int DEFAULT_MAX_ENTRIES = 1024;
+
+    private final int maxEntries;
+    private final LinkedHashMap<String, Boolean> entries;
+
+    VerifiedRootCache(int maxEntries) {
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException("maxEntries must be >= 0");
+        }
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > VerifiedRootCache.this.maxEntries;
+            }
+        };
+    }
+
+    static String key(String signer, String signed, String root, String value) {
+        return signer + '\n' + signed + '\n' + root + '\n' + value;
+    }
+
+    synchronized boolean contains(String key) {
+        return entries.get(key) != null;
+    }
+
+    synchronized void add(String key) {
+        if (maxEntries > 0) {
+            entries.put(key, Boolean.TRUE);
+        }
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized void clear() {
+        entries.clear();
+    }
+}
@@ -3,6 +3,7 @@ package org.keychain.keymaster;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.Map;
+import org.bitcoinj.crypto.DeterministicKey;
 import org.keychain.crypto.KeymasterCrypto;
 import org.keychain.crypto.HdKeyUtil;
 import org.keychain.crypto.MnemonicEncryption;
@@ -15,11 +16,23 @@ public class WalletCrypto {
     private final KeymasterCrypto crypto;
     private final ObjectMapper mapper;
     private final String passphrase;
+    private final WalletSession session;
 
     public WalletCrypto(KeymasterCrypto crypto, String passphrase) {
         this.crypto = crypto;
         this.mapper = WalletJsonMapper.mapper();
         this.passphrase = passphrase;
+        this.session = null;
+    }
+
+    public WalletCrypto(KeymasterCrypto crypto, WalletSession session) {
+        if (session == null) {
+            throw new IllegalArgumentException("session is required");
+        }
+        this.crypto = crypto;
+        this.mapper = WalletJsonMapper.mapper();
+        this.passphrase = null;
+        this.session = session;
     }
 
     public WalletEncFile encryptForStorage(WalletFile wallet) {
@@ -31,8 +44,16 @@ public class WalletCrypto {
         safeSeed.mnemonicEnc = wallet.seed.mnemonicEnc;
 
         String plaintext = toJson(mapper, walletToMap(wallet));
-        String mnemonic = MnemonicEncryption.decrypt(wallet.seed.mnemonicEnc, passphrase);
-        var master = HdKeyUtil.masterFromMnemonic(mnemonic);
+        DeterministicKey master;
+        if (session != null && session.matches(wallet.seed.mnemonicEnc)) {
+            master = session.master();
+        } else {
+            if (passphrase == null) {
+                throw new IllegalStateException("session does not belong to this wallet seed");
+            }
+            String mnemonic = MnemonicEncryption.decrypt(wallet.seed.mnemonicEnc, passphrase);
+            master = HdKeyUtil.masterFromMnemonic(mnemonic);
+        }
         var jwk = crypto.generateJwk(HdKeyUtil.privateKeyBytes(master));
         String enc = crypto.encryptMessage(jwk.publicJwk, jwk.privateJwk, plaintext);
 
@@ -0,0 +1,90 @@
+package org.keychain.keymaster;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ordered edits to the plaintext wallet map (the wallet without {@code version} and {@code seed}), as recorded by
+ * {@link WalletDraft#delta} and replayed on load by {@link #apply}.
+ *
+ * <p>Each op is {@code {"op": "set" | "remove" | "append", "path": [...], "value": ...}}; {@code append} adds the
+ * elements of {@code value} to the list at {@code path}.
+ */
+final class WalletDelta {
+    static final String SET = "set";
+    static final String REMOVE = "remove";
+    static final String APPEND = "append";
+
+    private final List<Map<String, Object>> ops = new ArrayList<>();
+
+    void set(List<String> path, Object value) {
+        add(SET, path, value);
+    }
+
+    void remove(List<String> path) {
+        add(REMOVE, path, null);
+    }
+
+    void append(List<String> path, List<?> values) {
+        if (!values.isEmpty()) {
+            add(APPEND, path, new ArrayList<>(values));
+        }
+    }
+
+    boolean isEmpty() {
+        return ops.isEmpty();
+    }
+
+    List<Map<String, Object>> ops() {
+        return ops;
+    }
+
+    private void add(String op, List<String> path, Object value) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("op", op);
+        entry.put("path", path);
+        if (!REMOVE.equals(op)) {
+            entry.put("value", value);
+        }
+        ops.add(entry);
+    }
+
+    @SuppressWarnings("unchecked")
+    static void apply(Map<String, Object> data, List<Map<String, Object>> ops) {
+        for (Map<String, Object> op : ops) {
+            Object pathObj = op.get("path");
+            if (!(pathObj instanceof List<?>) || ((List<?>) pathObj).isEmpty()) {
+                throw new IllegalStateException("wallet delta has no path");
+            }
+            List<String> path = (List<String>) pathObj;
+
+            Map<String, Object> parent = data;
+            for (String key : path.subList(0, path.size() - 1)) {
+                Object child = parent.get(key);
+                if (!(child instanceof Map<?, ?>)) {
+                    child = new LinkedHashMap<String, Object>();
+                    parent.put(key, child);
+                }
+                parent = (Map<String, Object>) child;
+            }
+
+            String last = path.get(path.size() - 1);
+            Object value = op.get("value");
+            String name = String.valueOf(op.get("op"));
+            if (SET.equals(name)) {
+                parent.put(last, value);
+            } else if (REMOVE.equals(name)) {
+                parent.remove(last);
+            } else if (APPEND.equals(name) && value instanceof List<?>) {
+                Object current = parent.get(last);
+                List<Object> list = current instanceof List<?> ? (List<Object>) current : new ArrayList<>();
+                list.addAll((List<?>) value);
+                parent.put(last, list);
+            } else {
+                throw new IllegalStateException("unknown wallet delta op: " + name);
+            }
+        }
+    }
+}
@@ -0,0 +1,422 @@
+package org.keychain.keymaster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.keychain.crypto.EncryptedMnemonic;
+import org.keychain.keymaster.model.HdKey;
+import org.keychain.keymaster.model.IDInfo;
+import org.keychain.keymaster.model.Seed;
+import org.keychain.keymaster.model.WalletFile;
+
+/**
+ * A mutable working copy of a wallet that shares structure with the committed one.
+ *
+ * <p>The seed is copied. Each ID is copied shallowly; its lists and maps, and the wallet's name map, are
+ * copy-on-write views of the committed collections. {@link #isChanged()} compares fields and reads the views' dirty flags instead of
+ * serializing the wallet, and {@link #commit()} keeps every untouched collection and ID shared with the base.
+ *
+ * <p>Committed wallets are published as snapshots, so their collections are unmodifiable; {@link #snapshot} brings
+ * a wallet from elsewhere into that form.
+ */
+final class WalletDraft {
+    private final WalletFile base;
+    private final WalletFile working;
+    private final Map<String, String> names;
+    private final Map<String, IDInfo> ids;
+    private final Map<IDInfo, IDInfo> originals = new IdentityHashMap<>();
+
+    private WalletDraft(WalletFile base) {
+        this.base = base;
+        this.working = new WalletFile();
+        working.version = base.version;
+        working.seed = copySeed(base.seed);
+        working.counter = base.counter;
+        working.current = base.current;
+        this.names = base.names != null ? new TrackedMap<>(base.names) : null;
+        working.names = names;
+        working.extras = copyMap(base.extras);
+
+        if (base.ids != null) {
+            Map<String, IDInfo> copies = new LinkedHashMap<>();
+            for (Map.Entry<String, IDInfo> entry : base.ids.entrySet()) {
+                IDInfo original = entry.getValue();
+                IDInfo copy = original != null ? copyId(original) : null;
+                if (copy != null) {
+                    originals.put(copy, original);
+                }
+                copies.put(entry.getKey(), copy);
+            }
+            this.ids = new TrackedMap<>(copies);
+        } else {
+            this.ids = null;
+        }
+        working.ids = ids;
+    }
+
+    static WalletDraft of(WalletFile base) {
+        if (base == null) {
+            throw new IllegalArgumentException("base is required");
+        }
+        return new WalletDraft(base);
+    }
+
+    WalletFile base() {
+        return base;
+    }
+
+    WalletFile working() {
+        return working;
+    }
+
+    boolean isChanged() {
+        if (!Objects.equals(working.version, base.version)
+            || !sameSeed(working.seed, base.seed)
+            || working.counter != base.counter
+            || !Objects.equals(working.current, base.current)
+            || !Objects.equals(working.extras, base.extras)) {
+            return true;
+        }
+        if (working.names != names || isChanged(names, null)) {
+            return true;
+        }
+        if (working.ids != ids || isChanged(ids, null)) {
+            return true;
+        }
+        if (ids != null) {
+            for (IDInfo id : ids.values()) {
+                if (id != null && isChanged(id, originals.get(id))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The edits that turn the base into the working wallet, or {@code null} when the version or seed changed and
+     * the wallet has to be stored whole. Appends to an ID's lists are recorded as appends rather than whole
+     * lists; other changed fields are recorded at field level with their full value.
+     */
+    WalletDelta delta(ObjectMapper mapper) {
+        if (!Objects.equals(working.version, base.version) || !sameSeed(working.seed, base.seed)) {
+            return null;
+        }
+
+        WalletDelta delta = new WalletDelta();
+        if (working.counter != base.counter) {
+            delta.set(List.of("counter"), working.counter);
+        }
+        if (!Objects.equals(working.current, base.current)) {
+            delta.set(List.of("current"), working.current);
+        }
+        if (working.names != names || isChanged(names, null)) {
+            delta.set(List.of("names"), mapper.convertValue(unwrap(working.names), Object.class));
+        }
+        if (!Objects.equals(working.extras, base.extras)) {
+            delta.set(List.of("extras"), mapper.convertValue(working.extras, Object.class));
+        }
+
+        if (working.ids != ids) {
+            delta.set(List.of("ids"), mapper.convertValue(working.ids, Object.class));
+            return delta;
+        }
+        if (ids == null || !isChanged()) {
+            return delta;
+        }
+        for (String name : base.ids.keySet()) {
+            if (!ids.containsKey(name)) {
+                delta.remove(List.of("ids", name));
+            }
+        }
+        for (Map.Entry<String, IDInfo> entry : ids.entrySet()) {
+            String name = entry.getKey();
+            IDInfo id = entry.getValue();
+            IDInfo original = id != null ? originals.get(id) : null;
+            if (original == null || original != base.ids.get(name)) {
+                delta.set(List.of("ids", name), mapper.convertValue(id != null ? unwrapId(copyOf(id)) : null, Object.class));
+            } else if (isChanged(id, original)) {
+                idDelta(delta, mapper, name, id, original);
+            }
+        }
+        return delta;
+    }
+
+    private static void idDelta(WalletDelta delta, ObjectMapper mapper, String name, IDInfo id, IDInfo original) {
+        if (!Objects.equals(id.did, original.did)) {
+            delta.set(List.of("ids", name, "did"), id.did);
+        }
+        if (id.account != original.account) {
+            delta.set(List.of("ids", name, "account"), id.account);
+        }
+        if (id.index != original.index) {
+            delta.set(List.of("ids", name, "index"), id.index);
+        }
+        listDelta(delta, mapper, List.of("ids", name, "held"), id.held, original.held);
+        listDelta(delta, mapper, List.of("ids", name, "owned"), id.owned, original.owned);
+        if (isChanged(id.keyIndex, original.keyIndex)) {
+            delta.set(List.of("ids", name, "keyIndex"), mapper.convertValue(unwrap(id.keyIndex), Object.class));
+        }
+        if (!Objects.equals(id.extras, original.extras)) {
+            delta.set(List.of("ids", name, "extras"), mapper.convertValue(id.extras, Object.class));
+        }
+    }
+
+    private static void listDelta(WalletDelta delta, ObjectMapper mapper, List<String> path, List<String> list,
+                                  List<String> original) {
+        if (!isChanged(list, original)) {
+            return;
+        }
+        List<String> appended = list instanceof TrackedList ? ((TrackedList<String>) list).appended() : null;
+        if (appended != null) {
+            delta.append(path, appended);
+        } else {
+            delta.set(path, mapper.convertValue(unwrap(list), Object.class));
+        }
+    }
+
+    /**
+     * The wallet to keep after the mutator ran, with copy-on-write views replaced by the collections they
+     * resolved to and unchanged IDs replaced by the committed instances.
+     */
+    WalletFile commit() {
+        WalletFile committed = new WalletFile();
+        committed.version = working.version;
+        committed.seed = sameSeed(working.seed, base.seed) ? base.seed : working.seed;
+        committed.counter = working.counter;
+        committed.current = working.current;
+        committed.names = readOnly(unwrap(working.names), base.names);
+        committed.extras = Objects.equals(working.extras, base.extras) ? base.extras : readOnlyMap(working.extras);
+
+        Map<String, IDInfo> committedIds = unwrap(working.ids);
+        if (committedIds != null) {
+            Map<String, IDInfo> resolved = new LinkedHashMap<>();
+            for (Map.Entry<String, IDInfo> entry : committedIds.entrySet()) {
+                IDInfo id = entry.getValue();
+                IDInfo original = id != null ? originals.get(id) : null;
+                if (original != null && !isChanged(id, original)) {
+                    resolved.put(entry.getKey(), original);
+                } else {
+                    resolved.put(entry.getKey(), id != null ? readOnlyId(unwrapId(id), original) : null);
+                }
+            }
+            committedIds = Collections.unmodifiableMap(resolved);
+        }
+        committed.ids = committedIds;
+        return committed;
+    }
+
+    /**
+     * A copy of {@code wallet} in the form {@link #commit()} publishes: its collections, and those of its IDs, are
+     * unmodifiable copies, so the caller's later edits to {@code wallet} do not reach the snapshot. Scalar fields
+     * stay assignable; readers of the snapshot are trusted not to assign them.
+     */
+    static WalletFile snapshot(WalletFile wallet) {
+        if (wallet == null) {
+            return null;
+        }
+        WalletFile snapshot = new WalletFile();
+        snapshot.version = wallet.version;
+        snapshot.seed = wallet.seed;
+        snapshot.counter = wallet.counter;
+        snapshot.current = wallet.current;
+        snapshot.names = wallet.names != null ? Collections.unmodifiableMap(new LinkedHashMap<>(wallet.names)) : null;
+        snapshot.extras = readOnlyMap(wallet.extras);
+        if (wallet.ids != null) {
+            Map<String, IDInfo> ids = new LinkedHashMap<>();
+            for (Map.Entry<String, IDInfo> entry : wallet.ids.entrySet()) {
+                IDInfo id = entry.getValue();
+                IDInfo copy = null;
+                if (id != null) {
+                    copy = copyOf(id);
+                    copy.held = id.held != null ? new ArrayList<>(id.held) : null;
+                    copy.owned = id.owned != null ? new ArrayList<>(id.owned) : null;
+                    copy.keyIndex = id.keyIndex != null ? new LinkedHashMap<>(id.keyIndex) : null;
+                    copy = readOnlyId(copy, null);
+                }
+                ids.put(entry.getKey(), copy);
+            }
+            snapshot.ids = Collections.unmodifiableMap(ids);
+        }
+        return snapshot;
+    }
+
+    private static Seed copySeed(Seed seed) {
+        if (seed == null) {
+            return null;
+        }
+        Seed copy = new Seed();
+        copy.mnemonic = seed.mnemonic;
+        if (seed.hdkey != null) {
+            copy.hdkey = new HdKey();
+            copy.hdkey.xpriv = seed.hdkey.xpriv;
+            copy.hdkey.xpub = seed.hdkey.xpub;
+        }
+        if (seed.mnemonicEnc != null) {
+            EncryptedMnemonic enc = seed.mnemonicEnc;
+            copy.mnemonicEnc = new EncryptedMnemonic(enc.salt, enc.iv, enc.data);
+        }
+        return copy;
+    }
+
+    private static boolean sameSeed(Seed seed, Seed original) {
+        if (seed == original) {
+            return true;
+        }
+        if (seed == null || original == null) {
+            return false;
+        }
+        return Objects.equals(seed.mnemonic, original.mnemonic)
+            && (seed.hdkey == original.hdkey
+                || seed.hdkey != null && original.hdkey != null
+                    && Objects.equals(seed.hdkey.xpriv, original.hdkey.xpriv)
+                    && Objects.equals(seed.hdkey.xpub, original.hdkey.xpub))
+            && (seed.mnemonicEnc == original.mnemonicEnc
+                || seed.mnemonicEnc != null && original.mnemonicEnc != null
+                    && Objects.equals(seed.mnemonicEnc.salt, original.mnemonicEnc.salt)
+                    && Objects.equals(seed.mnemonicEnc.iv, original.mnemonicEnc.iv)
+                    && Objects.equals(seed.mnemonicEnc.data, original.mnemonicEnc.data));
+    }
+
+    private static IDInfo copyId(IDInfo id) {
+        IDInfo copy = new IDInfo();
+        copy.did = id.did;
+        copy.account = id.account;
+        copy.index = id.index;
+        copy.held = id.held != null ? new TrackedList<>(id.held) : null;
+        copy.owned = id.owned != null ? new TrackedList<>(id.owned) : null;
+        copy.keyIndex = id.keyIndex != null ? new TrackedMap<>(id.keyIndex) : null;
+        copy.extras = copyMap(id.extras);
+        return copy;
+    }
+
+    private static IDInfo copyOf(IDInfo id) {
+        IDInfo copy = new IDInfo();
+        copy.did = id.did;
+        copy.account = id.account;
+        copy.index = id.index;
+        copy.held = id.held;
+        copy.owned = id.owned;
+        copy.keyIndex = id.keyIndex;
+        copy.extras = id.extras;
+        return copy;
+    }
+
+    private static boolean isChanged(IDInfo id, IDInfo original) {
+        if (original == null) {
+            return true;
+        }
+        return !Objects.equals(id.did, original.did)
+            || id.account != original.account
+            || id.index != original.index
+            || isChanged(id.held, original.held)
+            || isChanged(id.owned, original.owned)
+            || isChanged(id.keyIndex, original.keyIndex)
+            || !Objects.equals(id.extras, original.extras);
+    }
+
+    private static boolean isChanged(List<?> list, List<?> original) {
+        if (list instanceof TrackedList) {
+            return ((TrackedList<?>) list).isDirty();
+        }
+        return list != original;
+    }
+
+    private static boolean isChanged(Map<?, ?> map, Map<?, ?> original) {
+        if (map instanceof TrackedMap) {
+            return ((TrackedMap<?, ?>) map).isDirty();
+        }
+        return map != original;
+    }
+
+    /**
+     * Wraps the collections of {@code id} that are not shared with {@code original} as unmodifiable; extras are
+     * copied, as they may nest collections.
+     */
+    private static IDInfo readOnlyId(IDInfo id, IDInfo original) {
+        id.held = readOnly(id.held, original != null ? original.held : null);
+        id.owned = readOnly(id.owned, original != null ? original.owned : null);
+        id.keyIndex = readOnly(id.keyIndex, original != null ? original.keyIndex : null);
+        id.extras = original != null && Objects.equals(id.extras, original.extras)
+            ? original.extras
+            : readOnlyMap(id.extras);
+        return id;
+    }
+
+    private static <K, V> Map<K, V> readOnly(Map<K, V> map, Map<K, V> original) {
+        return map == null || map == original ? map : Collections.unmodifiableMap(map);
+    }
+
+    private static <E> List<E> readOnly(List<E> list, List<E> original) {
+        return list == null || list == original ? list : Collections.unmodifiableList(list);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> readOnlyMap(Map<String, Object> map) {
+        return map != null ? (Map<String, Object>) readOnlyValue(map) : null;
+    }
+
+    private static Object readOnlyValue(Object value) {
+        if (value instanceof Map<?, ?>) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                copy.put(entry.getKey(), readOnlyValue(entry.getValue()));
+            }
+            return Collections.unmodifiableMap(copy);
+        }
+        if (value instanceof List<?>) {
+            List<Object> copy = new ArrayList<>();
+            for (Object item : (List<?>) value) {
+                copy.add(readOnlyValue(item));
+            }
+            return Collections.unmodifiableList(copy);
+        }
+        return value;
+    }
+
+    private static IDInfo unwrapId(IDInfo id) {
+        id.held = unwrap(id.held);
+        id.owned = unwrap(id.owned);
+        id.keyIndex = unwrap(id.keyIndex);
+        return id;
+    }
+
+    private static <E> List<E> unwrap(List<E> list) {
+        return list instanceof TrackedList ? ((TrackedList<E>) list).unwrap() : list;
+    }
+
+    private static <K, V> Map<K, V> unwrap(Map<K, V> map) {
+        return map instanceof TrackedMap ? ((TrackedMap<K, V>) map).unwrap() : map;
+    }
+
+    /**
+     * Free-form extras may nest maps and lists, so they are copied structurally and compared with equals.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> copyMap(Map<String, Object> map) {
+        return map != null ? (Map<String, Object>) copyValue(map) : null;
+    }
+
+    private static Object copyValue(Object value) {
+        if (value instanceof Map<?, ?>) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                copy.put(entry.getKey(), copyValue(entry.getValue()));
+            }
+            return copy;
+        }
+        if (value instanceof List<?>) {
+            List<Object> copy = new ArrayList<>();
+            for (Object item : (List<?>) value) {
+                copy.add(copyValue(item));
+            }
+            return copy;
+        }
+        return value;
+    }
+}
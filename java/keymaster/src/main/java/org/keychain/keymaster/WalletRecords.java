@@ -0,0 +1,278 @@
+package org.keychain.keymaster;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import org.keychain.keymaster.model.IDInfo;
+import org.keychain.keymaster.model.WalletFile;
+
+/**
+ * Splits a wallet into the records kept by a {@link org.keychain.keymaster.store.WalletRecordStore}: one per ID,
+ * name, and held or owned DID, each addressed by a logical key such as {@code ["held", "Alice", 3]}. Everything
+ * else stays in the wallet header. An ID record carries the lengths of its held and owned lists in place of the
+ * lists themselves.
+ * <p>
+ * ID and name records also carry an ordinal so the wallet maps can be rebuilt in their original order. Ordinals only
+ * need to increase along each map, so unchanged records keep theirs and a new or moved entry takes the next one.
+ */
+final class WalletRecords {
+    static final String ID = "id";
+    static final String NAME = "name";
+    static final String HELD = "held";
+    static final String OWNED = "owned";
+    static final String ORDINAL = "ordinal";
+    static final String DID = "did";
+
+    final Map<List<Object>, Object> upserts = new LinkedHashMap<>();
+    final Set<List<Object>> deletes = new LinkedHashSet<>();
+    /** The ordinal of every ID and name record once these changes are written. */
+    final Map<List<Object>, Long> ordinals;
+    boolean headerChanged;
+    private long nextOrdinal;
+
+    private WalletRecords(Map<List<Object>, Long> ordinals) {
+        this.ordinals = new HashMap<>(ordinals);
+        for (long ordinal : ordinals.values()) {
+            nextOrdinal = Math.max(nextOrdinal, ordinal + 1);
+        }
+    }
+
+    static WalletRecords all(WalletFile wallet, ObjectMapper mapper) {
+        return diff(null, Map.of(), wallet, mapper);
+    }
+
+    /**
+     * The records to write and delete to turn {@code before}, whose records carry {@code ordinals}, into
+     * {@code after}. IDs are compared by identity, as {@link WalletDraft#commit()} keeps unchanged ones shared.
+     */
+    static WalletRecords diff(
+        WalletFile before,
+        Map<List<Object>, Long> ordinals,
+        WalletFile after,
+        ObjectMapper mapper
+    ) {
+        WalletRecords changes = new WalletRecords(ordinals);
+        changes.headerChanged = before == null
+            || !Objects.equals(before.version, after.version)
+            || before.seed != after.seed
+            || before.counter != after.counter
+            || !Objects.equals(before.current, after.current)
+            || !Objects.equals(before.extras, after.extras)
+            || (before.ids == null) != (after.ids == null)
+            || (before.names == null) != (after.names == null);
+
+        Map<String, IDInfo> oldIds = before != null && before.ids != null ? before.ids : Map.of();
+        Map<String, IDInfo> newIds = after.ids != null ? after.ids : Map.of();
+        for (Map.Entry<String, IDInfo> entry : oldIds.entrySet()) {
+            if (!newIds.containsKey(entry.getKey())) {
+                changes.delete(List.of(ID, entry.getKey()));
+                changes.diffList(HELD, entry.getKey(), entry.getValue().held, null);
+                changes.diffList(OWNED, entry.getKey(), entry.getValue().owned, null);
+            }
+        }
+        long previous = -1;
+        for (Map.Entry<String, IDInfo> entry : newIds.entrySet()) {
+            List<Object> key = List.of(ID, entry.getKey());
+            IDInfo old = oldIds.get(entry.getKey());
+            IDInfo id = entry.getValue();
+            Long stored = changes.ordinals.get(key);
+            previous = changes.ordinal(key, previous);
+            if (old == id && stored != null && stored == previous) {
+                continue;
+            }
+            changes.upserts.put(key, idRecord(id, previous, mapper));
+            changes.diffList(HELD, entry.getKey(), old != null ? old.held : null, id.held);
+            changes.diffList(OWNED, entry.getKey(), old != null ? old.owned : null, id.owned);
+        }
+
+        Map<String, String> oldNames = before != null && before.names != null ? before.names : Map.of();
+        Map<String, String> newNames = after.names != null ? after.names : Map.of();
+        for (String name : oldNames.keySet()) {
+            if (!newNames.containsKey(name)) {
+                changes.delete(List.of(NAME, name));
+            }
+        }
+        previous = -1;
+        for (Map.Entry<String, String> entry : newNames.entrySet()) {
+            List<Object> key = List.of(NAME, entry.getKey());
+            Long stored = changes.ordinals.get(key);
+            previous = changes.ordinal(key, previous);
+            if (!Objects.equals(oldNames.get(entry.getKey()), entry.getValue())
+                || stored == null || stored != previous) {
+                changes.upserts.put(key, nameRecord(entry.getValue(), previous));
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * A copy of {@code wallet} without its records; {@code ids} and {@code names} are left empty, or null if they
+     * are null in the wallet.
+     */
+    static WalletFile header(WalletFile wallet) {
+        WalletFile header = new WalletFile();
+        header.version = wallet.version;
+        header.seed = wallet.seed;
+        header.counter = wallet.counter;
+        header.current = wallet.current;
+        header.extras = wallet.extras;
+        header.ids = wallet.ids != null ? new LinkedHashMap<>() : null;
+        header.names = wallet.names != null ? new LinkedHashMap<>() : null;
+        return header;
+    }
+
+    /**
+     * Fills the IDs and names of {@code wallet}, loaded from a header, from its records, in ordinal order. Returns
+     * the ordinal of each ID and name record for the next {@link #diff}.
+     */
+    static Map<List<Object>, Long> assemble(WalletFile wallet, Map<List<Object>, Object> records, ObjectMapper mapper) {
+        TreeMap<Ordered, Map<String, Object>> ids = new TreeMap<>();
+        Map<String, TreeMap<Integer, String>> held = new HashMap<>();
+        Map<String, TreeMap<Integer, String>> owned = new HashMap<>();
+        TreeMap<Ordered, String> names = new TreeMap<>();
+        Map<List<Object>, Long> ordinals = new HashMap<>();
+
+        for (Map.Entry<List<Object>, Object> record : records.entrySet()) {
+            List<Object> key = record.getKey();
+            Object value = record.getValue();
+            String kind = key.size() > 1 ? String.valueOf(key.get(0)) : "";
+            String name = key.size() > 1 ? String.valueOf(key.get(1)) : null;
+            if (ID.equals(kind) && key.size() == 2 && value instanceof Map) {
+                Map<String, Object> data = mapper.convertValue(value, new TypeReference<Map<String, Object>>() {});
+                ids.put(new Ordered(ordinal(data.remove(ORDINAL)), name), data);
+            } else if (NAME.equals(kind) && key.size() == 2 && value instanceof Map) {
+                Map<?, ?> data = (Map<?, ?>) value;
+                if (!(data.get(DID) instanceof String)) {
+                    throw new IllegalStateException("Keymaster: Corrupt wallet records.");
+                }
+                names.put(new Ordered(ordinal(data.get(ORDINAL)), name), (String) data.get(DID));
+            } else if ((HELD.equals(kind) || OWNED.equals(kind)) && key.size() == 3
+                && key.get(2) instanceof Integer && value instanceof String) {
+                Map<String, TreeMap<Integer, String>> lists = HELD.equals(kind) ? held : owned;
+                lists.computeIfAbsent(name, k -> new TreeMap<>()).put((Integer) key.get(2), (String) value);
+            } else {
+                throw new IllegalStateException("Keymaster: Corrupt wallet records.");
+            }
+        }
+
+        if (!ids.isEmpty() && wallet.ids == null) {
+            wallet.ids = new LinkedHashMap<>();
+        }
+        for (Map.Entry<Ordered, Map<String, Object>> entry : ids.entrySet()) {
+            String name = entry.getKey().name;
+            Map<String, Object> data = entry.getValue();
+            data.put(HELD, list(data.get(HELD), held.remove(name)));
+            data.put(OWNED, list(data.get(OWNED), owned.remove(name)));
+            wallet.ids.put(name, mapper.convertValue(data, IDInfo.class));
+            ordinals.put(List.of(ID, name), entry.getKey().ordinal);
+        }
+        if (!held.isEmpty() || !owned.isEmpty()) {
+            throw new IllegalStateException("Keymaster: Corrupt wallet records.");
+        }
+
+        if (!names.isEmpty() && wallet.names == null) {
+            wallet.names = new LinkedHashMap<>();
+        }
+        for (Map.Entry<Ordered, String> entry : names.entrySet()) {
+            wallet.names.put(entry.getKey().name, entry.getValue());
+            ordinals.put(List.of(NAME, entry.getKey().name), entry.getKey().ordinal);
+        }
+        return ordinals;
+    }
+
+    /**
+     * The ordinal for the entry at {@code key}, which follows an entry with ordinal {@code previous}: its stored one
+     * if that still sorts after {@code previous}, otherwise the next unused one.
+     */
+    private long ordinal(List<Object> key, long previous) {
+        Long stored = ordinals.get(key);
+        if (stored != null && stored > previous) {
+            return stored;
+        }
+        long ordinal = nextOrdinal++;
+        ordinals.put(key, ordinal);
+        return ordinal;
+    }
+
+    private void delete(List<Object> key) {
+        deletes.add(key);
+        ordinals.remove(key);
+    }
+
+    private void diffList(String kind, String name, List<String> before, List<String> after) {
+        int oldSize = before != null ? before.size() : 0;
+        int newSize = after != null ? after.size() : 0;
+        for (int i = 0; i < newSize; i++) {
+            if (i >= oldSize || !Objects.equals(before.get(i), after.get(i))) {
+                upserts.put(List.of(kind, name, i), after.get(i));
+            }
+        }
+        for (int i = newSize; i < oldSize; i++) {
+            deletes.add(List.of(kind, name, i));
+        }
+    }
+
+    private static Map<String, Object> idRecord(IDInfo id, long ordinal, ObjectMapper mapper) {
+        Map<String, Object> data = mapper.convertValue(id, new TypeReference<>() {});
+        data.put(HELD, id.held != null ? id.held.size() : null);
+        data.put(OWNED, id.owned != null ? id.owned.size() : null);
+        data.put(ORDINAL, ordinal);
+        return data;
+    }
+
+    private static Map<String, Object> nameRecord(String did, long ordinal) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put(DID, did);
+        data.put(ORDINAL, ordinal);
+        return data;
+    }
+
+    private static long ordinal(Object value) {
+        if (!(value instanceof Integer || value instanceof Long) || ((Number) value).longValue() < 0) {
+            throw new IllegalStateException("Keymaster: Corrupt wallet records.");
+        }
+        return ((Number) value).longValue();
+    }
+
+    private static List<String> list(Object length, TreeMap<Integer, String> entries) {
+        if (length == null) {
+            if (entries != null) {
+                throw new IllegalStateException("Keymaster: Corrupt wallet records.");
+            }
+            return null;
+        }
+        int size = length instanceof Integer ? (Integer) length : -1;
+        int found = entries != null ? entries.size() : 0;
+        if (size != found || (found > 0 && (entries.firstKey() != 0 || entries.lastKey() != size - 1))) {
+            throw new IllegalStateException("Keymaster: Corrupt wallet records.");
+        }
+        return entries != null ? new ArrayList<>(entries.values()) : new ArrayList<>();
+    }
+
+    /**
+     * Sorts records by ordinal, then by name for records written with the same ordinal.
+     */
+    private static final class Ordered implements Comparable<Ordered> {
+        final long ordinal;
+        final String name;
+
+        Ordered(long ordinal, String name) {
+            this.ordinal = ordinal;
+            this.name = name;
+        }
+
+        @Override
+        public int compareTo(Ordered other) {
+            int byOrdinal = Long.compare(ordinal, other.ordinal);
+            return byOrdinal != 0 ? byOrdinal : name.compareTo(other.name);
+        }
+    }
+}
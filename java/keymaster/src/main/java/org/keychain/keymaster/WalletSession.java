@@ -0,0 +1,155 @@
+package org.keychain.keymaster;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Objects;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import org.bitcoinj.crypto.DeterministicKey;
+import org.keychain.crypto.EncryptedMnemonic;
+import org.keychain.crypto.HdKeyUtil;
+import org.keychain.crypto.MnemonicEncryption;
+
+/**
+ * An unlocked wallet seed: the passphrase-derived AES key and the HD master key, derived once and kept until
+ * {@link #lock()} or until the session has been idle for longer than its timeout.
+ *
+ * <p>Locking zeroes the AES key bytes and drops the master key. There is no timer: an idle session is locked by the
+ * next call that uses it or asks {@link #isUnlocked()}. A {@code null} or zero timeout keeps the session open until it
+ * is locked explicitly.
+ */
+public final class WalletSession implements AutoCloseable {
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(15);
+
+    private static final SecureRandom RNG = new SecureRandom();
+    private static final int SALT_LEN = 16;
+
+    private final EncryptedMnemonic seed;
+    private final long idleMillis;
+    private final Clock clock;
+    private byte[] keyBytes;
+    private DeterministicKey master;
+    private long lastUsed;
+
+    private WalletSession(EncryptedMnemonic enc, SecretKey key, DeterministicKey master, Duration idleTimeout,
+                          Clock clock) {
+        this.seed = new EncryptedMnemonic(enc.salt, enc.iv, enc.data);
+        this.keyBytes = key.getEncoded();
+        this.master = master;
+        this.idleMillis = idleTimeout != null ? idleTimeout.toMillis() : 0;
+        this.clock = clock;
+        this.lastUsed = clock.millis();
+    }
+
+    public static WalletSession unlock(EncryptedMnemonic enc, String passphrase) {
+        return unlock(enc, passphrase, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    public static WalletSession unlock(EncryptedMnemonic enc, String passphrase, Duration idleTimeout) {
+        return unlock(enc, passphrase, idleTimeout, Clock.systemUTC());
+    }
+
+    static WalletSession unlock(EncryptedMnemonic enc, String passphrase, Duration idleTimeout, Clock clock) {
+        if (enc == null || enc.data == null) {
+            throw new IllegalArgumentException("enc is required");
+        }
+        if (passphrase == null) {
+            throw new IllegalArgumentException("passphrase is required");
+        }
+        Objects.requireNonNull(clock, "clock is required");
+
+        SecretKey key = MnemonicEncryption.deriveKey(passphrase, enc);
+        String mnemonic = MnemonicEncryption.decrypt(enc, key);
+        return new WalletSession(enc, key, HdKeyUtil.masterFromMnemonic(mnemonic), idleTimeout, clock);
+    }
+
+    static WalletSession create(String mnemonic, String passphrase, Duration idleTimeout) {
+        return create(mnemonic, passphrase, idleTimeout, Clock.systemUTC());
+    }
+
+    /**
+     * Encrypts a new seed and opens a session for it with a single KDF run.
+     */
+    static WalletSession create(String mnemonic, String passphrase, Duration idleTimeout, Clock clock) {
+        if (mnemonic == null || passphrase == null) {
+            throw new IllegalArgumentException("mnemonic and passphrase are required");
+        }
+        Objects.requireNonNull(clock, "clock is required");
+
+        byte[] salt = new byte[SALT_LEN];
+        RNG.nextBytes(salt);
+        EncryptedMnemonic salted = new EncryptedMnemonic(Base64.getEncoder().encodeToString(salt), null, null);
+        SecretKey key = MnemonicEncryption.deriveKey(passphrase, salted);
+        EncryptedMnemonic enc = MnemonicEncryption.encrypt(mnemonic, key, salted);
+        return new WalletSession(enc, key, HdKeyUtil.masterFromMnemonic(mnemonic), idleTimeout, clock);
+    }
+
+    public synchronized boolean isUnlocked() {
+        if (keyBytes == null) {
+            return false;
+        }
+        if (idleMillis > 0 && clock.millis() - lastUsed > idleMillis) {
+            lock();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Whether this session was unlocked for {@code enc}, i.e. the wallet seed has not been replaced since.
+     */
+    public boolean matches(EncryptedMnemonic enc) {
+        return enc != null && seed.data.equals(enc.data);
+    }
+
+    /**
+     * A copy of the encrypted seed this session was opened for.
+     */
+    public EncryptedMnemonic seed() {
+        return new EncryptedMnemonic(seed.salt, seed.iv, seed.data);
+    }
+
+    public synchronized String decryptMnemonic(EncryptedMnemonic enc) {
+        requireMatch(enc);
+        return MnemonicEncryption.decrypt(enc, key());
+    }
+
+    synchronized DeterministicKey master() {
+        requireUnlocked();
+        return master;
+    }
+
+    @Override
+    public synchronized void close() {
+        lock();
+    }
+
+    public synchronized void lock() {
+        if (keyBytes != null) {
+            Arrays.fill(keyBytes, (byte) 0);
+        }
+        keyBytes = null;
+        master = null;
+    }
+
+    private SecretKey key() {
+        requireUnlocked();
+        return new SecretKeySpec(keyBytes, "AES");
+    }
+
+    private void requireMatch(EncryptedMnemonic enc) {
+        if (!matches(enc)) {
+            throw new IllegalArgumentException("session does not belong to this wallet seed");
+        }
+    }
+
+    private void requireUnlocked() {
+        if (!isUnlocked()) {
+            throw new IllegalStateException("wallet session locked");
+        }
+        lastUsed = clock.millis();
+    }
+}
@@ -0,0 +1,178 @@
+package org.keychain.keymaster;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.bitcoinj.crypto.DeterministicKey;
+import org.keychain.crypto.HdKeyUtil;
+import org.keychain.crypto.JwkPublic;
+import org.keychain.crypto.Secp256k1Jwk;
+import org.keychain.gatekeeper.GatekeeperInterface;
+import org.keychain.gatekeeper.model.EcdsaJwkPublic;
+import org.keychain.gatekeeper.model.MdipDocument;
+import org.keychain.gatekeeper.model.ResolveDIDOptions;
+import org.keychain.keymaster.model.WatchOnlyId;
+import org.keychain.keymaster.model.WatchOnlyWallet;
+
+/**
+ * Public-key view of a wallet built from account-level xpubs (see {@link Keymaster#exportWatchOnlyWallet()}).
+ *
+ * <p>ID keys are derived with non-hardened public derivation, so key matching and ownership checks need no
+ * mnemonic, passphrase or private key. Signing, decryption and wallet edits are not available.
+ */
+public class WatchOnlyKeymaster {
+    /** Indexes past the exported one that are still checked, to tolerate rotations since the export. */
+    static final int LOOKAHEAD = 20;
+
+    private final WatchOnlyWallet wallet;
+    private final GatekeeperInterface gatekeeper;
+    private final Map<String, DeterministicKey> chains = new ConcurrentHashMap<>();
+    private final Map<String, JwkPublic> publicKeys = new ConcurrentHashMap<>();
+
+    public WatchOnlyKeymaster(WatchOnlyWallet wallet, GatekeeperInterface gatekeeper) {
+        if (wallet == null || wallet.ids == null) {
+            throw new IllegalArgumentException("wallet.ids is required");
+        }
+        for (Map.Entry<String, WatchOnlyId> entry : wallet.ids.entrySet()) {
+            WatchOnlyId id = entry.getValue();
+            if (id == null || id.did == null || id.xpub == null) {
+                throw new IllegalArgumentException("id " + entry.getKey() + " requires did and xpub");
+            }
+            chains.put(id.xpub, HdKeyUtil.fromXpub(id.xpub));
+        }
+        this.wallet = wallet;
+        this.gatekeeper = gatekeeper;
+    }
+
+    public WatchOnlyKeymaster(WatchOnlyWallet wallet) {
+        this(wallet, null);
+    }
+
+    public List<String> listIds() {
+        return new ArrayList<>(wallet.ids.keySet());
+    }
+
+    public WatchOnlyId fetchIdInfo(String nameOrDid) {
+        WatchOnlyId id = null;
+        if (nameOrDid == null || nameOrDid.isBlank()) {
+            if (wallet.current == null || wallet.current.isBlank()) {
+                throw new IllegalStateException("Keymaster: No current ID");
+            }
+            id = wallet.ids.get(wallet.current);
+        } else if (nameOrDid.startsWith("did")) {
+            for (WatchOnlyId info : wallet.ids.values()) {
+                if (Keymaster.didMatch(nameOrDid, info.did)) {
+                    id = info;
+                    break;
+                }
+            }
+        } else {
+            id = wallet.ids.get(nameOrDid);
+        }
+
+        if (id == null) {
+            throw new IllegalArgumentException("unknown id");
+        }
+        return id;
+    }
+
+    public boolean idInWallet(String did) {
+        try {
+            fetchIdInfo(did);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    public JwkPublic derivePublicKey(String nameOrDid, int index) {
+        return derivePublicKey(fetchIdInfo(nameOrDid), index);
+    }
+
+    public JwkPublic currentPublicKey(String nameOrDid) {
+        WatchOnlyId id = fetchIdInfo(nameOrDid);
+        return derivePublicKey(id, id.index);
+    }
+
+    /**
+     * Returns the derivation index of {@code publicJwk} for the ID, or {@code null} when the key is not one of
+     * its keys up to {@link #LOOKAHEAD} indexes past the exported one.
+     */
+    public Integer findKeyIndex(String nameOrDid, EcdsaJwkPublic publicJwk) {
+        if (publicJwk == null || publicJwk.x == null || publicJwk.y == null) {
+            return null;
+        }
+        WatchOnlyId id = fetchIdInfo(nameOrDid);
+
+        if (id.keyIndex != null) {
+            Integer index = id.keyIndex.get(Secp256k1Jwk.thumbprint(JwkConverter.toJwkPublic(publicJwk)));
+            if (index != null && index >= 0 && sameKey(publicJwk, derivePublicKey(id, index))) {
+                return index;
+            }
+        }
+        for (int index = id.index + LOOKAHEAD; index >= 0; index -= 1) {
+            if (sameKey(publicJwk, derivePublicKey(id, index))) {
+                return index;
+            }
+        }
+        return null;
+    }
+
+    public boolean matchesPublicKey(String nameOrDid, EcdsaJwkPublic publicJwk) {
+        return findKeyIndex(nameOrDid, publicJwk) != null;
+    }
+
+    /**
+     * Whether the confirmed key in the ID's DID document is one this wallet can derive.
+     */
+    public boolean matchesConfirmedKey(String nameOrDid) {
+        WatchOnlyId id = fetchIdInfo(nameOrDid);
+        ResolveDIDOptions options = new ResolveDIDOptions();
+        options.confirm = true;
+        return matchesPublicKey(id.did, getPublicKeyJwk(requireGatekeeper().resolveDID(id.did, options)));
+    }
+
+    public boolean isOwned(String did) {
+        MdipDocument doc = requireGatekeeper().resolveDID(did, new ResolveDIDOptions());
+        if (doc == null || doc.didDocument == null) {
+            return false;
+        }
+        String controller = doc.didDocument.controller != null ? doc.didDocument.controller : doc.didDocument.id;
+        return controller != null && idInWallet(controller);
+    }
+
+    public EcdsaJwkPublic getPublicKeyJwk(MdipDocument doc) {
+        if (doc == null || doc.didDocument == null || doc.didDocument.verificationMethod == null) {
+            throw new IllegalArgumentException("Missing didDocument.");
+        }
+        if (doc.didDocument.verificationMethod.isEmpty()) {
+            throw new IllegalArgumentException("The DID document does not contain any verification methods.");
+        }
+        EcdsaJwkPublic publicKeyJwk = doc.didDocument.verificationMethod.get(0).publicKeyJwk;
+        if (publicKeyJwk == null) {
+            throw new IllegalArgumentException("The publicKeyJwk is missing in the first verification method.");
+        }
+        return publicKeyJwk;
+    }
+
+    private JwkPublic derivePublicKey(WatchOnlyId id, int index) {
+        if (index < 0) {
+            throw new IllegalArgumentException("index must be >= 0");
+        }
+        return publicKeys.computeIfAbsent(id.xpub + "/" + index, key ->
+            Secp256k1Jwk.fromPublicKey(HdKeyUtil.deriveChild(chains.get(id.xpub), index).getPubKey())
+        );
+    }
+
+    private GatekeeperInterface requireGatekeeper() {
+        if (gatekeeper == null) {
+            throw new IllegalStateException("gatekeeper not configured");
+        }
+        return gatekeeper;
+    }
+
+    private static boolean sameKey(EcdsaJwkPublic a, JwkPublic b) {
+        return a.x.equals(b.x) && a.y.equals(b.y);
+    }
+}
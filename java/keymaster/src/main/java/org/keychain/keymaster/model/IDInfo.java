@@ -1,5 +1,6 @@
 package org.keychain.keymaster.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.util.List;
 import java.util.Map;
 
@@ -10,4 +11,6 @@ public class IDInfo {
     public List<String> held;
     public List<String> owned;
     public Map<String, Object> extras;
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    public Map<String, Integer> keyIndex;
 }
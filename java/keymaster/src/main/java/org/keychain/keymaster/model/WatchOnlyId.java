@@ -0,0 +1,13 @@
+package org.keychain.keymaster.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.Map;
+
+public class WatchOnlyId {
+    public String did;
+    public int account;
+    public int index;
+    public String xpub;
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    public Map<String, Integer> keyIndex;
+}
@@ -0,0 +1,9 @@
+package org.keychain.keymaster.model;
+
+import java.util.Map;
+
+public class WatchOnlyWallet {
+    public Integer version;
+    public Map<String, WatchOnlyId> ids;
+    public String current;
+}
@@ -0,0 +1,16 @@
+package org.keychain.keymaster.store;
+
+/**
+ * How a wallet store persists writes.
+ */
+public enum WalletDurability {
+    /** Each write goes to the file system without {@code fsync}; a crash may lose recent writes. */
+    NONE,
+    /**
+     * Mutations made within a short window are applied in memory and persisted together with one {@code fsync}.
+     * Synchronous mutations return once their batch is durable.
+     */
+    BATCHED,
+    /** Every write is persisted and forced to disk before it returns. */
+    EVERY_WRITE
+}
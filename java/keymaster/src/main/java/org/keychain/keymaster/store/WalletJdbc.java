@@ -0,0 +1,240 @@
+package org.keychain.keymaster.store;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.sql.DataSource;
+
+/**
+ * {@link WalletRecordStore} over JDBC. The wallet is one row of {@code keymaster_wallet} and each record one row of
+ * {@code keymaster_wallet_records}, keyed by its primary key so pages are read with an indexed range scan. The
+ * tables are created on first use; the SQL sticks to what H2, SQLite and PostgreSQL share.
+ *
+ * <p>Commits are as durable as the database makes them; {@link WalletDurability#BATCHED} additionally has the wallet
+ * manager group several mutations into one transaction.
+ */
+public class WalletJdbc<T> implements WalletRecordStore<T> {
+    static final String WALLET_TABLE = "keymaster_wallet";
+    static final String RECORD_TABLE = "keymaster_wallet_records";
+    private static final int WALLET_ROW = 1;
+
+    private final ObjectMapper mapper;
+    private final Class<T> type;
+    private final DataSource dataSource;
+    private final WalletDurability durability;
+    private volatile boolean schemaReady;
+
+    public WalletJdbc(Class<T> type, DataSource dataSource) {
+        this(type, dataSource, WalletDurability.NONE);
+    }
+
+    public WalletJdbc(Class<T> type, DataSource dataSource, WalletDurability durability) {
+        if (dataSource == null) {
+            throw new IllegalArgumentException("dataSource is required");
+        }
+        if (durability == null) {
+            throw new IllegalArgumentException("durability is required");
+        }
+        this.mapper = WalletJsonMapper.mapper();
+        this.type = type;
+        this.dataSource = dataSource;
+        this.durability = durability;
+    }
+
+    @Override
+    public WalletDurability durability() {
+        return durability;
+    }
+
+    @Override
+    public boolean saveWallet(T wallet, boolean overwrite) {
+        return replaceRecords(wallet, Map.of(), overwrite);
+    }
+
+    @Override
+    public T loadWallet() {
+        String json = inTransaction("load wallet", this::readWallet);
+        if (json == null) {
+            return null;
+        }
+
+        try {
+            return mapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to parse wallet", e);
+        }
+    }
+
+    @Override
+    public boolean replaceRecords(T wallet, Map<String, String> records, boolean overwrite) {
+        String json = serialize(wallet);
+        return inTransaction("save wallet", connection -> {
+            boolean exists = readWallet(connection) != null;
+            if (exists && !overwrite) {
+                return false;
+            }
+            writeWallet(connection, json, exists);
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("DELETE FROM " + RECORD_TABLE);
+            }
+            insertRecords(connection, records);
+            return true;
+        });
+    }
+
+    @Override
+    public boolean updateRecords(T wallet, Map<String, String> upserts, Collection<String> deletes) {
+        String json = wallet != null ? serialize(wallet) : null;
+        return inTransaction("update wallet records", connection -> {
+            if (readWallet(connection) == null) {
+                return false;
+            }
+            if (json != null) {
+                writeWallet(connection, json, true);
+            }
+            if (!deletes.isEmpty()) {
+                try (PreparedStatement delete = connection.prepareStatement(
+                    "DELETE FROM " + RECORD_TABLE + " WHERE record_key = ?"
+                )) {
+                    for (String key : deletes) {
+                        delete.setString(1, key);
+                        delete.addBatch();
+                    }
+                    delete.executeBatch();
+                }
+            }
+
+            Map<String, String> inserts = new LinkedHashMap<>();
+            try (PreparedStatement update = connection.prepareStatement(
+                "UPDATE " + RECORD_TABLE + " SET data = ? WHERE record_key = ?"
+            )) {
+                for (Map.Entry<String, String> record : upserts.entrySet()) {
+                    update.setString(1, record.getValue());
+                    update.setString(2, record.getKey());
+                    if (update.executeUpdate() == 0) {
+                        inserts.put(record.getKey(), record.getValue());
+                    }
+                }
+            }
+            insertRecords(connection, inserts);
+            return true;
+        });
+    }
+
+    @Override
+    public Map<String, String> loadRecords(String afterKey, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be > 0");
+        }
+        return inTransaction("load wallet records", connection -> {
+            Map<String, String> records = new LinkedHashMap<>();
+            try (PreparedStatement query = connection.prepareStatement(
+                "SELECT record_key, data FROM " + RECORD_TABLE
+                    + " WHERE record_key > ? ORDER BY record_key LIMIT ?"
+            )) {
+                query.setString(1, afterKey != null ? afterKey : "");
+                query.setInt(2, limit);
+                try (ResultSet rows = query.executeQuery()) {
+                    while (rows.next()) {
+                        records.put(rows.getString(1), rows.getString(2));
+                    }
+                }
+            }
+            return records;
+        });
+    }
+
+    private String serialize(T wallet) {
+        try {
+            return mapper.writeValueAsString(wallet);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed to serialize wallet", e);
+        }
+    }
+
+    private String readWallet(Connection connection) throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement(
+            "SELECT data FROM " + WALLET_TABLE + " WHERE id = ?"
+        )) {
+            query.setInt(1, WALLET_ROW);
+            try (ResultSet rows = query.executeQuery()) {
+                return rows.next() ? rows.getString(1) : null;
+            }
+        }
+    }
+
+    private void writeWallet(Connection connection, String json, boolean exists) throws SQLException {
+        String sql = exists
+            ? "UPDATE " + WALLET_TABLE + " SET data = ? WHERE id = ?"
+            : "INSERT INTO " + WALLET_TABLE + " (data, id) VALUES (?, ?)";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, json);
+            statement.setInt(2, WALLET_ROW);
+            statement.executeUpdate();
+        }
+    }
+
+    private void insertRecords(Connection connection, Map<String, String> records) throws SQLException {
+        if (records.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement insert = connection.prepareStatement(
+            "INSERT INTO " + RECORD_TABLE + " (record_key, data) VALUES (?, ?)"
+        )) {
+            for (Map.Entry<String, String> record : records.entrySet()) {
+                insert.setString(1, record.getKey());
+                insert.setString(2, record.getValue());
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private void ensureSchema(Connection connection) throws SQLException {
+        if (schemaReady) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(
+                "CREATE TABLE IF NOT EXISTS " + WALLET_TABLE + " (id INTEGER PRIMARY KEY, data TEXT NOT NULL)"
+            );
+            statement.executeUpdate(
+                "CREATE TABLE IF NOT EXISTS " + RECORD_TABLE
+                    + " (record_key VARCHAR(128) PRIMARY KEY, data TEXT NOT NULL)"
+            );
+        }
+        schemaReady = true;
+    }
+
+    private <R> R inTransaction(String action, SqlWork<R> work) {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                ensureSchema(connection);
+                R result = work.run(connection);
+                connection.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to " + action, e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface SqlWork<R> {
+        R run(Connection connection) throws SQLException;
+    }
+}
@@ -0,0 +1,42 @@
+package org.keychain.keymaster.store;
+
+import java.util.List;
+
+/**
+ * A wallet store that keeps a snapshot plus an append-only journal of records written since it.
+ *
+ * <p>{@link #saveWallet} replaces the snapshot and discards the journal. Records are opaque to the store; the
+ * wallet manager encrypts and authenticates each one and binds it to the snapshot it follows.
+ */
+public interface WalletJournalStore<T> extends WalletStore<T> {
+    boolean appendRecord(String record);
+
+    /**
+     * Appends several records as one write, forced to disk once if the store is durable.
+     */
+    default boolean appendRecords(List<String> records) {
+        for (String record : records) {
+            if (!appendRecord(record)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Appends {@code records} only if the journal currently holds exactly {@code expectedRecords} records, and
+     * returns {@code false} without writing otherwise. Writers sharing a store use this to sequence their records;
+     * implementations should check and append under one lock.
+     */
+    default boolean appendRecords(int expectedRecords, List<String> records) {
+        if (loadRecords().size() != expectedRecords) {
+            return false;
+        }
+        return appendRecords(records);
+    }
+
+    /**
+     * Records appended since the last snapshot, oldest first.
+     */
+    List<String> loadRecords();
+}
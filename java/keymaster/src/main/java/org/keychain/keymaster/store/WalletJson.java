@@ -2,22 +2,40 @@ package org.keychain.keymaster.store;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 
 public class WalletJson<T> implements WalletStore<T> {
     private final ObjectMapper mapper;
     private final Class<T> type;
     private final Path dataFolder;
     private final Path walletPath;
+    private final WalletDurability durability;
 
     public WalletJson(Class<T> type, Path dataFolder, String walletFileName) {
+        this(type, dataFolder, walletFileName, WalletDurability.NONE);
+    }
+
+    public WalletJson(Class<T> type, Path dataFolder, String walletFileName, WalletDurability durability) {
+        if (durability == null) {
+            throw new IllegalArgumentException("durability is required");
+        }
         this.mapper = WalletJsonMapper.mapper();
         this.type = type;
         this.dataFolder = dataFolder;
         this.walletPath = dataFolder.resolve(walletFileName);
+        this.durability = durability;
+    }
+
+    @Override
+    public WalletDurability durability() {
+        return durability;
     }
 
     @Override
@@ -33,12 +51,19 @@ public class WalletJson<T> implements WalletStore<T> {
 
             String json = mapper.writeValueAsString(wallet);
             Path tmp = Files.createTempFile(dataFolder, "wallet", ".tmp");
-            Files.writeString(tmp, json);
+            if (durability == WalletDurability.NONE) {
+                Files.writeString(tmp, json);
+            } else {
+                writeForced(tmp, json.getBytes(StandardCharsets.UTF_8), StandardOpenOption.WRITE);
+            }
             try {
                 Files.move(tmp, walletPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
             } catch (AtomicMoveNotSupportedException e) {
                 Files.move(tmp, walletPath, StandardCopyOption.REPLACE_EXISTING);
             }
+            if (durability != WalletDurability.NONE) {
+                forceDirectory(dataFolder);
+            }
             return true;
         } catch (IOException e) {
             throw new IllegalStateException("Failed to save wallet", e);
@@ -59,4 +84,26 @@ public class WalletJson<T> implements WalletStore<T> {
         }
     }
 
+    static void writeForced(Path path, byte[] data, StandardOpenOption... options) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, options)) {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Makes a rename or newly created file in {@code dir} durable. Not every platform can open a directory, so
+     * this is best-effort.
+     */
+    static void forceDirectory(Path dir) {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Directories cannot be opened as channels on Windows; the file contents were already forced.
+        }
+    }
+
 }
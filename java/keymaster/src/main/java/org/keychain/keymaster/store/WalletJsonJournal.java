@@ -0,0 +1,170 @@
+package org.keychain.keymaster.store;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link WalletJson} snapshot with a line-per-record journal next to it ({@code <walletFileName>.journal}).
+ */
+public class WalletJsonJournal<T> implements WalletJournalStore<T> {
+    private final WalletJson<T> snapshot;
+    private final Path dataFolder;
+    private final Path journalPath;
+    private final WalletDurability durability;
+    /** How much of the journal file has been scanned for record separators, and what that file was. */
+    private Object countedFile;
+    private long countedBytes;
+    private int countedRecords;
+
+    public WalletJsonJournal(Class<T> type, Path dataFolder, String walletFileName) {
+        this(type, dataFolder, walletFileName, WalletDurability.NONE);
+    }
+
+    public WalletJsonJournal(Class<T> type, Path dataFolder, String walletFileName, WalletDurability durability) {
+        this.snapshot = new WalletJson<>(type, dataFolder, walletFileName, durability);
+        this.dataFolder = dataFolder;
+        this.journalPath = dataFolder.resolve(walletFileName + ".journal");
+        this.durability = durability;
+    }
+
+    @Override
+    public WalletDurability durability() {
+        return durability;
+    }
+
+    @Override
+    public synchronized boolean saveWallet(T wallet, boolean overwrite) {
+        boolean ok = snapshot.saveWallet(wallet, overwrite);
+        if (ok) {
+            try {
+                Files.deleteIfExists(journalPath);
+                countedFile = null;
+                countedBytes = 0;
+                countedRecords = 0;
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to reset wallet journal", e);
+            }
+        }
+        return ok;
+    }
+
+    @Override
+    public synchronized T loadWallet() {
+        return snapshot.loadWallet();
+    }
+
+    @Override
+    public boolean appendRecord(String record) {
+        return appendRecords(List.of(record));
+    }
+
+    @Override
+    public synchronized boolean appendRecords(List<String> records) {
+        StringBuilder lines = new StringBuilder();
+        for (String record : records) {
+            if (record == null || record.isEmpty() || record.indexOf('\n') >= 0) {
+                throw new IllegalArgumentException("record must be a non-empty single line");
+            }
+            lines.append(record).append('\n');
+        }
+        try {
+            if (!Files.exists(dataFolder)) {
+                Files.createDirectories(dataFolder);
+            }
+            byte[] data = lines.toString().getBytes(StandardCharsets.UTF_8);
+            if (durability == WalletDurability.NONE) {
+                Files.write(journalPath, data, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } else {
+                boolean created = !Files.exists(journalPath);
+                WalletJson.writeForced(
+                    journalPath,
+                    data,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND,
+                    StandardOpenOption.WRITE
+                );
+                if (created) {
+                    WalletJson.forceDirectory(dataFolder);
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to append to wallet journal", e);
+        }
+    }
+
+    @Override
+    public synchronized boolean appendRecords(int expectedRecords, List<String> records) {
+        try {
+            if (recordCount() != expectedRecords) {
+                return false;
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read wallet journal", e);
+        }
+        return appendRecords(records);
+    }
+
+    /**
+     * Counts complete records, scanning only what was appended since the last count unless the journal was
+     * replaced.
+     */
+    private int recordCount() throws IOException {
+        if (!Files.exists(journalPath)) {
+            countedFile = null;
+            countedBytes = 0;
+            countedRecords = 0;
+            return 0;
+        }
+        BasicFileAttributes attributes = Files.readAttributes(journalPath, BasicFileAttributes.class);
+        Object file = attributes.fileKey();
+        if (file == null || !file.equals(countedFile) || attributes.size() < countedBytes) {
+            countedFile = file;
+            countedBytes = 0;
+            countedRecords = 0;
+        }
+        if (attributes.size() > countedBytes) {
+            try (SeekableByteChannel channel = Files.newByteChannel(journalPath, StandardOpenOption.READ)) {
+                channel.position(countedBytes);
+                ByteBuffer buffer = ByteBuffer.allocate(8192);
+                while (channel.read(buffer) > 0) {
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        if (buffer.get() == '\n') {
+                            countedRecords += 1;
+                        }
+                    }
+                    countedBytes += buffer.limit();
+                    buffer.clear();
+                }
+            }
+        }
+        return countedRecords;
+    }
+
+    @Override
+    public synchronized List<String> loadRecords() {
+        if (!Files.exists(journalPath)) {
+            return new ArrayList<>();
+        }
+        try {
+            List<String> records = new ArrayList<>();
+            for (String line : Files.readAllLines(journalPath, StandardCharsets.UTF_8)) {
+                if (!line.isEmpty()) {
+                    records.add(line);
+                }
+            }
+            return records;
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to load wallet journal", e);
+        }
+    }
+}
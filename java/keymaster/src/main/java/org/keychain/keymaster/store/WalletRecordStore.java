@@ -0,0 +1,30 @@
+package org.keychain.keymaster.store;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * A wallet store that keeps, next to the wallet itself, a set of records addressed by key.
+ *
+ * <p>The wallet manager stores each ID, name and held or owned DID as its own encrypted record, so a mutation only
+ * rewrites the records it touches. Keys and values are opaque to the store. {@link #saveWallet} replaces the wallet
+ * and drops every record.
+ */
+public interface WalletRecordStore<T> extends WalletStore<T> {
+    /**
+     * Replaces the wallet and all records in one transaction. Returns {@code false} if a wallet exists and
+     * {@code overwrite} is false.
+     */
+    boolean replaceRecords(T wallet, Map<String, String> records, boolean overwrite);
+
+    /**
+     * Writes {@code wallet} (unless null), {@code upserts} and {@code deletes} in one transaction. Returns
+     * {@code false} if there is no wallet to update.
+     */
+    boolean updateRecords(T wallet, Map<String, String> upserts, Collection<String> deletes);
+
+    /**
+     * Up to {@code limit} records with keys after {@code afterKey} ({@code null} for the first page), in key order.
+     */
+    Map<String, String> loadRecords(String afterKey, int limit);
+}
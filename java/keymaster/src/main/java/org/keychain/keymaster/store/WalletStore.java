@@ -3,4 +3,8 @@ package org.keychain.keymaster.store;
 public interface WalletStore<T> {
     boolean saveWallet(T wallet, boolean overwrite);
     T loadWallet();
+
+    default WalletDurability durability() {
+        return WalletDurability.NONE;
+    }
 }
@@ -0,0 +1,298 @@
+package org.keychain.keymaster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.keychain.crypto.HdKeyUtil;
+import org.keychain.crypto.JwkPublic;
+import org.keychain.crypto.KeymasterCryptoImpl;
+import org.keychain.gatekeeper.GatekeeperInterface;
+import org.keychain.gatekeeper.model.BlockId;
+import org.keychain.gatekeeper.model.BlockInfo;
+import org.keychain.gatekeeper.model.GatekeeperEvent;
+import org.keychain.gatekeeper.model.GetDIDOptions;
+import org.keychain.gatekeeper.model.ImportBatchResult;
+import org.keychain.gatekeeper.model.MdipDocument;
+import org.keychain.gatekeeper.model.Operation;
+import org.keychain.gatekeeper.model.ProcessEventsResult;
+import org.keychain.gatekeeper.model.ResolveDIDOptions;
+import org.keychain.gatekeeper.model.VerifyDbOptions;
+import org.keychain.gatekeeper.model.VerifyDbResult;
+import org.keychain.keymaster.model.IDInfo;
+import org.keychain.keymaster.model.WalletEncFile;
+import org.keychain.keymaster.store.WalletJsonMemory;
+
+class BatchSignatureTest {
+    private static final String MNEMONIC =
+        "abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon about";
+    private static final String PASSPHRASE = "passphrase";
+    private static final String DID = "did:test:alice";
+
+    private final KeymasterCryptoImpl crypto = new KeymasterCryptoImpl();
+    private final StubGatekeeper gatekeeper = new StubGatekeeper(publicKey());
+    private final Keymaster keymaster = keymaster();
+
+    @Test
+    void verifiesBatchWithOneSignatureCheck() {
+        List<Map<String, Object>> signed = keymaster.addSignatures(items(3));
+        gatekeeper.resolves = 0;
+
+        for (Map<String, Object> item : signed) {
+            assertTrue(keymaster.verifySignature(item));
+        }
+        assertEquals(1, gatekeeper.resolves);
+        assertEquals(3, merkle(signed.get(0)).get("count"));
+    }
+
+    @Test
+    void rejectsIndexPastEndOfBatch() {
+        List<Map<String, Object>> signed = keymaster.addSignatures(items(3));
+        assertTrue(keymaster.verifySignature(signed.get(0)));
+
+        assertFalse(keymaster.verifySignature(withMerkle(signed.get(2), "index", 3)));
+        assertFalse(keymaster.verifySignature(withMerkle(withMerkle(signed.get(2), "index", 3), "count", 4)));
+        assertFalse(keymaster.verifySignature(withMerkle(signed.get(2), "count", 4)));
+        assertFalse(keymaster.verifySignature(withMerkle(signed.get(1), "index", 0)));
+    }
+
+    @Test
+    void rejectsTamperedPath() {
+        List<Map<String, Object>> signed = keymaster.addSignatures(items(4));
+        assertTrue(keymaster.verifySignature(signed.get(0)));
+
+        @SuppressWarnings("unchecked")
+        List<String> path = new ArrayList<>((List<String>) merkle(signed.get(1)).get("path"));
+        path.set(1, path.get(0));
+        assertFalse(keymaster.verifySignature(withMerkle(signed.get(1), "path", path)));
+
+        List<String> longer = new ArrayList<>(path);
+        longer.add(path.get(0));
+        assertFalse(keymaster.verifySignature(withMerkle(signed.get(1), "path", longer)));
+
+        Map<String, Object> tampered = new LinkedHashMap<>(signed.get(1));
+        tampered.put("index", 7);
+        assertFalse(keymaster.verifySignature(tampered));
+        assertTrue(keymaster.verifySignature(signed.get(1)));
+    }
+
+    @Test
+    void rejectsMalformedProofs() {
+        Map<String, Object> item = keymaster.addSignatures(items(2)).get(0);
+        assertTrue(keymaster.verifySignature(item));
+
+        Map<String, Object> notMap = new LinkedHashMap<>(item);
+        Map<String, Object> signature = new LinkedHashMap<>(signature(item));
+        signature.put("merkle", "root");
+        notMap.put("signature", signature);
+        assertFalse(keymaster.verifySignature(notMap));
+
+        assertFalse(keymaster.verifySignature(withMerkle(item, "index", "0")));
+        assertFalse(keymaster.verifySignature(withMerkle(item, "count", null)));
+        assertFalse(keymaster.verifySignature(withMerkle(item, "path", List.of(1))));
+        assertFalse(keymaster.verifySignature(withMerkle(item, "path", List.of("abc"))));
+        assertFalse(keymaster.verifySignature(withMerkle(item, "root", "00")));
+        assertFalse(keymaster.verifySignature(withMerkle(item, "index", -1)));
+    }
+
+    private Keymaster keymaster() {
+        Keymaster keymaster = new Keymaster(new WalletJsonMemory<>(WalletEncFile.class), gatekeeper, PASSPHRASE, null);
+        keymaster.newWallet(MNEMONIC, true);
+        keymaster.mutateWallet(wallet -> {
+            IDInfo id = new IDInfo();
+            id.did = DID;
+            wallet.ids.put("Alice", id);
+            wallet.current = "Alice";
+        });
+        return keymaster;
+    }
+
+    private JwkPublic publicKey() {
+        return crypto.generateJwk(HdKeyUtil.privateKeyBytes(
+            HdKeyUtil.derivePath(HdKeyUtil.masterFromMnemonic(MNEMONIC), 0, 0)
+        )).publicJwk;
+    }
+
+    private static List<Map<String, Object>> items(int count) {
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            items.add(Map.of("key", "value", "index", i));
+        }
+        return items;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> signature(Map<String, Object> item) {
+        return (Map<String, Object>) item.get("signature");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> merkle(Map<String, Object> item) {
+        return (Map<String, Object>) signature(item).get("merkle");
+    }
+
+    private static Map<String, Object> withMerkle(Map<String, Object> item, String key, Object value) {
+        Map<String, Object> merkle = new LinkedHashMap<>(merkle(item));
+        merkle.put(key, value);
+        Map<String, Object> signature = new LinkedHashMap<>(signature(item));
+        signature.put("merkle", merkle);
+        Map<String, Object> copy = new LinkedHashMap<>(item);
+        copy.put("signature", signature);
+        return copy;
+    }
+
+    private static final class StubGatekeeper implements GatekeeperInterface {
+        private final JwkPublic publicKey;
+        private int resolves;
+
+        private StubGatekeeper(JwkPublic publicKey) {
+            this.publicKey = publicKey;
+        }
+
+        @Override
+        public MdipDocument resolveDID(String did, ResolveDIDOptions options) {
+            resolves += 1;
+            MdipDocument.VerificationMethod method = new MdipDocument.VerificationMethod();
+            method.id = "#key-1";
+            method.controller = did;
+            method.type = "EcdsaSecp256k1VerificationKey2019";
+            method.publicKeyJwk = JwkConverter.toEcdsaJwkPublic(publicKey);
+
+            MdipDocument doc = new MdipDocument();
+            doc.didDocument = new MdipDocument.DidDocument();
+            doc.didDocument.id = did;
+            doc.didDocument.verificationMethod = List.of(method);
+            return doc;
+        }
+
+        @Override
+        public List<String> listRegistries() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean resetDb() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public VerifyDbResult verifyDb(VerifyDbOptions options) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String createDID(Operation operation) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean updateDID(Operation operation) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean deleteDID(Operation operation) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Object getDIDs(GetDIDOptions options) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<List<GatekeeperEvent>> exportDIDs(List<String> dids) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ImportBatchResult importDIDs(List<List<GatekeeperEvent>> dids) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean removeDIDs(List<String> dids) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<GatekeeperEvent> exportBatch(List<String> dids) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ImportBatchResult importBatch(List<GatekeeperEvent> batch) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ProcessEventsResult processEvents() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Operation> getQueue(String registry) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean clearQueue(String registry, List<Operation> events) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String addData(byte[] data) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public byte[] getData(String cid) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String addJSON(Object json) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Object getJSON(String cid) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String addText(String text) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String getText(String cid) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public BlockInfo getBlock(String registry) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public BlockInfo getBlock(String registry, BlockId blockId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean addBlock(String registry, BlockInfo blockInfo) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String generateDID(Operation operation) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package org.keychain.keymaster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+import org.bitcoinj.crypto.DeterministicKey;
+import org.junit.jupiter.api.Test;
+import org.keychain.crypto.HdKeyUtil;
+import org.keychain.crypto.JwkPair;
+import org.keychain.crypto.KeymasterCryptoImpl;
+
+class KeyDerivationCacheTest {
+    private static final String MNEMONIC =
+        "abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon about";
+    private static final String OTHER_MNEMONIC =
+        "legal winner thank year wave sausage worth useful legal winner thank yellow";
+
+    private final KeymasterCryptoImpl crypto = new KeymasterCryptoImpl();
+
+    @Test
+    void keyPairMatchesDerivePath() {
+        DeterministicKey master = HdKeyUtil.masterFromMnemonic(MNEMONIC);
+        KeyDerivationCache cache = new KeyDerivationCache(crypto, 8);
+
+        for (int account = 0; account < 2; account++) {
+            for (int index = 0; index < 3; index++) {
+                JwkPair expected = crypto.generateJwk(
+                    HdKeyUtil.privateKeyBytes(HdKeyUtil.derivePath(master, account, index))
+                );
+                JwkPair actual = cache.keyPair(master, account, index);
+                assertEquals(expected.privateJwk.d, actual.privateJwk.d);
+                assertSame(actual, cache.keyPair(master, account, index));
+            }
+        }
+    }
+
+    @Test
+    void olderKeyPairsAreNewestFirstAndShareEntries() {
+        DeterministicKey master = HdKeyUtil.masterFromMnemonic(MNEMONIC);
+        KeyDerivationCache cache = new KeyDerivationCache(crypto, 16);
+
+        JwkPair second = cache.keyPair(master, 0, 1);
+        List<JwkPair> older = cache.olderKeyPairs(master, 0, 4);
+
+        assertEquals(4, older.size());
+        assertSame(second, older.get(2));
+        for (int i = 0; i < older.size(); i++) {
+            assertSame(older.get(i), cache.keyPair(master, 0, 3 - i));
+        }
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        DeterministicKey master = HdKeyUtil.masterFromMnemonic(MNEMONIC);
+        KeyDerivationCache cache = new KeyDerivationCache(crypto, 2);
+
+        JwkPair first = cache.keyPair(master, 0, 0);
+        cache.keyPair(master, 0, 1);
+        cache.keyPair(master, 0, 0);
+        cache.keyPair(master, 0, 2);
+
+        assertEquals(2, cache.size());
+        assertSame(first, cache.keyPair(master, 0, 0));
+    }
+
+    @Test
+    void differentMasterDropsEntries() {
+        DeterministicKey master = HdKeyUtil.masterFromMnemonic(MNEMONIC);
+        DeterministicKey other = HdKeyUtil.masterFromMnemonic(OTHER_MNEMONIC);
+        KeyDerivationCache cache = new KeyDerivationCache(crypto, 8);
+
+        JwkPair pair = cache.keyPair(master, 0, 0);
+        JwkPair otherPair = cache.keyPair(other, 0, 0);
+
+        assertNotSame(pair, otherPair);
+        assertEquals(1, cache.size());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+}
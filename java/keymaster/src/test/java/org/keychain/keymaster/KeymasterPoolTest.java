@@ -0,0 +1,198 @@
+package org.keychain.keymaster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import org.keychain.crypto.KeymasterCryptoImpl;
+import org.keychain.keymaster.model.WalletEncFile;
+import org.keychain.keymaster.store.WalletJsonMemory;
+import org.keychain.keymaster.store.WalletStore;
+
+class KeymasterPoolTest {
+    private static final String MNEMONIC =
+        "abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon about";
+    private static final String PASSPHRASE = "passphrase";
+
+    private final KeymasterCryptoImpl crypto = new KeymasterCryptoImpl();
+    private final Map<String, WalletStore<WalletEncFile>> stores = new HashMap<>();
+    private final MutableClock clock = new MutableClock();
+
+    @Test
+    void reusesUnlockedKeymasterForTenant() {
+        KeymasterPool pool = pool(4, "alice", "bob");
+
+        Keymaster alice = pool.get("alice", PASSPHRASE);
+        assertTrue(alice.isUnlocked());
+        assertSame(alice, pool.get("alice", PASSPHRASE));
+        assertNotSame(alice, pool.get("bob", PASSPHRASE));
+
+        KeymasterPoolStats stats = pool.stats();
+        assertEquals(1, stats.hits);
+        assertEquals(2, stats.misses);
+        assertEquals(0, stats.evictions);
+        assertEquals(2, stats.size);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedTenant() {
+        KeymasterPool pool = pool(2, "alice", "bob", "carol");
+
+        Keymaster alice = pool.get("alice", PASSPHRASE);
+        Keymaster bob = pool.get("bob", PASSPHRASE);
+        pool.get("alice", PASSPHRASE);
+        pool.get("carol", PASSPHRASE);
+
+        assertFalse(bob.isUnlocked());
+        assertThrows(IllegalStateException.class, bob::loadWallet);
+        assertThrows(IllegalStateException.class, () -> bob.addName("stale", "did:test:stale"));
+        assertTrue(alice.isUnlocked());
+        assertSame(alice, pool.get("alice", PASSPHRASE));
+        assertEquals(1, pool.stats().evictions);
+        assertEquals(2, pool.stats().size);
+    }
+
+    @Test
+    void evictsIdleTenants() {
+        KeymasterPool pool = pool(4, "alice", "bob");
+        Keymaster alice = pool.get("alice", PASSPHRASE);
+        clock.advance(Duration.ofMinutes(10));
+        pool.get("bob", PASSPHRASE);
+
+        clock.advance(Duration.ofMinutes(6));
+        assertEquals(1, pool.evictIdle());
+        assertFalse(alice.isUnlocked());
+        assertNotSame(alice, pool.get("alice", PASSPHRASE));
+        assertEquals(1, pool.stats().evictions);
+    }
+
+    @Test
+    void evictionThreadWipesIdleTenantsWithoutTraffic() throws InterruptedException {
+        pool(4, "alice");
+        KeymasterPoolOptions options = new KeymasterPoolOptions();
+        options.idleTimeout = Duration.ofMillis(20);
+        try (KeymasterPool pool = new KeymasterPool(null, crypto, stores::get, options, clock)) {
+            pool.get("alice", PASSPHRASE);
+            clock.advance(Duration.ofMinutes(1));
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (pool.stats().size > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(0, pool.stats().size);
+            assertEquals(1, pool.stats().evictions);
+        }
+    }
+
+    @Test
+    void wrongPassphraseDoesNotReturnCachedKeymaster() {
+        KeymasterPool pool = pool(4, "alice");
+        Keymaster alice = pool.get("alice", PASSPHRASE);
+
+        assertThrows(IllegalStateException.class, () -> pool.get("alice", "wrong"));
+        assertSame(alice, pool.get("alice", PASSPHRASE));
+        assertEquals(1, pool.stats().size);
+    }
+
+    @Test
+    void concurrentMissesOpenTenantOnce() throws Exception {
+        pool(4, "alice");
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger opens = new AtomicInteger();
+        KeymasterPoolOptions options = new KeymasterPoolOptions();
+        options.maxTenants = 4;
+        KeymasterPool pool = new KeymasterPool(null, crypto, tenant -> {
+            opens.incrementAndGet();
+            entered.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return stores.get(tenant);
+        }, options, clock);
+
+        CompletableFuture<Keymaster> first = CompletableFuture.supplyAsync(() -> pool.get("alice", PASSPHRASE));
+        try {
+            assertTrue(entered.await(10, TimeUnit.SECONDS));
+            AtomicReference<Keymaster> second = new AtomicReference<>();
+            Thread waiter = new Thread(() -> second.set(pool.get("alice", PASSPHRASE)));
+            waiter.start();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (waiter.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            waiter.join(10_000);
+
+            assertSame(first.get(10, TimeUnit.SECONDS), second.get());
+            assertEquals(1, opens.get());
+            assertEquals(1, pool.stats().misses);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void closeWipesEveryTenant() {
+        KeymasterPool pool = pool(4, "alice");
+        Keymaster alice = pool.get("alice", PASSPHRASE);
+        pool.close();
+
+        assertFalse(alice.isUnlocked());
+        assertThrows(IllegalStateException.class, alice::unlock);
+        assertEquals(0, pool.stats().size);
+    }
+
+    private KeymasterPool pool(int maxTenants, String... tenants) {
+        for (String tenant : tenants) {
+            WalletJsonMemory<WalletEncFile> store = new WalletJsonMemory<>(WalletEncFile.class);
+            new Keymaster(store, crypto, PASSPHRASE).newWallet(MNEMONIC, true);
+            stores.put(tenant, store);
+        }
+        KeymasterPoolOptions options = new KeymasterPoolOptions();
+        options.maxTenants = maxTenants;
+        options.idleTimeout = Duration.ofMinutes(15);
+        return new KeymasterPool(null, crypto, stores::get, options, clock);
+    }
+
+    private static final class MutableClock extends Clock {
+        private volatile Instant now = Instant.EPOCH;
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
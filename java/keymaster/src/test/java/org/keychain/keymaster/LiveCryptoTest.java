@@ -13,7 +13,9 @@ import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import org.keychain.crypto.KeymasterCryptoImpl;
+import org.keychain.crypto.Secp256k1Jwk;
 import org.keychain.gatekeeper.model.MdipDocument;
+import org.keychain.keymaster.model.IDInfo;
 import org.keychain.keymaster.testutil.LiveTestSupport;
 
 @Tag("live")
@@ -116,6 +118,21 @@ class LiveCryptoTest {
         assertEquals(msg, decipher);
     }
 
+    @Test
+    void rotateKeysIndexesEveryKey() {
+        Keymaster keymaster = newKeymaster();
+        keymaster.createId("Bob");
+        keymaster.rotateKeys();
+        keymaster.rotateKeys();
+
+        IDInfo id = keymaster.loadWallet().ids.get("Bob");
+        assertEquals(3, id.keyIndex.size());
+        assertEquals(
+            Integer.valueOf(2),
+            id.keyIndex.get(Secp256k1Jwk.thumbprint(keymaster.fetchKeyPair("Bob").publicJwk))
+        );
+    }
+
     @Test
     void decryptMessageShortAfterRotateKeysUnconfirmed() {
         Keymaster keymaster = newKeymaster();
@@ -243,6 +260,44 @@ class LiveCryptoTest {
         assertTrue(keymaster.verifySignature(signed));
     }
 
+    @Test
+    void addSignaturesVerifiesEveryItemOfBatch() {
+        Keymaster keymaster = newKeymaster();
+        keymaster.createId("Bob");
+
+        java.util.List<Map<String, Object>> items = new java.util.ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            items.add(Map.of("key", "value", "index", i));
+        }
+        java.util.List<Map<String, Object>> signed = keymaster.addSignatures(items);
+
+        assertEquals(5, signed.size());
+        for (Map<String, Object> item : signed) {
+            assertTrue(keymaster.verifySignature(item));
+        }
+    }
+
+    @Test
+    void verifySignatureRejectsTamperedBatchItem() {
+        Keymaster keymaster = newKeymaster();
+        keymaster.createId("Bob");
+
+        java.util.List<Map<String, Object>> signed = keymaster.addSignatures(
+            java.util.List.of(Map.of("index", 0), Map.of("index", 1), Map.of("index", 2))
+        );
+        assertTrue(keymaster.verifySignature(signed.get(0)));
+
+        Map<String, Object> tampered = new java.util.LinkedHashMap<>(signed.get(1));
+        tampered.put("index", 7);
+        assertFalse(keymaster.verifySignature(tampered));
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> merkle = (Map<String, Object>) ((Map<String, Object>) signed.get(2).get("signature"))
+            .get("merkle");
+        merkle.put("index", 0);
+        assertFalse(keymaster.verifySignature(signed.get(2)));
+    }
+
     @Test
     void verifySignatureMissingSignature() {
         Keymaster keymaster = newKeymaster();
@@ -374,8 +374,14 @@ class LiveWalletTest {
     void saveWalletEncryptsV1AndRemovesHdKey() {
         WalletJson<WalletEncFile> store = newStore("wallet");
         Keymaster keymaster = newKeymaster(store);
-        WalletFile wallet = keymaster.newWallet(MNEMONIC, true);
+        WalletFile published = keymaster.newWallet(MNEMONIC, true);
 
+        WalletFile wallet = new WalletFile();
+        wallet.version = published.version;
+        wallet.counter = published.counter;
+        wallet.ids = new HashMap<>(published.ids);
+        wallet.seed = new Seed();
+        wallet.seed.mnemonicEnc = published.seed.mnemonicEnc;
         wallet.seed.hdkey = toModelHdKey(HdKeyUtil.masterFromMnemonic(MNEMONIC));
 
         assertTrue(keymaster.saveWallet(wallet, true));
@@ -0,0 +1,203 @@
+package org.keychain.keymaster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.keychain.crypto.EncryptedMnemonic;
+import org.keychain.keymaster.model.IDInfo;
+import org.keychain.keymaster.model.Seed;
+import org.keychain.keymaster.model.WalletFile;
+import org.keychain.keymaster.store.WalletJsonMapper;
+
+class WalletDraftTest {
+    private static final ObjectMapper MAPPER = WalletJsonMapper.mapper();
+
+    @Test
+    void untouchedDraftIsUnchanged() {
+        WalletFile base = wallet();
+        WalletDraft draft = WalletDraft.of(base);
+
+        WalletFile working = draft.working();
+        working.ids.get("Alice").held.contains("did:test:held");
+        working.names.put("alias", "did:test:alias");
+        working.current = "Alice";
+
+        assertFalse(draft.isChanged());
+    }
+
+    @Test
+    void writesCopyOnlyWhatChanged() {
+        WalletFile base = wallet();
+        List<String> baseHeld = base.ids.get("Alice").held;
+        WalletDraft draft = WalletDraft.of(base);
+
+        draft.working().ids.get("Alice").held.add("did:test:new");
+
+        assertTrue(draft.isChanged());
+        assertEquals(List.of("did:test:held"), baseHeld);
+
+        WalletFile committed = draft.commit();
+        assertEquals(List.of("did:test:held", "did:test:new"), committed.ids.get("Alice").held);
+        assertNotSame(base.ids.get("Alice"), committed.ids.get("Alice"));
+        assertSame(base.ids.get("Alice").owned, committed.ids.get("Alice").owned);
+        assertSame(base.ids.get("Bob"), committed.ids.get("Bob"));
+        assertSame(base.names, committed.names);
+    }
+
+    @Test
+    void scalarAndStructuralChangesAreDetected() {
+        WalletDraft counter = WalletDraft.of(wallet());
+        counter.working().counter += 1;
+        assertTrue(counter.isChanged());
+
+        WalletDraft index = WalletDraft.of(wallet());
+        index.working().ids.get("Bob").index = 3;
+        assertTrue(index.isChanged());
+
+        WalletDraft rename = WalletDraft.of(wallet());
+        IDInfo alice = rename.working().ids.remove("Alice");
+        rename.working().ids.put("Carol", alice);
+        assertTrue(rename.isChanged());
+        assertEquals(List.of("Bob", "Carol"), new ArrayList<>(rename.commit().ids.keySet()));
+
+        WalletDraft extras = WalletDraft.of(wallet());
+        @SuppressWarnings("unchecked")
+        Map<String, Object> nested = (Map<String, Object>) extras.working().extras.get("nested");
+        nested.put("flag", false);
+        assertTrue(extras.isChanged());
+    }
+
+    @Test
+    void iteratorRemovalLeavesBaseIntact() {
+        WalletFile base = wallet();
+        WalletDraft draft = WalletDraft.of(base);
+
+        Iterator<Map.Entry<String, IDInfo>> it = draft.working().ids.entrySet().iterator();
+        it.next();
+        it.remove();
+        draft.working().ids.get("Bob").owned.removeIf("did:test:owned"::equals);
+
+        assertTrue(draft.isChanged());
+        assertEquals(2, base.ids.size());
+        assertEquals(List.of("did:test:owned"), base.ids.get("Bob").owned);
+
+        WalletFile committed = draft.commit();
+        assertEquals(List.of("Bob"), new ArrayList<>(committed.ids.keySet()));
+        assertTrue(committed.ids.get("Bob").owned.isEmpty());
+    }
+
+    @Test
+    void iterationReadsBaseUntilFirstWrite() {
+        Map<String, String> base = new LinkedHashMap<>(Map.of("a", "1"));
+        base.put("b", "2");
+        base.put("c", "3");
+        TrackedMap<String, String> map = new TrackedMap<>(base);
+
+        assertEquals(List.of("1", "2", "3"), new ArrayList<>(map.values()));
+        assertSame(base, map.unwrap());
+
+        Iterator<Map.Entry<String, String>> it = map.entrySet().iterator();
+        it.next();
+        it.next().setValue("two");
+        it.remove();
+        assertEquals("3", it.next().getValue());
+        assertFalse(it.hasNext());
+
+        assertTrue(map.isDirty());
+        assertEquals(Map.of("a", "1", "c", "3"), map.unwrap());
+        assertEquals(List.of("1", "2", "3"), new ArrayList<>(base.values()));
+    }
+
+    @Test
+    void seedEditsAreDetectedWithoutTouchingBase() {
+        WalletFile base = wallet();
+        WalletDraft untouched = WalletDraft.of(base);
+        assertFalse(untouched.isChanged());
+        assertSame(base.seed, untouched.commit().seed);
+
+        WalletDraft draft = WalletDraft.of(base);
+        draft.working().seed.mnemonicEnc.data = "rotated";
+
+        assertTrue(draft.isChanged());
+        assertNull(draft.delta(MAPPER));
+        assertEquals("data", base.seed.mnemonicEnc.data);
+        assertEquals("rotated", draft.commit().seed.mnemonicEnc.data);
+    }
+
+    @Test
+    void deltaReplaysToCommittedWallet() {
+        WalletFile base = wallet();
+        WalletDraft draft = WalletDraft.of(base);
+        WalletFile working = draft.working();
+        working.counter += 1;
+        working.ids.get("Alice").held.add("did:test:new");
+        working.ids.get("Bob").owned.remove(0);
+        working.ids.remove("Alice");
+        working.ids.put("Carol", id("did:test:carol", 2));
+        working.ids.get("Bob").index = 4;
+        working.names.put("other", "did:test:other");
+
+        WalletDelta delta = draft.delta(MAPPER);
+        Map<String, Object> replayed = toMap(base);
+        WalletDelta.apply(replayed, delta.ops());
+
+        assertEquals(toMap(draft.commit()), replayed);
+    }
+
+    @Test
+    void appendsAreRecordedWithoutTheWholeList() {
+        WalletDraft draft = WalletDraft.of(wallet());
+        draft.working().ids.get("Alice").held.add("did:test:new");
+
+        List<Map<String, Object>> ops = draft.delta(MAPPER).ops();
+
+        assertEquals(1, ops.size());
+        assertEquals(WalletDelta.APPEND, ops.get(0).get("op"));
+        assertEquals(List.of("ids", "Alice", "held"), ops.get(0).get("path"));
+        assertEquals(List.of("did:test:new"), ops.get(0).get("value"));
+    }
+
+    private static Map<String, Object> toMap(WalletFile wallet) {
+        Map<String, Object> data = MAPPER.convertValue(wallet, new TypeReference<>() {});
+        data.remove("version");
+        data.remove("seed");
+        return data;
+    }
+
+    private static WalletFile wallet() {
+        WalletFile wallet = new WalletFile();
+        wallet.version = 1;
+        wallet.counter = 2;
+        wallet.current = "Alice";
+        wallet.ids = new LinkedHashMap<>();
+        wallet.ids.put("Alice", id("did:test:alice", 0));
+        wallet.ids.put("Bob", id("did:test:bob", 1));
+        wallet.names = new HashMap<>(Map.of("alias", "did:test:alias"));
+        wallet.extras = new LinkedHashMap<>(Map.of("nested", new LinkedHashMap<>(Map.of("flag", true))));
+        wallet.seed = new Seed();
+        wallet.seed.mnemonicEnc = new EncryptedMnemonic("salt", "iv", "data");
+        return wallet;
+    }
+
+    private static IDInfo id(String did, int account) {
+        IDInfo id = new IDInfo();
+        id.did = did;
+        id.account = account;
+        id.held = new ArrayList<>(List.of("did:test:held"));
+        id.owned = new ArrayList<>(List.of("did:test:owned"));
+        return id;
+    }
+}
@@ -0,0 +1,172 @@
+package org.keychain.keymaster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.keychain.keymaster.model.WalletEncFile;
+import org.keychain.keymaster.model.WalletFile;
+import org.keychain.keymaster.store.WalletDurability;
+import org.keychain.keymaster.store.WalletJdbc;
+import org.keychain.keymaster.store.WalletJsonJournal;
+
+class WalletPersistenceTest {
+    private static final String MNEMONIC =
+        "abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon about";
+    private static final String PASSPHRASE = "passphrase";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void journaledWalletReplaysMutationsOnLoad() {
+        WalletJsonJournal<WalletEncFile> store = journal("journal");
+        Keymaster keymaster = new Keymaster(store, PASSPHRASE);
+        keymaster.newWallet(MNEMONIC, true);
+
+        keymaster.addName("first", "did:test:first");
+        keymaster.addName("second", "did:test:second");
+        keymaster.mutateWallet(wallet -> wallet.counter = 5);
+        assertEquals(3, store.loadRecords().size());
+
+        WalletFile wallet = new Keymaster(store, PASSPHRASE).loadWallet();
+        assertEquals(5, wallet.counter);
+        assertEquals("did:test:first", wallet.names.get("first"));
+        assertEquals("did:test:second", wallet.names.get("second"));
+    }
+
+    @Test
+    void journalRefusesRecordsOutOfSequence() {
+        WalletJsonJournal<WalletEncFile> store = journal("shared");
+        Keymaster first = new Keymaster(store, PASSPHRASE);
+        first.newWallet(MNEMONIC, true);
+        first.addName("first", "did:test:first");
+
+        Keymaster second = new Keymaster(store, PASSPHRASE);
+        second.addName("second", "did:test:second");
+        assertEquals(2, store.loadRecords().size());
+
+        // The first manager has only seen its own record, so its append is refused and it saves a snapshot instead.
+        first.addName("third", "did:test:third");
+        assertTrue(store.loadRecords().isEmpty());
+
+        WalletFile wallet = new Keymaster(store, PASSPHRASE).loadWallet();
+        assertEquals("did:test:first", wallet.names.get("first"));
+        assertEquals("did:test:third", wallet.names.get("third"));
+        assertNull(wallet.names.get("second"));
+    }
+
+    @Test
+    void replayStopsAtFirstRecordOutOfSequence() {
+        WalletJsonJournal<WalletEncFile> store = journal("duplicate");
+        Keymaster keymaster = new Keymaster(store, PASSPHRASE);
+        keymaster.newWallet(MNEMONIC, true);
+        keymaster.addName("first", "did:test:first");
+        keymaster.addName("second", "did:test:second");
+        List<String> records = store.loadRecords();
+        store.appendRecords(List.of(records.get(1), records.get(0)));
+        assertEquals(4, store.loadRecords().size());
+
+        WalletFile wallet = new Keymaster(store, PASSPHRASE).loadWallet();
+        assertEquals("did:test:first", wallet.names.get("first"));
+        assertEquals("did:test:second", wallet.names.get("second"));
+        assertTrue(store.loadRecords().isEmpty());
+
+        WalletFile reloaded = new Keymaster(store, PASSPHRASE).loadWallet();
+        assertEquals(wallet.names, reloaded.names);
+    }
+
+    @Test
+    void batchedWalletGroupsMutationsIntoOneCommit() {
+        WalletJsonJournal<WalletEncFile> store = new WalletJsonJournal<>(
+            WalletEncFile.class,
+            tempDir.resolve("batched"),
+            "wallet.json",
+            WalletDurability.BATCHED
+        );
+        Keymaster keymaster = new Keymaster(store, PASSPHRASE);
+        keymaster.newWallet(MNEMONIC, true);
+        keymaster.setGroupCommitWindow(Duration.ofMinutes(1));
+
+        CompletableFuture<Boolean> first = keymaster.mutateWalletAsync(wallet -> wallet.counter = 1);
+        CompletableFuture<Boolean> second = keymaster.mutateWalletAsync(wallet -> wallet.counter = 2);
+        assertNotSame(first, second);
+        assertTrue(first.cancel(false));
+        assertFalse(second.isDone());
+        assertEquals(2, keymaster.loadWallet().counter);
+        assertTrue(store.loadRecords().isEmpty());
+
+        assertTrue(keymaster.flushWallet());
+        assertTrue(second.join());
+        assertEquals(2, store.loadRecords().size());
+
+        keymaster.setGroupCommitWindow(Duration.ZERO);
+        assertTrue(keymaster.mutateWallet(wallet -> wallet.counter = 3));
+        assertEquals(3, store.loadRecords().size());
+
+        assertEquals(3, new Keymaster(store, PASSPHRASE).loadWallet().counter);
+    }
+
+    @Test
+    void jdbcWalletWritesOnlyTouchedRecords() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        WalletJdbc<WalletEncFile> store = new WalletJdbc<>(WalletEncFile.class, dataSource);
+        Keymaster keymaster = new Keymaster(store, PASSPHRASE);
+        keymaster.newWallet(MNEMONIC, true);
+        keymaster.addName("first", "did:test:first");
+        Map<String, String> before = store.loadRecords(null, 100);
+        String header = store.loadWallet().enc;
+
+        keymaster.addName("second", "did:test:second");
+        Map<String, String> after = store.loadRecords(null, 100);
+        assertEquals(before.size() + 1, after.size());
+        assertTrue(after.entrySet().containsAll(before.entrySet()));
+        assertEquals(header, store.loadWallet().enc);
+        assertFalse(after.values().stream().anyMatch(value -> value.contains("did:test:second")));
+
+        keymaster.removeName("first");
+        WalletFile wallet = new Keymaster(store, PASSPHRASE).loadWallet();
+        assertNull(wallet.names.get("first"));
+        assertEquals("did:test:second", wallet.names.get("second"));
+        assertEquals(1, store.loadRecords(null, 100).size());
+    }
+
+    @Test
+    void jdbcWalletKeepsNameOrder() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        WalletJdbc<WalletEncFile> store = new WalletJdbc<>(WalletEncFile.class, dataSource);
+        Keymaster keymaster = new Keymaster(store, PASSPHRASE);
+        keymaster.newWallet(MNEMONIC, true);
+        List<String> names = List.of("zulu", "alpha", "mike", "bravo", "yankee", "charlie");
+        for (String name : names) {
+            keymaster.addName(name, "did:test:" + name);
+        }
+        keymaster.removeName("mike");
+        keymaster.addName("mike", "did:test:mike");
+
+        WalletFile wallet = new Keymaster(store, PASSPHRASE).loadWallet();
+        assertEquals(
+            List.of("zulu", "alpha", "bravo", "yankee", "charlie", "mike"),
+            new ArrayList<>(wallet.names.keySet())
+        );
+        assertEquals(new ArrayList<>(keymaster.loadWallet().names.keySet()), new ArrayList<>(wallet.names.keySet()));
+    }
+
+    private WalletJsonJournal<WalletEncFile> journal(String name) {
+        return new WalletJsonJournal<>(WalletEncFile.class, tempDir.resolve(name), "wallet.json");
+    }
+}
@@ -0,0 +1,159 @@
+package org.keychain.keymaster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.keychain.keymaster.model.IDInfo;
+import org.keychain.keymaster.model.Seed;
+import org.keychain.keymaster.model.WalletFile;
+import org.keychain.keymaster.store.WalletJsonMapper;
+
+class WalletRecordsTest {
+    private static final ObjectMapper MAPPER = WalletJsonMapper.mapper();
+
+    @Test
+    void splitsAndReassemblesWallet() {
+        WalletFile wallet = wallet();
+        WalletRecords records = WalletRecords.all(wallet, MAPPER);
+
+        assertTrue(records.headerChanged);
+        assertEquals(5, records.upserts.size());
+        assertEquals("did:test:held1", records.upserts.get(List.of(WalletRecords.HELD, "Alice", 1)));
+
+        WalletFile loaded = WalletRecords.header(wallet);
+        assertTrue(loaded.ids.isEmpty());
+        WalletRecords.assemble(loaded, roundTrip(records.upserts), MAPPER);
+        assertEquals(MAPPER.valueToTree(wallet), MAPPER.valueToTree(loaded));
+    }
+
+    @Test
+    void diffTouchesOnlyChangedRecords() {
+        WalletFile base = wallet();
+        WalletDraft draft = WalletDraft.of(base);
+        draft.working().ids.get("Alice").held.add("did:test:held2");
+        draft.working().names.remove("alias");
+        WalletFile next = draft.commit();
+
+        WalletRecords changes = WalletRecords.diff(base, WalletRecords.all(base, MAPPER).ordinals, next, MAPPER);
+        assertFalse(changes.headerChanged);
+        assertEquals(
+            Set.of(List.of(WalletRecords.ID, "Alice"), List.of(WalletRecords.HELD, "Alice", 2)),
+            changes.upserts.keySet()
+        );
+        assertEquals(Set.of(List.of(WalletRecords.NAME, "alias")), changes.deletes);
+    }
+
+    @Test
+    void removedIdDeletesItsLists() {
+        WalletFile base = wallet();
+        WalletDraft draft = WalletDraft.of(base);
+        draft.working().ids.remove("Alice");
+        draft.working().counter = 2;
+
+        WalletRecords changes =
+            WalletRecords.diff(base, WalletRecords.all(base, MAPPER).ordinals, draft.commit(), MAPPER);
+        assertTrue(changes.headerChanged);
+        assertTrue(changes.upserts.isEmpty());
+        assertEquals(
+            Set.of(
+                List.of(WalletRecords.ID, "Alice"),
+                List.of(WalletRecords.HELD, "Alice", 0),
+                List.of(WalletRecords.HELD, "Alice", 1),
+                List.of(WalletRecords.OWNED, "Alice", 0)
+            ),
+            changes.deletes
+        );
+    }
+
+    @Test
+    void reassemblesInWalletOrder() {
+        WalletFile base = wallet();
+        for (String name : List.of("zulu", "alpha", "mike")) {
+            base.names.put(name, "did:test:" + name);
+        }
+        WalletRecords records = WalletRecords.all(base, MAPPER);
+        Map<List<Object>, Object> stored = roundTrip(records.upserts);
+
+        WalletDraft draft = WalletDraft.of(base);
+        draft.working().names.remove("zulu");
+        draft.working().names.put("bravo", "did:test:bravo");
+        draft.working().names.put("zulu", "did:test:zulu");
+        WalletFile next = draft.commit();
+        WalletRecords changes = WalletRecords.diff(base, records.ordinals, next, MAPPER);
+        assertEquals(
+            Set.of(List.of(WalletRecords.NAME, "bravo"), List.of(WalletRecords.NAME, "zulu")),
+            changes.upserts.keySet()
+        );
+        stored.putAll(roundTrip(changes.upserts));
+
+        WalletFile loaded = WalletRecords.header(next);
+        Map<List<Object>, Long> ordinals = WalletRecords.assemble(loaded, stored, MAPPER);
+        assertEquals(new ArrayList<>(next.names.keySet()), new ArrayList<>(loaded.names.keySet()));
+        assertEquals(changes.ordinals, ordinals);
+    }
+
+    @Test
+    void missingListRecordIsCorrupt() {
+        WalletFile wallet = wallet();
+        Map<List<Object>, Object> records = roundTrip(WalletRecords.all(wallet, MAPPER).upserts);
+        records.remove(List.of(WalletRecords.HELD, "Alice", 0));
+
+        assertThrows(
+            IllegalStateException.class,
+            () -> WalletRecords.assemble(WalletRecords.header(wallet), records, MAPPER)
+        );
+    }
+
+    @Test
+    void nullListsStayNull() {
+        WalletFile wallet = wallet();
+        wallet.ids.get("Alice").owned = null;
+        WalletFile loaded = WalletRecords.header(wallet);
+        WalletRecords.assemble(loaded, roundTrip(WalletRecords.all(wallet, MAPPER).upserts), MAPPER);
+
+        assertNull(loaded.ids.get("Alice").owned);
+    }
+
+    private static Map<List<Object>, Object> roundTrip(Map<List<Object>, Object> records) {
+        Map<List<Object>, Object> copy = new HashMap<>();
+        for (Map.Entry<List<Object>, Object> record : records.entrySet()) {
+            Map<String, Object> data = MAPPER.convertValue(
+                Map.of("key", record.getKey(), "value", record.getValue()),
+                new com.fasterxml.jackson.core.type.TypeReference<Map<String, Object>>() {}
+            );
+            @SuppressWarnings("unchecked")
+            List<Object> key = (List<Object>) data.get("key");
+            copy.put(key, data.get("value"));
+        }
+        return copy;
+    }
+
+    private static WalletFile wallet() {
+        IDInfo alice = new IDInfo();
+        alice.did = "did:test:alice";
+        alice.account = 0;
+        alice.index = 1;
+        alice.held = new ArrayList<>(List.of("did:test:held0", "did:test:held1"));
+        alice.owned = new ArrayList<>(List.of("did:test:owned0"));
+
+        WalletFile wallet = new WalletFile();
+        wallet.version = 1;
+        wallet.seed = new Seed();
+        wallet.counter = 1;
+        wallet.current = "Alice";
+        wallet.ids = new HashMap<>(Map.of("Alice", alice));
+        wallet.names = new LinkedHashMap<>(Map.of("alias", "did:test:alias"));
+        return wallet;
+    }
+}
@@ -0,0 +1,151 @@
+package org.keychain.keymaster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.Test;
+import org.keychain.crypto.EncryptedMnemonic;
+import org.keychain.crypto.HdKeyUtil;
+import org.keychain.crypto.MnemonicEncryption;
+import org.keychain.keymaster.model.IDInfo;
+import org.keychain.keymaster.model.WalletEncFile;
+import org.keychain.keymaster.store.WalletJsonMemory;
+
+class WalletSessionTest {
+    private static final String MNEMONIC =
+        "abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon about";
+    private static final String PASSPHRASE = "passphrase";
+
+    @Test
+    void unlockDerivesMasterAndDecryptsSeed() {
+        EncryptedMnemonic enc = MnemonicEncryption.encrypt(MNEMONIC, PASSPHRASE);
+        try (WalletSession session = WalletSession.unlock(enc, PASSPHRASE)) {
+            assertTrue(session.matches(enc));
+            assertEquals(MNEMONIC, session.decryptMnemonic(enc));
+            assertEquals(
+                HdKeyUtil.masterFromMnemonic(MNEMONIC).getPrivKey(),
+                session.master().getPrivKey()
+            );
+        }
+    }
+
+    @Test
+    void createProducesSeedReadableWithPassphrase() {
+        WalletSession session = WalletSession.create(MNEMONIC, PASSPHRASE, null);
+        EncryptedMnemonic enc = session.seed();
+
+        assertEquals(MNEMONIC, MnemonicEncryption.decrypt(enc, PASSPHRASE));
+        assertTrue(session.matches(enc));
+        assertFalse(session.matches(MnemonicEncryption.encrypt(MNEMONIC, PASSPHRASE)));
+    }
+
+    @Test
+    void wrongPassphraseFails() {
+        EncryptedMnemonic enc = MnemonicEncryption.encrypt(MNEMONIC, PASSPHRASE);
+        assertThrows(IllegalStateException.class, () -> WalletSession.unlock(enc, "wrong"));
+    }
+
+    @Test
+    void idleTimeoutLocksSession() {
+        MutableClock clock = new MutableClock();
+        EncryptedMnemonic enc = MnemonicEncryption.encrypt(MNEMONIC, PASSPHRASE);
+        WalletSession session = WalletSession.unlock(enc, PASSPHRASE, Duration.ofMinutes(5), clock);
+
+        clock.advance(Duration.ofMinutes(4));
+        session.master();
+        clock.advance(Duration.ofMinutes(4));
+        assertTrue(session.isUnlocked());
+
+        clock.advance(Duration.ofMinutes(6));
+        assertFalse(session.isUnlocked());
+        assertThrows(IllegalStateException.class, session::master);
+        assertThrows(IllegalStateException.class, () -> session.decryptMnemonic(enc));
+    }
+
+    @Test
+    void lockWipesSession() {
+        EncryptedMnemonic enc = MnemonicEncryption.encrypt(MNEMONIC, PASSPHRASE);
+        WalletSession session = WalletSession.unlock(enc, PASSPHRASE, null);
+        session.lock();
+
+        assertFalse(session.isUnlocked());
+        assertThrows(IllegalStateException.class, session::master);
+    }
+
+    @Test
+    void keymasterLockHoldsUntilUnlock() {
+        Keymaster keymaster = keymasterWithId();
+        keymaster.fetchKeyPair("Alice");
+
+        keymaster.lock();
+        assertFalse(keymaster.isUnlocked());
+        assertThrows(IllegalStateException.class, () -> keymaster.fetchKeyPair("Alice"));
+        assertThrows(IllegalStateException.class, keymaster::decryptMnemonic);
+        assertThrows(IllegalStateException.class, () -> keymaster.addName("locked", "did:test:locked"));
+        assertThrows(IllegalStateException.class, () -> keymaster.newWallet(MNEMONIC, true));
+
+        keymaster.unlock();
+        assertTrue(keymaster.isUnlocked());
+        assertEquals(MNEMONIC, keymaster.decryptMnemonic());
+        keymaster.fetchKeyPair("Alice");
+    }
+
+    @Test
+    void keymasterStaysLockedAfterIdleTimeout() throws InterruptedException {
+        Keymaster keymaster = keymasterWithId();
+        keymaster.lock();
+        keymaster.setSessionIdleTimeout(Duration.ofMillis(1));
+        keymaster.unlock();
+        Thread.sleep(5);
+
+        assertThrows(IllegalStateException.class, () -> keymaster.fetchKeyPair("Alice"));
+        assertFalse(keymaster.isUnlocked());
+
+        keymaster.setSessionIdleTimeout(null);
+        keymaster.unlock();
+        keymaster.fetchKeyPair("Alice");
+    }
+
+    private static Keymaster keymasterWithId() {
+        Keymaster keymaster = new Keymaster(new WalletJsonMemory<>(WalletEncFile.class), PASSPHRASE);
+        keymaster.newWallet(MNEMONIC, true);
+        keymaster.mutateWallet(wallet -> {
+            IDInfo id = new IDInfo();
+            id.did = "did:test:alice";
+            id.account = 0;
+            id.index = 0;
+            wallet.ids.put("Alice", id);
+        });
+        return keymaster;
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.EPOCH;
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
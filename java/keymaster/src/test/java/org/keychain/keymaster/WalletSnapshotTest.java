@@ -0,0 +1,141 @@
+package org.keychain.keymaster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+import org.keychain.keymaster.model.IDInfo;
+import org.keychain.keymaster.model.WalletEncFile;
+import org.keychain.keymaster.model.WalletFile;
+import org.keychain.keymaster.store.WalletJsonMemory;
+
+class WalletSnapshotTest {
+    private static final String MNEMONIC =
+        "abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon about";
+    private static final String PASSPHRASE = "passphrase";
+
+    @Test
+    void mutationPublishesNewSnapshot() {
+        Keymaster keymaster = keymaster();
+        WalletFile before = keymaster.loadWallet();
+        assertSame(before, keymaster.loadWallet());
+
+        keymaster.addName("alias", "did:test:alias");
+        WalletFile after = keymaster.loadWallet();
+
+        assertNotSame(before, after);
+        assertNull(before.names.get("alias"));
+        assertEquals("did:test:alias", after.names.get("alias"));
+        assertFalse(keymaster.mutateWallet(wallet -> wallet.names.get("alias")));
+        assertSame(after, keymaster.loadWallet());
+    }
+
+    @Test
+    void publishedSnapshotsAreUnmodifiable() {
+        Keymaster keymaster = keymaster();
+        keymaster.mutateWallet(wallet -> {
+            IDInfo id = new IDInfo();
+            id.did = "did:test:alice";
+            id.held = new ArrayList<>(List.of("did:test:held"));
+            wallet.ids.put("Alice", id);
+            wallet.names.put("alias", "did:test:alias");
+        });
+        WalletFile committed = keymaster.loadWallet();
+        assertThrows(UnsupportedOperationException.class, () -> committed.names.put("other", "did:test:other"));
+        assertThrows(UnsupportedOperationException.class, () -> committed.ids.remove("Alice"));
+        assertThrows(UnsupportedOperationException.class, () -> committed.ids.get("Alice").held.add("did:test:other"));
+
+        WalletFile copy = WalletDraft.snapshot(committed);
+        copy.names = new HashMap<>(copy.names);
+        copy.names.put("saved", "did:test:saved");
+        assertTrue(keymaster.saveWallet(copy, true));
+        copy.names.put("later", "did:test:later");
+        WalletFile saved = keymaster.loadWallet();
+        assertEquals("did:test:saved", saved.names.get("saved"));
+        assertNull(saved.names.get("later"));
+        assertThrows(UnsupportedOperationException.class, () -> saved.names.put("other", "did:test:other"));
+    }
+
+    @Test
+    void newWalletReturnsPublishedSnapshot() {
+        Keymaster keymaster = new Keymaster(new WalletJsonMemory<>(WalletEncFile.class), PASSPHRASE);
+        WalletFile wallet = keymaster.newWallet(MNEMONIC, true);
+
+        assertSame(keymaster.loadWallet(), wallet);
+        assertThrows(UnsupportedOperationException.class, () -> wallet.ids.put("Alice", new IDInfo()));
+    }
+
+    @Test
+    void loadedSnapshotIsUnmodifiable() {
+        WalletJsonMemory<WalletEncFile> store = new WalletJsonMemory<>(WalletEncFile.class);
+        Keymaster keymaster = new Keymaster(store, PASSPHRASE);
+        keymaster.newWallet(MNEMONIC, true);
+        keymaster.addName("alias", "did:test:alias");
+
+        WalletFile loaded = new Keymaster(store, PASSPHRASE).loadWallet();
+        assertEquals("did:test:alias", loaded.names.get("alias"));
+        assertThrows(UnsupportedOperationException.class, () -> loaded.names.remove("alias"));
+    }
+
+    @Test
+    void readersSeeConsistentSnapshotsDuringWrites() throws Exception {
+        Keymaster keymaster = keymaster();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> reads = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                reads.add(readers.submit(() -> {
+                    int snapshots = 0;
+                    while (writing.get()) {
+                        WalletFile wallet = keymaster.loadWallet();
+                        int names = 0;
+                        for (String did : wallet.names.values()) {
+                            names += did.isEmpty() ? 0 : 1;
+                        }
+                        assertEquals(wallet.counter, names);
+                        snapshots += 1;
+                    }
+                    return snapshots;
+                }));
+            }
+
+            for (int i = 0; i < 200; i++) {
+                int n = i;
+                keymaster.mutateWallet(wallet -> {
+                    wallet.names.put("name" + n, "did:test:" + n);
+                    wallet.counter = wallet.names.size();
+                });
+            }
+            writing.set(false);
+            for (Future<Integer> read : reads) {
+                read.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            writing.set(false);
+            readers.shutdownNow();
+        }
+
+        assertEquals(200, keymaster.loadWallet().counter);
+    }
+
+    private static Keymaster keymaster() {
+        Keymaster keymaster = new Keymaster(new WalletJsonMemory<>(WalletEncFile.class), PASSPHRASE);
+        keymaster.newWallet(MNEMONIC, true);
+        keymaster.mutateWallet(wallet -> wallet.names = new HashMap<>());
+        return keymaster;
+    }
+}
@@ -0,0 +1,97 @@
+package org.keychain.keymaster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.bitcoinj.crypto.DeterministicKey;
+import org.bitcoinj.params.MainNetParams;
+import org.junit.jupiter.api.Test;
+import org.keychain.crypto.HdKeyUtil;
+import org.keychain.crypto.JwkPair;
+import org.keychain.crypto.JwkPublic;
+import org.keychain.crypto.KeymasterCryptoImpl;
+import org.keychain.crypto.Secp256k1Jwk;
+import org.keychain.gatekeeper.model.EcdsaJwkPublic;
+import org.keychain.keymaster.model.WatchOnlyId;
+import org.keychain.keymaster.model.WatchOnlyWallet;
+
+class WatchOnlyKeymasterTest {
+    private static final String MNEMONIC =
+        "abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon about";
+    private static final String DID = "did:test:z3v8AuaWatchOnly";
+
+    private final KeymasterCryptoImpl crypto = new KeymasterCryptoImpl();
+    private final DeterministicKey master = HdKeyUtil.masterFromMnemonic(MNEMONIC);
+
+    @Test
+    void publicDerivationMatchesPrivateKeys() {
+        WatchOnlyKeymaster watchOnly = new WatchOnlyKeymaster(wallet(1, 2, null));
+
+        for (int index = 0; index < 4; index++) {
+            JwkPublic derived = watchOnly.derivePublicKey("Alice", index);
+            assertEquals(expected(1, index).x, derived.x);
+            assertEquals(expected(1, index).y, derived.y);
+        }
+        assertEquals(expected(1, 2).x, watchOnly.currentPublicKey(DID).x);
+    }
+
+    @Test
+    void findsKeysByIndexAndLookahead() {
+        EcdsaJwkPublic first = JwkConverter.toEcdsaJwkPublic(expected(0, 0));
+        WatchOnlyKeymaster watchOnly = new WatchOnlyKeymaster(
+            wallet(0, 1, Map.of(Secp256k1Jwk.thumbprint(expected(0, 0)), 0))
+        );
+
+        assertEquals(0, watchOnly.findKeyIndex("Alice", first));
+        assertEquals(5, watchOnly.findKeyIndex("Alice", JwkConverter.toEcdsaJwkPublic(expected(0, 5))));
+        assertNull(watchOnly.findKeyIndex(
+            "Alice",
+            JwkConverter.toEcdsaJwkPublic(expected(0, 2 + WatchOnlyKeymaster.LOOKAHEAD))
+        ));
+        assertFalse(watchOnly.matchesPublicKey("Alice", JwkConverter.toEcdsaJwkPublic(expected(1, 0))));
+    }
+
+    @Test
+    void idLookupByNameOrDid() {
+        WatchOnlyKeymaster watchOnly = new WatchOnlyKeymaster(wallet(0, 0, null));
+
+        assertTrue(watchOnly.idInWallet(DID));
+        assertTrue(watchOnly.idInWallet("did:other:z3v8AuaWatchOnly"));
+        assertFalse(watchOnly.idInWallet("did:test:unknown"));
+        assertEquals(DID, watchOnly.fetchIdInfo(null).did);
+        assertThrows(IllegalStateException.class, () -> watchOnly.isOwned(DID));
+    }
+
+    @Test
+    void rejectsExtendedPrivateKeys() {
+        WatchOnlyWallet wallet = wallet(0, 0, null);
+        wallet.ids.get("Alice").xpub = HdKeyUtil.deriveChain(master, 0).serializePrivB58(MainNetParams.get());
+
+        assertThrows(IllegalArgumentException.class, () -> new WatchOnlyKeymaster(wallet));
+    }
+
+    private JwkPublic expected(int account, int index) {
+        JwkPair pair = crypto.generateJwk(HdKeyUtil.privateKeyBytes(HdKeyUtil.derivePath(master, account, index)));
+        return pair.publicJwk;
+    }
+
+    private WatchOnlyWallet wallet(int account, int index, Map<String, Integer> keyIndex) {
+        WatchOnlyId id = new WatchOnlyId();
+        id.did = DID;
+        id.account = account;
+        id.index = index;
+        id.xpub = HdKeyUtil.toXpub(HdKeyUtil.deriveChain(master, account));
+        id.keyIndex = keyIndex;
+
+        WatchOnlyWallet wallet = new WatchOnlyWallet();
+        wallet.version = 1;
+        wallet.ids = new HashMap<>(Map.of("Alice", id));
+        wallet.current = "Alice";
+        return wallet;
+    }
+}
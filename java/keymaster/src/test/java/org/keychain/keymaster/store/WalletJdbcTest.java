@@ -0,0 +1,92 @@
+package org.keychain.keymaster.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keychain.keymaster.model.Seed;
+import org.keychain.keymaster.model.WalletFile;
+
+class WalletJdbcTest {
+    private WalletJdbc<WalletFile> store;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        store = new WalletJdbc<>(WalletFile.class, dataSource);
+    }
+
+    @Test
+    void savesAndLoadsWallet() {
+        assertNull(store.loadWallet());
+        assertTrue(store.saveWallet(wallet(1), false));
+        assertFalse(store.saveWallet(wallet(2), false));
+        assertEquals(1, store.loadWallet().counter);
+
+        assertTrue(store.saveWallet(wallet(3), true));
+        assertEquals(3, store.loadWallet().counter);
+    }
+
+    @Test
+    void updatesOnlyGivenRecords() {
+        assertTrue(store.replaceRecords(wallet(0), Map.of("a", "1", "b", "2", "c", "3"), false));
+
+        Map<String, String> upserts = new LinkedHashMap<>();
+        upserts.put("b", "20");
+        upserts.put("d", "4");
+        assertTrue(store.updateRecords(null, upserts, List.of("a")));
+
+        assertEquals(Map.of("b", "20", "c", "3", "d", "4"), store.loadRecords(null, 10));
+        assertEquals(0, store.loadWallet().counter);
+
+        assertTrue(store.updateRecords(wallet(7), Map.of(), List.of()));
+        assertEquals(7, store.loadWallet().counter);
+    }
+
+    @Test
+    void pagesRecordsInKeyOrder() {
+        Map<String, String> records = new HashMap<>();
+        for (int i = 0; i < 25; i++) {
+            records.put(String.format("%02x", i), "value" + i);
+        }
+        store.replaceRecords(wallet(0), records, false);
+
+        Map<String, String> first = store.loadRecords(null, 10);
+        assertEquals(List.of("00", "01", "02", "03", "04", "05", "06", "07", "08", "09"), List.copyOf(first.keySet()));
+        Map<String, String> last = store.loadRecords("15", 10);
+        assertEquals(List.of("16", "17", "18"), List.copyOf(last.keySet()));
+    }
+
+    @Test
+    void savingWalletDropsRecords() {
+        store.replaceRecords(wallet(0), Map.of("a", "1"), false);
+        store.saveWallet(wallet(1), true);
+
+        assertTrue(store.loadRecords(null, 10).isEmpty());
+    }
+
+    @Test
+    void updateWithoutWalletFails() {
+        assertFalse(store.updateRecords(null, Map.of("a", "1"), List.of()));
+        assertTrue(store.loadRecords(null, 10).isEmpty());
+    }
+
+    private static WalletFile wallet(int counter) {
+        WalletFile wallet = new WalletFile();
+        wallet.version = 1;
+        wallet.counter = counter;
+        wallet.seed = new Seed();
+        wallet.ids = new HashMap<>();
+        return wallet;
+    }
+}
@@ -0,0 +1,93 @@
+package org.keychain.keymaster.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.keychain.keymaster.model.Seed;
+import org.keychain.keymaster.model.WalletFile;
+
+class WalletJsonJournalTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void recordsAppendUntilNextSnapshot() {
+        WalletJsonJournal<WalletFile> store = new WalletJsonJournal<>(WalletFile.class, tempDir, "wallet.json");
+        assertTrue(store.saveWallet(wallet(0), false));
+        assertTrue(store.loadRecords().isEmpty());
+
+        store.appendRecord("first");
+        store.appendRecord("second");
+        assertEquals(List.of("first", "second"), store.loadRecords());
+        assertEquals(0, store.loadWallet().counter);
+
+        assertTrue(store.saveWallet(wallet(3), true));
+        assertTrue(store.loadRecords().isEmpty());
+        assertFalse(Files.exists(tempDir.resolve("wallet.json.journal")));
+        assertEquals(3, store.loadWallet().counter);
+    }
+
+    @Test
+    void refusedSnapshotKeepsJournal() {
+        WalletJsonJournal<WalletFile> store = new WalletJsonJournal<>(WalletFile.class, tempDir, "wallet.json");
+        store.saveWallet(wallet(0), false);
+        store.appendRecord("first");
+
+        assertFalse(store.saveWallet(wallet(1), false));
+        assertEquals(List.of("first"), store.loadRecords());
+    }
+
+    @Test
+    void durableStoreForcesSnapshotsAndRecords() {
+        WalletJsonJournal<WalletFile> store =
+            new WalletJsonJournal<>(WalletFile.class, tempDir, "wallet.json", WalletDurability.EVERY_WRITE);
+        assertEquals(WalletDurability.EVERY_WRITE, store.durability());
+        assertTrue(store.saveWallet(wallet(2), false));
+
+        assertTrue(store.appendRecords(List.of("first", "second")));
+        store.appendRecord("third");
+        assertEquals(List.of("first", "second", "third"), store.loadRecords());
+        assertEquals(2, store.loadWallet().counter);
+    }
+
+    @Test
+    void sequencedAppendRequiresExpectedRecordCount() {
+        WalletJsonJournal<WalletFile> store = new WalletJsonJournal<>(WalletFile.class, tempDir, "wallet.json");
+        store.saveWallet(wallet(0), false);
+
+        assertTrue(store.appendRecords(0, List.of("first")));
+        assertFalse(store.appendRecords(0, List.of("stale")));
+        assertTrue(store.appendRecords(1, List.of("second", "third")));
+        assertFalse(store.appendRecords(2, List.of("stale")));
+        assertEquals(List.of("first", "second", "third"), store.loadRecords());
+
+        store.saveWallet(wallet(1), true);
+        assertFalse(store.appendRecords(3, List.of("stale")));
+        assertTrue(store.appendRecords(0, List.of("fourth")));
+        assertEquals(List.of("fourth"), store.loadRecords());
+    }
+
+    @Test
+    void rejectsMultiLineRecords() {
+        WalletJsonJournal<WalletFile> store = new WalletJsonJournal<>(WalletFile.class, tempDir, "wallet.json");
+        assertThrows(IllegalArgumentException.class, () -> store.appendRecord("a\nb"));
+        assertThrows(IllegalArgumentException.class, () -> store.appendRecord(""));
+    }
+
+    private static WalletFile wallet(int counter) {
+        WalletFile wallet = new WalletFile();
+        wallet.version = 1;
+        wallet.counter = counter;
+        wallet.seed = new Seed();
+        wallet.ids = new HashMap<>();
+        return wallet;
+    }
+}